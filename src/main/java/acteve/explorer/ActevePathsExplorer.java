@@ -35,10 +35,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,7 +66,6 @@ public class ActevePathsExplorer implements ExplorationStrategy
 		PathQueue.addPath(new Path(seedScript));
 		assert K > 0 : String.valueOf(K);
 		perform(K, checkReadOnly, checkIndep, pruneAfterLastStep);
-		ConcolicExecutor.v().printStats();
 	}	
 
 	private void perform(int K, boolean checkReadOnly, boolean checkIndep, boolean pruneAfterLastStep)
@@ -106,8 +103,9 @@ public class ActevePathsExplorer implements ExplorationStrategy
 	private List<Integer> prune1(int numEvents, List<Integer> prefixes, boolean checkReadOnly)
 	{
 		List<Integer> result = new ArrayList();
+		PathInfo.Reader infos = new PathInfo.Reader(new File(Config.g().outDir));
 		for (Integer prefixId : prefixes) {
-			PathInfo pinfo = PathInfo.load(Main.newOutFile(PathInfo.fileName(prefixId)));
+			PathInfo pinfo = infos.read(prefixId);
 			if(checkReadOnly && pinfo.endsWithPanelClick){
 				log.debug("read-only pruning: {}", prefixId);
 				continue;
@@ -118,16 +116,46 @@ public class ActevePathsExplorer implements ExplorationStrategy
 		return result;
 	}
 
+	/**
+	 * Keeps one of the tests with identical traces; extending the 
+	 * others would repeat the same paths.
+	 */
+	private List<Integer> dedupe(List<Integer> prefixes)
+	{
+		Map<Trace,Integer> seen = new HashMap();
+		List<Integer> result = new ArrayList();
+		for (Integer prefixId : prefixes) {
+			Trace trace;
+			try {
+				trace = Path.store().branches(prefixId);
+			} catch (IOException e) {
+				throw new Error(e);
+			}
+			Integer first = seen.get(trace);
+			if(first != null) {
+				log.debug("duplicate pruning: {} repeats {}", prefixId, first);
+				continue;
+			}
+			seen.put(trace, prefixId);
+			result.add(prefixId);
+		}
+		log.info("(stat) No of tests pruned as duplicates = {}", (prefixes.size()-result.size()));
+		return result;
+	}
+
 	private List<Integer> prune(int numEvents, List<Integer> prefixes, boolean checkReadOnly, boolean checkIndep)
 	{
 		log.debug("Pruning.");
+		if(Config.g().pruneDuplicates)
+			prefixes = dedupe(prefixes);
 		if(numEvents == 1)
 			return prune1(numEvents, prefixes, checkReadOnly);
 
 		IndepGraph graph = new IndepGraph();
 		Map<Integer,PathInfo> idToPInfo = new HashMap();
+		PathInfo.Reader infos = new PathInfo.Reader(new File(Config.g().outDir));
 		for (Integer prefixId : prefixes) {
-			PathInfo pinfo = PathInfo.load(Main.newOutFile(PathInfo.fileName(prefixId)));
+			PathInfo pinfo = infos.read(prefixId);
 			if(checkReadOnly && pinfo.endsWithPanelClick) {
 				log.debug("read-only pruning: {}", prefixId);
 				continue;
@@ -144,26 +172,11 @@ public class ActevePathsExplorer implements ExplorationStrategy
 			return result;
 		}
 		
-		Set<Integer> ids = idToPInfo.keySet();
-		Map<Integer,Set<Integer>> checked = new HashMap();
-		for(Integer prefixId : ids) {
-			for(Integer suffixId : ids) {
-				if(suffixId == prefixId)
-					continue;
-				Set<Integer> is = checked.get(suffixId);
-				if(is != null && is.contains(prefixId))
-					continue;
-				is = checked.get(prefixId);
-				if(is == null) {
-					is = new HashSet();
-					checked.put(prefixId, is);
-				}
-				is.add(suffixId);
-
-				if(Indep.check(prefixId, idToPInfo.get(prefixId), suffixId, idToPInfo.get(suffixId), numEvents))
-					graph.addEdge(prefixId, suffixId);
-			}
-		}
+		List<Indep.Test> tests = new ArrayList();
+		for(Map.Entry<Integer,PathInfo> entry : idToPInfo.entrySet())
+			tests.add(Indep.test(entry.getKey(), entry.getValue()));
+		for(int[] pair : Indep.independentPairs(tests, numEvents))
+			graph.addEdge(pair[0], pair[1]);
 
 		List<Integer> result = new ArrayList(graph.findGreedyMinVertexCover());
 		log.debug("(stat) No of tests pruned by indep opt. = {}", (idToPInfo.size()-result.size()));		
@@ -0,0 +1,378 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Talks to the local adb server directly over its socket protocol
+ * instead of forking an <code>adb</code> client for every command.
+ *
+ * A connection keeps one sync session open to its emulator for
+ * push/pull and reuses it across paths. The adb server closes the
+ * socket after a <code>shell:</code> service, so every shell command
+ * opens a fresh (local) socket; that is still a round trip and not a
+ * process launch.
+ */
+public class AdbConnection
+{
+	private static final Logger log = LoggerFactory.getLogger(AdbConnection.class);
+
+	private static final int SYNC_DATA_MAX = 64*1024;
+	private static final int DEFAULT_FILE_MODE = 0644;
+	private static final int SO_TIMEOUT = 60*1000;
+
+	private static final Map<Integer,AdbConnection> connections = new HashMap();
+
+	private final String host;
+	private final int serverPort;
+	private final String serial;
+
+	private Socket syncSocket;
+	private DataInputStream syncIn;
+	private OutputStream syncOut;
+
+	public AdbConnection(String host, int serverPort, String serial)
+	{
+		this.host = host;
+		this.serverPort = serverPort;
+		this.serial = serial;
+	}
+
+	/**
+	 * Returns the shared connection for emulator-<code>port</code>.
+	 */
+	public static synchronized AdbConnection forEmulator(int port)
+	{
+		AdbConnection conn = connections.get(port);
+		if(conn == null){
+			Config config = Config.g();
+			conn = new AdbConnection(config.adbHost, config.adbPort, "emulator-"+port);
+			connections.put(port, conn);
+		}
+		return conn;
+	}
+
+	public static synchronized void closeAll()
+	{
+		for(AdbConnection conn : connections.values())
+			conn.close();
+		connections.clear();
+	}
+
+	/**
+	 * Runs <code>cmd</code> in a device shell and copies its output
+	 * to <code>out</code> (may be null).
+	 */
+	public void shell(String cmd, OutputStream out)
+	{
+		Socket socket = null;
+		try{
+			socket = openShell(cmd);
+			InputStream in = socket.getInputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while((n = in.read(buf)) > 0){
+				if(out != null)
+					out.write(buf, 0, n);
+			}
+			if(out != null)
+				out.flush();
+		}catch(IOException e){
+			throw new BuildException("shell " + cmd + " on " + serial, e);
+		}finally{
+			closeQuietly(socket);
+		}
+	}
+
+	/**
+	 * Starts cmd in a device shell and returns the socket its output
+	 * streams from. The caller closes the socket, and clears the read
+	 * timeout for long-running commands such as logcat.
+	 */
+	public Socket openShell(String cmd) throws IOException
+	{
+		Socket socket = openTransport();
+		try{
+			request(socket, "shell:" + cmd);
+		}catch(IOException e){
+			closeQuietly(socket);
+			throw e;
+		}
+		return socket;
+	}
+
+	/**
+	 * Forwards tcp:localPort on this host to the abstract unix
+	 * socket <code>name</code> on the device.
+	 */
+	public void forward(int localPort, String name)
+	{
+		Socket socket = null;
+		try{
+			socket = new Socket(host, serverPort);
+			socket.setSoTimeout(SO_TIMEOUT);
+			request(socket, "host-serial:" + serial + ":forward:tcp:" + localPort + ";localabstract:" + name);
+		}catch(IOException e){
+			throw new BuildException("forward tcp:" + localPort + " to " + name + " on " + serial, e);
+		}finally{
+			closeQuietly(socket);
+		}
+	}
+
+	public synchronized void push(File local, String remote)
+	{
+		try{
+			sync();
+			FileInputStream in = new FileInputStream(local);
+			try{
+				writeSyncRequest("SEND", remote + "," + DEFAULT_FILE_MODE);
+				byte[] buf = new byte[SYNC_DATA_MAX];
+				int n;
+				while((n = in.read(buf)) > 0){
+					writeSyncHeader("DATA", n);
+					syncOut.write(buf, 0, n);
+				}
+			}finally{
+				in.close();
+			}
+			writeSyncHeader("DONE", (int) (local.lastModified() / 1000));
+			syncOut.flush();
+
+			String id = readId(syncIn);
+			int len = readLE32(syncIn);
+			if(id.equals("FAIL"))
+				throw new BuildException("push " + remote + ": " + readString(syncIn, len));
+			if(!id.equals("OKAY"))
+				throw protocolError(id);
+		}catch(IOException e){
+			resetSync();
+			throw new BuildException("push " + local + " " + remote + " on " + serial, e);
+		}catch(BuildException e){
+			resetSync();
+			throw e;
+		}
+	}
+
+	public synchronized void pull(String remote, File local)
+	{
+		File tmp = new File(local.getPath() + ".part");
+		try{
+			sync();
+			writeSyncRequest("RECV", remote);
+			syncOut.flush();
+
+			OutputStream out = new FileOutputStream(tmp);
+			try{
+				byte[] buf = new byte[SYNC_DATA_MAX];
+				while(true){
+					String id = readId(syncIn);
+					int len = readLE32(syncIn);
+					if(id.equals("DONE"))
+						break;
+					if(id.equals("FAIL"))
+						throw new BuildException("pull " + remote + ": " + readString(syncIn, len));
+					if(!id.equals("DATA") || len > SYNC_DATA_MAX)
+						throw protocolError(id);
+					syncIn.readFully(buf, 0, len);
+					out.write(buf, 0, len);
+				}
+			}finally{
+				out.close();
+			}
+			if(local.exists() && !local.delete())
+				throw new BuildException("cannot delete " + local);
+			if(!tmp.renameTo(local))
+				throw new BuildException("cannot rename " + tmp + " to " + local);
+		}catch(IOException e){
+			tmp.delete();
+			resetSync();
+			throw new BuildException("pull " + remote + " " + local + " on " + serial, e);
+		}catch(BuildException e){
+			tmp.delete();
+			//a FAIL leaves the sync session usable, anything else does not
+			if(e.getCause() != null)
+				resetSync();
+			throw e;
+		}
+	}
+
+	public synchronized void close()
+	{
+		if(syncSocket != null){
+			try{
+				writeSyncHeader("QUIT", 0);
+				syncOut.flush();
+			}catch(IOException e){
+				//the server may have already gone
+			}
+		}
+		resetSync();
+	}
+
+	private void sync() throws IOException
+	{
+		if(syncSocket != null)
+			return;
+		Socket socket = openTransport();
+		try{
+			request(socket, "sync:");
+		}catch(IOException e){
+			closeQuietly(socket);
+			throw e;
+		}
+		syncSocket = socket;
+		syncIn = new DataInputStream(socket.getInputStream());
+		syncOut = socket.getOutputStream();
+		log.trace("opened sync session to {}", serial);
+	}
+
+	private void resetSync()
+	{
+		closeQuietly(syncSocket);
+		syncSocket = null;
+		syncIn = null;
+		syncOut = null;
+	}
+
+	private Socket openTransport() throws IOException
+	{
+		Socket socket = new Socket(host, serverPort);
+		try{
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout(SO_TIMEOUT);
+			request(socket, "host:transport:" + serial);
+		}catch(IOException e){
+			closeQuietly(socket);
+			throw e;
+		}
+		return socket;
+	}
+
+	/**
+	 * Sends a host request (4 hex digit length + payload) and
+	 * waits for OKAY.
+	 */
+	private static void request(Socket socket, String req) throws IOException
+	{
+		byte[] payload = req.getBytes("UTF-8");
+		OutputStream out = socket.getOutputStream();
+		out.write(String.format("%04x", payload.length).getBytes("US-ASCII"));
+		out.write(payload);
+		out.flush();
+
+		DataInputStream in = new DataInputStream(socket.getInputStream());
+		String status = readId(in);
+		if(status.equals("OKAY"))
+			return;
+		if(status.equals("FAIL")){
+			int len = Integer.parseInt(readString(in, 4), 16);
+			throw new IOException(req + ": " + readString(in, len));
+		}
+		throw new IOException(req + ": unexpected response " + status);
+	}
+
+	private void writeSyncRequest(String id, String path) throws IOException
+	{
+		byte[] bytes = path.getBytes("UTF-8");
+		writeSyncHeader(id, bytes.length);
+		syncOut.write(bytes);
+	}
+
+	private void writeSyncHeader(String id, int value) throws IOException
+	{
+		byte[] header = new byte[8];
+		for(int i = 0; i < 4; i++)
+			header[i] = (byte) id.charAt(i);
+		header[4] = (byte) value;
+		header[5] = (byte) (value >>> 8);
+		header[6] = (byte) (value >>> 16);
+		header[7] = (byte) (value >>> 24);
+		syncOut.write(header);
+	}
+
+	private static String readId(DataInputStream in) throws IOException
+	{
+		return readString(in, 4);
+	}
+
+	private static int readLE32(DataInputStream in) throws IOException
+	{
+		int b0 = in.read(), b1 = in.read(), b2 = in.read(), b3 = in.read();
+		if((b0 | b1 | b2 | b3) < 0)
+			throw new EOFException();
+		return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24);
+	}
+
+	private static String readString(DataInputStream in, int len) throws IOException
+	{
+		byte[] bytes = new byte[len];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private BuildException protocolError(String id)
+	{
+		return new BuildException("unexpected sync response " + id + " from " + serial,
+								  new IOException(id));
+	}
+
+	private static void closeQuietly(Socket socket)
+	{
+		if(socket == null)
+			return;
+		try{
+			socket.close();
+		}catch(IOException e){
+			//ignore
+		}
+	}
+
+	public String toString()
+	{
+		return serial + "@" + host + ":" + serverPort;
+	}
+}
@@ -31,8 +31,13 @@
 
 package acteve.explorer;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 
+import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.taskdefs.ExecTask;
 import org.apache.tools.ant.types.Commandline;
 import org.slf4j.Logger;
@@ -42,10 +47,15 @@ public class AdbTask extends ExecTask
 {
 	Logger log = LoggerFactory.getLogger(AdbTask.class);
 	protected int port;
+	private final String cmd;
+	private final String[] args;
+	private File outFile;
 
 	public AdbTask(int port, String cmd)
 	{
 		this.port = port;
+		this.cmd = cmd;
+		this.args = Commandline.translateCommandline(cmd);
 		setExecutable("adb");
 		Commandline.Argument cmdLineArgs = createArg();
 		cmd = "-s emulator-"+port+" " + cmd;
@@ -60,10 +70,56 @@ public class AdbTask extends ExecTask
 	public String getCmd() {
 		return this.cmdl.toString();
 	}
+
+	public void setOutput(File out)
+	{
+		this.outFile = out;
+		super.setOutput(out);
+	}
 		
 	public void execute()
 	{
+		if(Config.g().adbInProcess && args.length > 1 && executeInProcess())
+			return;
 		log.trace("exec {}", Arrays.toString(cmdl.getCommandline()));
 		super.execute();
 	}
-}
\ No newline at end of file
+
+	/*
+	  push, pull, shell and forward go over the adb server socket; anything
+	  else (e.g., install) still forks the adb client.
+	*/
+	private boolean executeInProcess()
+	{
+		AdbConnection conn = AdbConnection.forEmulator(port);
+		String verb = args[0];
+		if(verb.equals("push") && args.length == 3){
+			log.trace("push {} {} via {}", args[1], args[2], conn);
+			conn.push(new File(args[1]), args[2]);
+		} else if(verb.equals("pull") && args.length == 3){
+			log.trace("pull {} {} via {}", args[1], args[2], conn);
+			conn.pull(args[1], new File(args[2]));
+		} else if(verb.equals("shell")){
+			//the device's shell parses the command, so it gets the text
+			//after the verb as written, quotes included
+			String shellCmd = cmd.trim().substring(verb.length()).trim();
+			log.trace("shell {} via {}", shellCmd, conn);
+			try{
+				OutputStream out = new FileOutputStream(outFile, true);
+				try{
+					conn.shell(shellCmd, out);
+				}finally{
+					out.close();
+				}
+			}catch(IOException e){
+				throw new BuildException(e);
+			}
+		} else if(verb.equals("forward") && args.length == 3
+				  && args[1].startsWith("tcp:") && args[2].startsWith("localabstract:")){
+			log.trace("forward {} {} via {}", args[1], args[2], conn);
+			conn.forward(Integer.parseInt(args[1].substring(4)), args[2].substring(14));
+		} else
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,297 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Reads traces written in the binary format of 
+ * acteve.symbolic.BinaryLog, which documents the layout. The file is
+ * mapped and records are decoded straight from the mapping and 
+ * handed to a Visitor, without going through text lines.
+ *
+ * The frames of each thread form a stream of its own; the streams are
+ * merged by sequence number, so the Visitor sees the records in the 
+ * order the app made them.
+ */
+class BinaryTrace
+{
+	static final int VERSION = 3;
+	private static final byte[] MAGIC = {'A', '3', 'T', 'B'};
+
+	private static final int STRING = 0;
+	private static final int BRANCH = 1;
+	private static final int PC = 2;
+	private static final int ITER = 3;
+	private static final int READ = 4;
+	private static final int WRITE = 5;
+	private static final int RW = 6;
+	private static final int WW = 7;
+	private static final int AREAD = 8;
+	private static final int AWRITE = 9;
+	private static final int TEXT = 10;
+	private static final int LINE = 11;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	interface Visitor
+	{
+		/** The following records come from thread, 0 being the main thread. */
+		void thread(int thread);
+		void branch(boolean taken, int branchId);
+		void pc(String constraint);
+		void iter(int eventId);
+		void read(int fldId);
+		void write(int fldId);
+		void rw(int evId, int fldId);
+		void ww(int evId, int fldId);
+		void aread(int objId, int index);
+		void awrite(int objId, int index);
+		/** 
+		 * Any other record, as the "E/tag : msg" line or a raw line;
+		 * its thread is the one last given to thread().
+		 */
+		void text(String line);
+	}
+
+	static boolean isBinary(File file) throws IOException
+	{
+		if(file.length() < MAGIC.length + 1)
+			return false;
+		FileInputStream in = new FileInputStream(file);
+		try{
+			byte[] head = new byte[MAGIC.length];
+			if(in.read(head) != head.length)
+				return false;
+			for(int i = 0; i < head.length; i++)
+				if(head[i] != MAGIC[i])
+					return false;
+			return true;
+		}finally{
+			in.close();
+		}
+	}
+
+	static void read(File file, Visitor visitor) throws IOException
+	{
+		FileInputStream in = new FileInputStream(file);
+		try{
+			FileChannel channel = in.getChannel();
+			ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			for(int i = 0; i < MAGIC.length; i++)
+				if(buf.get() != MAGIC[i])
+					throw new IOException(file + ": not a binary trace");
+			int version = buf.get();
+			if(version != VERSION)
+				throw new IOException(file + ": unsupported trace version " + version);
+			read(buf, visitor);
+		}catch(BufferUnderflowException e){
+			throw new IOException(file + ": truncated trace");
+		}finally{
+			in.close();
+		}
+	}
+
+	/*
+	  The records of one thread, read from its frames in file order.
+	 */
+	private static final class Stream implements Comparable<Stream>
+	{
+		final int thread;
+		final ArrayDeque<ByteBuffer> frames = new ArrayDeque<ByteBuffer>();
+		final List<String> strings = new ArrayList<String>();
+		ByteBuffer buf;
+		//sequence number and tag of the next record
+		long seq;
+		int tag;
+
+		Stream(int thread)
+		{
+			this.thread = thread;
+		}
+
+		/*
+		  Moves to the next record, reading the STRING records on the 
+		  way. Returns false at the end of the stream.
+		 */
+		boolean advance()
+		{
+			while(true){
+				while(buf == null || !buf.hasRemaining()){
+					buf = frames.poll();
+					if(buf == null)
+						return false;
+					//string ids are per frame
+					strings.clear();
+				}
+				tag = buf.get();
+				if(tag != STRING){
+					seq += varlong(buf);
+					return true;
+				}
+				strings.add(string(buf));
+			}
+		}
+
+		public int compareTo(Stream o)
+		{
+			return seq < o.seq ? -1 : (seq == o.seq ? 0 : 1);
+		}
+	}
+
+	private static void read(ByteBuffer buf, Visitor visitor) throws IOException
+	{
+		Map<Integer,Stream> streams = new HashMap<Integer,Stream>();
+		while(buf.hasRemaining()){
+			int thread = varint(buf);
+			int len = varint(buf);
+			ByteBuffer frame = buf.slice();
+			frame.limit(len);
+			buf.position(buf.position() + len);
+			Stream s = streams.get(thread);
+			if(s == null)
+				streams.put(thread, s = new Stream(thread));
+			s.frames.add(frame);
+		}
+
+		PriorityQueue<Stream> next = new PriorityQueue<Stream>();
+		for(Stream s : streams.values())
+			if(s.advance())
+				next.add(s);
+		int thread = 0;
+		while(!next.isEmpty()){
+			Stream s = next.poll();
+			if(s.thread != thread){
+				thread = s.thread;
+				visitor.thread(thread);
+			}
+			record(s, visitor);
+			if(s.advance())
+				next.add(s);
+		}
+	}
+
+	private static void record(Stream s, Visitor visitor) throws IOException
+	{
+		ByteBuffer buf = s.buf;
+		switch(s.tag){
+		case BRANCH: {
+			int v = varint(buf);
+			visitor.branch((v & 1) != 0, v >>> 1);
+			break;
+		}
+		case PC:
+			visitor.pc(s.strings.get(varint(buf)));
+			break;
+		case ITER:
+			visitor.iter(varint(buf));
+			break;
+		case READ:
+			visitor.read(varint(buf));
+			break;
+		case WRITE:
+			visitor.write(varint(buf));
+			break;
+		case RW:
+			visitor.rw(varint(buf), varint(buf));
+			break;
+		case WW:
+			visitor.ww(varint(buf), varint(buf));
+			break;
+		case AREAD:
+			visitor.aread(varint(buf), varint(buf));
+			break;
+		case AWRITE:
+			visitor.awrite(varint(buf), varint(buf));
+			break;
+		case TEXT: {
+			String t = s.strings.get(varint(buf));
+			visitor.text("E/" + t + " : " + string(buf));
+			break;
+		}
+		case LINE:
+			visitor.text(string(buf));
+			break;
+		default:
+			throw new IOException("unknown record " + s.tag + " of thread " + s.thread);
+		}
+	}
+
+	private static int varint(ByteBuffer buf)
+	{
+		int v = 0;
+		for(int shift = 0; ; shift += 7){
+			int b = buf.get();
+			v |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+				return v;
+		}
+	}
+
+	private static long varlong(ByteBuffer buf)
+	{
+		long v = 0;
+		for(int shift = 0; ; shift += 7){
+			int b = buf.get();
+			v |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+				return v;
+		}
+	}
+
+	private static String string(ByteBuffer buf)
+	{
+		int len = varint(buf);
+		String s;
+		if(buf.hasArray()){
+			s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, UTF8);
+			buf.position(buf.position() + len);
+		} else {
+			byte[] bytes = new byte[len];
+			buf.get(bytes);
+			s = new String(bytes, UTF8);
+		}
+		return s;
+	}
+}
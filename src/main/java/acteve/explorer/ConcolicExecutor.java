@@ -31,12 +31,16 @@
 
 package acteve.explorer;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
@@ -48,7 +52,12 @@ public class ConcolicExecutor
 	private static ConcolicExecutor v;
 
 	private final BlockingQueue<Emulator> availableEmus = new LinkedBlockingQueue<Emulator>();
+	//solved paths waiting for a free emulator
+	private final BlockingQueue<ReadyPath> readyScripts;
+	private final ExecutorService analyzers;
 	private final int numEmus;
+	private final int numSolvers;
+	private volatile boolean solving;
 	private final int divergenceThreshold;
 	private final int wildEmusThreshold;
 
@@ -93,11 +102,24 @@ public class ConcolicExecutor
 		Emulator.writeToFile(Main.newOutFile(Emulator.PKG_TXT), appPkgName);
 		this.divergenceThreshold = divergenceThreshold;
 		this.wildEmusThreshold = wildEmusThreshold;
+
+		Config config = Config.g();
+		this.numSolvers = config.solverThreads > 0 ? config.solverThreads : numEmus;
+		this.readyScripts = new ArrayBlockingQueue<ReadyPath>(2*numEmus);
+		this.analyzers = Executors.newFixedThreadPool(config.analysisThreads);
 	}
 
 	/**
 	 * Starts plain symbolic execution.
 	 * 
+	 * Paths flow through three stages connected by queues: solver 
+	 * threads turn paths from the PathQueue into scripts, emulators
+	 * run the scripts, and the analysis pool post-processes the logs
+	 * after the emulator has been handed back.
+	 * 
+	 * Before returning, waits for the runs it started, so their
+	 * analyses are queued before {@link #shutdown()} stops the pool.
+	 * 
 	 * Returns true if all emulators are free and paths are done.
 	 * 
 	 * @param currentRoundRunIds
@@ -106,58 +128,115 @@ public class ConcolicExecutor
 	public boolean exec(List<Integer> currentRoundRunIds) {
 		this.currentRoundRunIds = Collections.synchronizedList(currentRoundRunIds);
 		int maxExecs = Config.g().maxExecs;
-		
-		while(maxExecs > 0)  {
-			Path path = null;
-			
-			//Wait for new path to be assigned to a free emulator
+
+		Solver[] solvers = startSolvers();
+		List<Worker> workers = new ArrayList<Worker>();
+		try {
 			while(true) {
-				path = PathQueue.getNextPath();
-				if(path == null) {
-					int n = availableEmus.size();
-					if(n == numEmus)
-						return true;
-				} else {
+				if(wildEmusCount.get() >= wildEmusThreshold)
+					break;
+				if(numExecs.get() >= maxExecs)
 					break;
+
+				ReadyPath ready;
+				try {
+					ready = readyScripts.poll(2L, TimeUnit.SECONDS);
+				}catch(InterruptedException e){
+					throw new Error(e);
 				}
+				if(ready == null) {
+					if(PathQueue.isDrained() && availableEmus.size() == numEmus)
+						return true;
+					continue;
+				}
+
+				Emulator emu;
+				try {
+					emu = availableEmus.take();
+				}catch(InterruptedException e){
+					throw new Error(e);
+				}
+
+				Worker w = new Worker(emu, ready.path, ready.script);
+				w.setName("Worker-"+ready.path.id());
+				w.start();
+				workers.add(w);
 			}
+		} finally {
+			joinWorkers(workers);
+			stopSolvers(solvers);
+		}
+		return false;
+	}
+
+	private Solver[] startSolvers()
+	{
+		solving = true;
+		Solver[] solvers = new Solver[numSolvers];
+		for(int i = 0; i < numSolvers; i++) {
+			solvers[i] = new Solver();
+			solvers[i].setName("Solver-"+i);
+			solvers[i].start();
+		}
+		return solvers;
+	}
 
-			MonkeyScript script = null;
+	private void joinWorkers(List<Worker> workers)
+	{
+		for(Worker w : workers) {
 			try {
-				script = path.generateScript();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			
-			if(script == null) {
-				//infeasible path
-				numExecs.incrementAndGet();
-				continue;
+				w.join();
+			}catch(InterruptedException e){
+				throw new Error(e);
 			}
-			
-			if(wildEmusCount.get() >= wildEmusThreshold)
-			break;
+		}
+	}
 
-			Emulator emu;
+	private void stopSolvers(Solver[] solvers)
+	{
+		solving = false;
+		for(Solver s : solvers) {
 			try {
-				emu = availableEmus.take();
+				s.join();
 			}catch(InterruptedException e){
 				throw new Error(e);
 			}
-			if(numExecs.get() >= maxExecs)
-				break;
-			
-			Worker w = new Worker(emu, path, script);
-			w.setName("Worker-"+path.id());
-			w.start();
 		}
-		return false;
+		//scripts that never got an emulator
+		ReadyPath ready;
+		while((ready = readyScripts.poll()) != null)
+			PathQueue.retire(ready.path);
+	}
+
+	/**
+	 * Waits for pending post-processing and stops the analysis pool;
+	 * call {@link #printStats()} after it, so the stats count every run.
+	 */
+	void shutdown() {
+		analyzers.shutdown();
+		try {
+			analyzers.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+		}catch(InterruptedException e){
+			throw new Error(e);
+		}
 	}
 
 	void printStats() {
         log.info("(stat) Number of feasible runs = " + feasibleCount.get());
         log.info("(stat) Number of divergent runs = " + divergenceCount.get());
         log.info("(stat) Total number of runs = " + numExecs.get());
+        SolverCache.printStats();
+        Path.store().printStats();
+	}
+
+	private static final class ReadyPath {
+		final Path path;
+		final MonkeyScript script;
+
+		ReadyPath(Path path, MonkeyScript script) {
+			this.path = path;
+			this.script = script;
+		}
 	}
 
 	private final class Worker extends Thread {
@@ -180,100 +259,133 @@ public class ConcolicExecutor
 
 		public void run() {
 			log.info("\n\n\nStarting new path ID {}",path.id());
-			ExecResult result = executePath();
-			switch(result) {			
-				case DIVERGED:
-					if(numDivergence(path.id()) <= divergenceThreshold){
-						handleDivergence(path);
-					} else {
-						//ignore this path because it diverged too many times
-						ignoredCount.incrementAndGet();
-						log.debug("Ignored path: " + path.id());
-					}
-					break;
-				case OK:
-					currentRoundRunIds.add(path.id());
-					feasibleCount.incrementAndGet();
-					numExecs.incrementAndGet();
-					break;
-				case SWB:
-					PathQueue.addPath(path.getRepeatPath());
-					break;
-			}
+			executePath();
 			if(!emuGoneWild) {
-				try{
-					//give the emu an breather
-					sleep(2000);
-				}catch(InterruptedException e){
-					throw new Error("Error occurred while executing " + path.id() + " on " + emu, e);
-				}
 				availableEmus.add(emu);
 			} else {
 				wildEmusCount.incrementAndGet();
 			}
+			analyzers.execute(new Analysis(path));
 		}	
-		
-		private void handleDivergence(Path path2) {
-			PathQueue.addPath(path2.getRepeatPath());
-			divergenceCount.incrementAndGet();
-			feasibleCount.incrementAndGet();
-			numExecs.incrementAndGet();
-		}
 
-		private ExecResult executePath()
+		private void executePath()
 		{
 			log.debug("Executing path " + path.id() + " on " + emu);
-			ExecResult result = null;
+			boolean streamed = false;
 			try{
-				emu.exec(path.id(), script);
+				TraceSink sink = Config.g().traceStreaming ? path.startTraceProcessor() : null;
+				streamed = emu.exec(path.id(), script, sink);
 				log.info("Finished executing path " + path.id() + " on " + emu);
 			}catch(EmuGoneWildException e) {
 				log.error("Emulator gone wild: {}", e.port());
-				result = ExecResult.SWB;
 			}catch(Exception e){
 				log.error("Error occurred while executing " + path.id() + " on " + emu, e);
-				result = ExecResult.SWB;
+			}finally{
+				path.traceStreamed(streamed);
 			}
+		}
+	}
+
+	/**
+	 * Fills readyScripts with the scripts of paths taken from the 
+	 * PathQueue. Infeasible paths are retired right here.
+	 */
+	private final class Solver extends Thread {
+		public void run() {
+			while(solving) {
+				Path path = PathQueue.getNextPath();
+				if(path == null)
+					continue;
+
+				MonkeyScript script = null;
+				try {
+					script = path.generateScript();
+				} catch (IOException e) {
+					e.printStackTrace();
+				} catch (RuntimeException e) {
+					log.error("Error occurred while solving " + path.id(), e);
+				}
+
+				if(script == null) {
+					//infeasible path
+					numExecs.incrementAndGet();
+					PathQueue.retire(path);
+					continue;
+				}
+
+				ReadyPath ready = new ReadyPath(path, script);
+				try {
+					while(!readyScripts.offer(ready, 2L, TimeUnit.SECONDS)) {
+						if(!solving) {
+							PathQueue.retire(path);
+							break;
+						}
+					}
+				}catch(InterruptedException e){
+					throw new Error(e);
+				}
+			}
+		}
+	}
+
+	private final class Analysis implements Runnable {
+		private final Path path;
+
+		Analysis(Path path) {
+			this.path = path;
+		}
+
+		public void run() {
+			try {
+				handle(postProcess());
+			} finally {
+				PathQueue.retire(path);
+			}
+		}
+
+		private ExecResult postProcess()
+		{
+			ExecResult result;
 			try{
 				result = path.postProcess();
 			}catch(IOException e){
-				log.error("Error occurred while post-processing " + path.id() + " on " + emu,e);
+				log.error("Error occurred while post-processing " + path.id(), e);
+				result = ExecResult.SWB;
+			}catch(RuntimeException e){
+				log.error("Error occurred while post-processing " + path.id(), e);
 				result = ExecResult.SWB;
 			}
 			log.info("Result of path " + path.id() + " execution is " + result);
 			return result;
 		}
-		
-		/**
-		 * Returns the number of repetitions this path has already been tested.
-		 * 
-		 * @param pathId
-		 * @return
-		 */
-		private int numDivergence(int pathId)
-		{
-			try{
-				String script = Emulator.SCRIPT_TXT+"."+pathId;
-				//TODO store num of repetitions elsewhere to support useMonkeyScript=false
-				BufferedReader reader = Main.newReader(Main.newOutFile(script));
-				String line;
-				int count = 0;
-				while((line = reader.readLine()) != null){
-					if(!line.startsWith("//"))
-						break;
-					if(line.indexOf("Repeat of ") > 0){
-						count++;
+
+		private void handle(ExecResult result) {
+			switch(result) {			
+				case DIVERGED:
+					if(path.repeats() <= divergenceThreshold){
+						handleDivergence(path);
 					} else {
-						//count only the trailing consecutive repeats
-						count = 0;
+						//ignore this path because it diverged too many times
+						ignoredCount.incrementAndGet();
+						log.debug("Ignored path: " + path.id());
 					}
-				}
-				reader.close();
-				return count;
-			}catch(Throwable e){
-				log.error(e.getMessage(),e );
+					break;
+				case OK:
+					currentRoundRunIds.add(path.id());
+					feasibleCount.incrementAndGet();
+					numExecs.incrementAndGet();
+					break;
+				case SWB:
+					PathQueue.addPath(path.getRepeatPath());
+					break;
 			}
-			return 0;
+		}
+
+		private void handleDivergence(Path path2) {
+			PathQueue.addPath(path2.getRepeatPath());
+			divergenceCount.incrementAndGet();
+			feasibleCount.incrementAndGet();
+			numExecs.incrementAndGet();
 		}
 		
 	}
@@ -18,8 +18,6 @@ public class ConcolicPathsExplorer implements ExplorationStrategy
 		
 		log.debug("Vanilla symex with currentRoundRunIds " + Arrays.toString(currentRoundRunIds.toArray()));
 		ConcolicExecutor.v().exec(currentRoundRunIds);
-		
-		ConcolicExecutor.v().printStats();
 	}
 }
 
@@ -43,6 +43,7 @@ public final class Config {
 	Logger log = LoggerFactory.getLogger(Config.class);
     private static final int DEFAULT_MAX_EXECS = 1000;
     private static final String DEFAULT_EMU_PORT = "5554";
+    private static final int DEFAULT_ADB_PORT = 5037;
 
 	public final boolean useMonkeyScript;
 	public final String monkeyScript;
@@ -50,6 +51,9 @@ public final class Config {
 	public String mainActivity;
 	public final String activityArgs;
 	public final String z3Path;
+	public final boolean z3Incremental;
+	public final boolean z3Slice;
+	public final int z3CacheSize;
 	public final int maxExecs;
 	public String outDir;
 	public final String emulatorPort;
@@ -63,8 +67,23 @@ public final class Config {
 	public final String blackListedFieldsFile;
 	public final boolean restart;
 	public final boolean pruneAfterLastStep;
+	public final boolean pruneDuplicates;
 	public final int divergenceThreshold;
 	public final int wildEmusThreshold;
+	public final String scheduler;
+	public final int schedulerDepthStep;
+	public final boolean adbInProcess;
+	public final boolean deviceSignals;
+	public final boolean traceStreaming;
+	public final boolean traceBinary;
+	public final boolean coverageBitmap;
+	public final String pathStore;
+	public final boolean pathStoreExport;
+	public final int seedCacheMB;
+	public final int solverThreads;
+	public final int analysisThreads;
+	public final String adbHost;
+	public final int adbPort;
 	public String fileName;
 
 	private static Config config;
@@ -90,6 +109,9 @@ public final class Config {
         mainActivity = props.getProperty("mainact", null);
 		activityArgs = props.getProperty("actargs");
         z3Path = props.getProperty("env.Z3_BIN", "/opt/Z3-str_20140720/Z3-str.py");
+        z3Incremental = Boolean.valueOf(props.getProperty("z3.incremental"));
+        z3Slice = Boolean.valueOf(props.getProperty("z3.slice"));
+        z3CacheSize = Integer.valueOf(props.getProperty("z3.cache.size", String.valueOf(10000)));
         maxExecs = Integer.valueOf(props.getProperty("max.iters", String.valueOf(DEFAULT_MAX_EXECS)));
         outDir = props.getProperty("results.dir", "./results/");
         emulatorPort = props.getProperty("port", DEFAULT_EMU_PORT);
@@ -103,14 +125,32 @@ public final class Config {
 		blackListedFieldsFile = props.getProperty("blackfields.file", null);
 		restart = Boolean.valueOf(props.getProperty("restart"));
 		pruneAfterLastStep = Boolean.valueOf(props.getProperty("prune.last"));
+		pruneDuplicates = Boolean.valueOf(props.getProperty("prune.duplicates", "true"));
 		divergenceThreshold = Integer.valueOf(props.getProperty("diverge.threshold", String.valueOf(3)));
 		wildEmusThreshold = Integer.valueOf(props.getProperty("wildemus.threshold", String.valueOf(6)));
+		scheduler = props.getProperty("scheduler", "fifo");
+		schedulerDepthStep = Integer.valueOf(props.getProperty("scheduler.depth.step", String.valueOf(5)));
+		adbInProcess = Boolean.valueOf(props.getProperty("adb.inprocess"));
+		deviceSignals = Boolean.valueOf(props.getProperty("device.signals"));
+		traceStreaming = Boolean.valueOf(props.getProperty("trace.streaming"));
+		traceBinary = Boolean.valueOf(props.getProperty("trace.binary"));
+		coverageBitmap = Boolean.valueOf(props.getProperty("coverage.bitmap"));
+		pathStore = props.getProperty("path.store", "tree");
+		pathStoreExport = Boolean.valueOf(props.getProperty("path.store.export"));
+		seedCacheMB = Integer.valueOf(props.getProperty("seed.cache.mb", String.valueOf(64)));
+		solverThreads = Integer.valueOf(props.getProperty("solver.threads", String.valueOf(0)));
+		analysisThreads = Integer.valueOf(props.getProperty("analysis.threads", String.valueOf(2)));
+		adbHost = props.getProperty("adb.host", "127.0.0.1");
+		adbPort = Integer.valueOf(props.getProperty("adb.port", String.valueOf(DEFAULT_ADB_PORT)));
 
 		log.debug("useMonkeyScript={}", useMonkeyScript);
 		log.debug("monkey={}", monkeyScript);
 		log.debug("pkg={}", appPkgName);
 		log.debug("mainact={}", mainActivity);
 		log.debug("actargs={}", activityArgs);
+		log.debug("z3.incremental={}", z3Incremental);
+		log.debug("z3.slice={}", z3Slice);
+		log.debug("z3.cache.size={}", z3CacheSize);
 		log.debug("max.iters={}", maxExecs);
 		log.debug("out.dir={}", outDir);
 		log.debug("port={}", emulatorPort);
@@ -123,8 +163,23 @@ public final class Config {
 		log.debug("blackfields.file={}", blackListedFieldsFile);
 		log.debug("restart={}",restart);
 		log.debug("prune.last={}", pruneAfterLastStep);
+		log.debug("prune.duplicates={}", pruneDuplicates);
 		log.debug("diverge.threshold={}", divergenceThreshold);
 		log.debug("wildemus.threshold={}", wildEmusThreshold);
+		log.debug("scheduler={}", scheduler);
+		log.debug("scheduler.depth.step={}", schedulerDepthStep);
+		log.debug("adb.inprocess={}", adbInProcess);
+		log.debug("device.signals={}", deviceSignals);
+		log.debug("trace.streaming={}", traceStreaming);
+		log.debug("trace.binary={}", traceBinary);
+		log.debug("coverage.bitmap={}", coverageBitmap);
+		log.debug("path.store={}", pathStore);
+		log.debug("path.store.export={}", pathStoreExport);
+		log.debug("seed.cache.mb={}", seedCacheMB);
+		log.debug("solver.threads={}", solverThreads);
+		log.debug("analysis.threads={}", analysisThreads);
+		log.debug("adb.host={}", adbHost);
+		log.debug("adb.port={}", adbPort);
 
 		if (outDir != null && !restart) {
 			File d = new File(outDir);
@@ -0,0 +1,135 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Constraint-independence slicing. Constraints are grouped by shared
+ * variables (union-find over the variable names) and only the group(s)
+ * connected to the branch being negated are sent to the solver. The
+ * remaining variables keep their values from the seed's model.
+ */
+class ConstraintSlicer
+{
+	private final Map<String,Integer> varIds = new HashMap();
+	private int[] parent = new int[64];
+
+	/**
+	 * Returns the constraints of prefix that are transitively
+	 * connected to flipped, in their original order. The variables
+	 * of the slice (including those of flipped) are added to
+	 * sliceVars.
+	 */
+	static List<String> slice(List<String> prefix, String flipped, Set<String> sliceVars)
+	{
+		return new ConstraintSlicer().doSlice(prefix, flipped, sliceVars);
+	}
+
+	private List<String> doSlice(List<String> prefix, String flipped, Set<String> sliceVars)
+	{
+		List<List<String>> vars = new ArrayList(prefix.size());
+		for(String c : prefix){
+			List<String> names = new ArrayList();
+			Z3DeclWriter.collectVarNames(c, names);
+			vars.add(names);
+			unionAll(names);
+		}
+		List<String> flippedVars = new ArrayList();
+		Z3DeclWriter.collectVarNames(flipped, flippedVars);
+		unionAll(flippedVars);
+
+		Set<Integer> roots = new HashSet();
+		for(String v : flippedVars)
+			roots.add(find(id(v)));
+
+		List<String> result = new ArrayList();
+		int size = prefix.size();
+		for(int i = 0; i < size; i++){
+			List<String> names = vars.get(i);
+			//keep ground constraints: they may be false on their own
+			if(names.isEmpty() || roots.contains(find(id(names.get(0)))))
+				result.add(prefix.get(i));
+		}
+		for(Map.Entry<String,Integer> e : varIds.entrySet()){
+			if(roots.contains(find(e.getValue())))
+				sliceVars.add(e.getKey());
+		}
+		return result;
+	}
+
+	private void unionAll(List<String> names)
+	{
+		if(names.isEmpty())
+			return;
+		int first = id(names.get(0));
+		for(int i = 1; i < names.size(); i++)
+			union(first, id(names.get(i)));
+	}
+
+	private int id(String varName)
+	{
+		Integer id = varIds.get(varName);
+		if(id == null){
+			id = varIds.size();
+			varIds.put(varName, id);
+			if(id == parent.length){
+				int[] p = new int[2*parent.length];
+				System.arraycopy(parent, 0, p, 0, parent.length);
+				parent = p;
+			}
+			parent[id] = id;
+		}
+		return id;
+	}
+
+	private int find(int i)
+	{
+		while(parent[i] != i){
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void union(int i, int j)
+	{
+		int ri = find(i), rj = find(j);
+		if(ri != rj)
+			parent[ri] = rj;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Global coverage index built from the coverage bitmaps the runtime
+ * writes (see acteve.symbolic.Coverage for the layout). Each pulled 
+ * bitmap is OR-ed into the index, which counts the branch outcomes 
+ * and methods that no earlier run covered.
+ */
+class CoverageMap
+{
+	private static final Logger log = LoggerFactory.getLogger(CoverageMap.class);
+
+	private static final int MAGIC = 0x41335443;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	private static long[] branches = new long[0];
+	private static long[] methods = new long[0];
+	private static int branchCount;
+	private static int methodCount;
+
+	/**
+	 * Merges the bitmap in file into the index.
+	 * @return the number of branch outcomes covered for the first time
+	 */
+	static synchronized int merge(File file) throws IOException
+	{
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buf.remaining() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+				throw new IOException("not a coverage bitmap: " + file);
+			if (buf.getInt(4) != VERSION)
+				throw new IOException("unsupported coverage bitmap version " + buf.getInt(4) + ": " + file);
+			int branchSlots = buf.getInt(8);
+			int methodSlots = buf.getInt(12);
+			int branchBytes = branchSlots / 4;
+			int methodBytes = methodSlots / 8;
+			if (buf.remaining() < HEADER_SIZE + branchBytes + methodBytes)
+				throw new IOException("truncated coverage bitmap: " + file);
+
+			branches = grow(branches, branchBytes);
+			methods = grow(methods, methodBytes);
+			int newBranches = or(branches, slice(buf, HEADER_SIZE, branchBytes));
+			int newMethods = or(methods, slice(buf, HEADER_SIZE + branchBytes, methodBytes));
+			branchCount += newBranches;
+			methodCount += newMethods;
+			log.debug("Coverage of {}: {} new branch outcomes ({} total), {} new methods ({} total)", 
+					  file.getName(), newBranches, branchCount, newMethods, methodCount);
+			return newBranches;
+		} finally {
+			in.close();
+		}
+	}
+
+	static synchronized int branchCount()
+	{
+		return branchCount;
+	}
+
+	static synchronized int methodCount()
+	{
+		return methodCount;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buf, int start, int length)
+	{
+		ByteBuffer b = buf.duplicate();
+		b.position(start);
+		b.limit(start + length);
+		return b.slice();
+	}
+
+	/*
+	  bitmaps are whole multiples of 8 bytes except for tiny maps; the
+	  tail is OR-ed byte by byte
+	 */
+	private static int or(long[] into, ByteBuffer bits)
+	{
+		int added = 0;
+		LongBuffer words = bits.asLongBuffer();
+		int i = 0;
+		for (; words.hasRemaining(); i++) {
+			long w = words.get();
+			added += Long.bitCount(w & ~into[i]);
+			into[i] |= w;
+		}
+		for (int pos = i * 8; pos < bits.limit(); pos++) {
+			long w = (bits.get(pos) & 0xFFL) << (8 * (7 - (pos & 7)));
+			added += Long.bitCount(w & ~into[pos >>> 3]);
+			into[pos >>> 3] |= w;
+		}
+		return added;
+	}
+
+	private static long[] grow(long[] a, int bytes)
+	{
+		int words = (bytes + 7) / 8;
+		if (a.length >= words)
+			return a;
+		long[] b = new long[words];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Readiness signals pushed by the instrumented app (see
+ * acteve.symbolic.Signals): "idle" once the main looper first goes
+ * idle, "exited" once the shutdown hook has written its kill file.
+ * They arrive over a logcat stream filtered to their tag that stays
+ * open for the lifetime of the emulator.
+ */
+class DeviceSignals implements Runnable
+{
+	private static final Logger log = LoggerFactory.getLogger(DeviceSignals.class);
+
+	static final String IDLE = "idle";
+	static final String EXITED = "exited";
+	private static final String TAG = "A3T_SIGNAL";
+
+	private static final List<DeviceSignals> all = new ArrayList();
+
+	private final int port;
+	private final BlockingQueue<String> signals = new LinkedBlockingQueue<String>();
+	private Socket socket;
+	private Process process;
+	private InputStream stream;
+
+	DeviceSignals(int port)
+	{
+		this.port = port;
+		synchronized(all){
+			all.add(this);
+		}
+	}
+
+	static void closeAll()
+	{
+		synchronized(all){
+			for(DeviceSignals s : all)
+				s.close();
+		}
+	}
+
+	/**
+	 * Forgets signals received so far. Called right before the
+	 * action whose signal is awaited next.
+	 */
+	void reset()
+	{
+		ensureStarted();
+		signals.clear();
+	}
+
+	/**
+	 * Waits up to timeout milliseconds for the named signal and
+	 * returns false if it did not arrive in time.
+	 */
+	boolean await(String signal, long timeout)
+	{
+		long deadline = System.currentTimeMillis() + timeout;
+		try{
+			while(true){
+				long left = deadline - System.currentTimeMillis();
+				if(left <= 0)
+					return false;
+				String s = signals.poll(left, TimeUnit.MILLISECONDS);
+				if(s == null)
+					return false;
+				if(s.equals(signal))
+					return true;
+			}
+		}catch(InterruptedException e){
+			throw new Error(e);
+		}
+	}
+
+	private synchronized void ensureStarted()
+	{
+		if(stream != null)
+			return;
+		String filter = "-v raw -s " + TAG + ":I";
+		try{
+			if(Config.g().adbInProcess){
+				socket = AdbConnection.forEmulator(port).openShell("logcat " + filter);
+				socket.setSoTimeout(0);
+				stream = socket.getInputStream();
+			} else {
+				process = new ProcessBuilder("adb", "-s", "emulator-"+port, "logcat", "-v", "raw", "-s", TAG+":I")
+					.redirectErrorStream(true).start();
+				stream = process.getInputStream();
+			}
+		}catch(IOException e){
+			log.warn("cannot listen for signals from emulator-" + port, e);
+			return;
+		}
+		Thread reader = new Thread(this, "Signals-"+port);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	public void run()
+	{
+		InputStream in = stream;
+		try{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+			String line;
+			while((line = reader.readLine()) != null){
+				line = line.trim();
+				if(line.equals(IDLE) || line.equals(EXITED)){
+					log.trace("emulator-{} signalled {}", port, line);
+					signals.add(line);
+				}
+			}
+		}catch(IOException e){
+			log.debug("signal stream of emulator-{} closed: {}", port, e.getMessage());
+		}
+		synchronized(this){
+			//reopened by the next reset()
+			if(stream == in)
+				close();
+		}
+	}
+
+	synchronized void close()
+	{
+		try{
+			if(socket != null)
+				socket.close();
+		}catch(IOException e){
+			//ignore
+		}
+		if(process != null)
+			process.destroy();
+		socket = null;
+		process = null;
+		stream = null;
+	}
+}
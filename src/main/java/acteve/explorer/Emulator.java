@@ -53,11 +53,16 @@ public class Emulator extends Task
 	private static final String DEVICE_DIR = "/sdcard";
 	public static final String MONKEY_OUT = "monkeyout.";
 	public static final String LOGCAT_OUT = "logcatout.";
+	public static final String COVERAGE_OUT = "coverage.";
 	public static final String SYSLOG_OUT = "syslog.";
 	public static final String SCRIPT_TXT = "script.txt";
 	public static final String PKG_TXT = "pkg.txt";
 	private static final String SETTINGS_TXT = "settings.txt";
 	private static final String SOLUTION_TXT = "solution.txt";
+	private static final String STREAM_FLAG = "a3t_stream";
+	private static final String BINARY_FLAG = "a3t_binary";
+	private static final String COVERAGE_FLAG = "a3t_coverage";
+	private static final long SETTLE_TIME = 4000;
 
 	private List<Task> subtasks = new ArrayList<Task>();
 	private Target target = new Target();
@@ -77,9 +82,19 @@ public class Emulator extends Task
 	private AdbTask pushNewSolution; 		//Task to push file with variable assignments (= solution) for current iteration. First iteration is empty.
 	private KillTask initialKillActivity;
 	private ClearHistoryTask clearHistory;
+	private DeviceSignals signals;		//null unless the runtime signals readiness
+	private TraceStreamReader traceStream;	//null unless the trace is streamed
+	private AdbTask setTraceStreaming;
+	private AdbTask forwardTraceStream;
+	private AdbTask setTraceFormat;
+	private AdbTask setCoverage;
 
 	private boolean isFirst = true;
+	private TraceSink sink;
+	//logcatout.N of the run; a streamed trace is written to it directly
+	private File logCatFile;
 	private File tmpLogCatFile;
+	private File tmpCoverageFile;
 	private File settingsFile;
 	private File scriptFile;
 
@@ -100,8 +115,28 @@ public class Emulator extends Task
 		this.clearHistory = new ClearHistoryTask(port, appPkgName);
 		subtasks.add(clearHistory);
 
+		if (Config.g().deviceSignals)
+			this.signals = new DeviceSignals(port);
+
+		this.setTraceFormat = setFlagTask(BINARY_FLAG, Config.g().traceBinary);
+		subtasks.add(setTraceFormat);
+
+		this.setTraceStreaming = setFlagTask(STREAM_FLAG, Config.g().traceStreaming);
+		subtasks.add(setTraceStreaming);
+
+		this.setCoverage = setFlagTask(COVERAGE_FLAG, Config.g().coverageBitmap);
+		subtasks.add(setCoverage);
+		if (Config.g().traceStreaming) {
+			this.traceStream = new TraceStreamReader(port);
+			this.forwardTraceStream = new AdbTask(port, "forward tcp:" + traceStream.hostPort() + " localabstract:" + TraceStreamReader.SOCKET_NAME);
+			subtasks.add(forwardTraceStream);
+		}
+
 		this.tmpLogCatFile = Main.newOutFile(tmpLogCatFileName());
-		this.pullLogCat = new PullLogCatTask(port, appPkgName, tmpLogCatFile);
+		this.tmpCoverageFile = Main.newOutFile(tmpCoverageFileName());
+		this.pullLogCat = new PullLogCatTask(port, appPkgName, tmpLogCatFile, 
+											 Config.g().coverageBitmap ? tmpCoverageFile : null, 
+											 signals, traceStream);
 		subtasks.add(pullLogCat);
 
 		this.scriptFile = Main.newOutFile(scriptFileName());
@@ -139,6 +174,20 @@ public class Emulator extends Task
 		subtasks.add(clearSolution);
 	}
 
+	/*
+	  The runtime checks for flag files on the sdcard to pick its
+	  trace options: push an empty one to set the flag, remove it
+	  otherwise.
+	*/
+	private AdbTask setFlagTask(String name, boolean set)
+	{
+		if (!set)
+			return new AdbTask(port, "shell rm " + DEVICE_DIR + "/" + name);
+		File flag = Main.newOutFile(name);
+		writeToFile(flag, "");
+		return new AdbTask(port, "push " + flag.getAbsolutePath() + " " + DEVICE_DIR + "/" + name);
+	}
+
 	@Override
 	public void execute()
 	{
@@ -155,6 +204,13 @@ public class Emulator extends Task
 			execute(installApk);
 			log.debug("Pushing pkg name file");
 			execute(pushPkgNameFile);
+			execute(setTraceFormat);
+			execute(setTraceStreaming);
+			execute(setCoverage);
+			if (traceStream != null) {
+				log.debug("Forwarding trace stream to port {}", traceStream.hostPort());
+				execute(forwardTraceStream);
+			}
 			isFirst = false;
 		}
 		log.debug("Clearing history");
@@ -181,20 +237,41 @@ public class Emulator extends Task
 		killActivity.prepare();
 		pullLogCat.prepare();
 		log.debug("Starting activity");
+		if (signals != null)
+			signals.reset();
 		execute(startActivity);
+		if (traceStream != null)
+			traceStream.open(sink, logCatFile);
 		log.debug("Waiting for activity to settle...");
-		try {	Thread.sleep(4000); } catch (InterruptedException e1) {	}
+		if (signals != null) {
+			if (!signals.await(DeviceSignals.IDLE, SETTLE_TIME))
+				log.debug("No idle signal from {} after {}ms", this, SETTLE_TIME);
+		} else {
+			try {	Thread.sleep(SETTLE_TIME); } catch (InterruptedException e1) {	}
+		}
 
 		log.debug("Running monkey script");
 		execute(runMonkey);
 		
 		log.debug("Killing activity");
+		if (signals != null)
+			signals.reset();
 		execute(killActivity);
 		execute(pullLogCat);
 		execute(logcatEnd);
 	}
 
 	public void exec(int executingId, MonkeyScript script)
+	{
+		exec(executingId, script, null);
+	}
+
+	/**
+	 * Runs the script and leaves the trace in logcatout.executingId. 
+	 * If the trace is streamed, it is also fed to sink during the run.
+	 * @return whether sink received the complete trace
+	 */
+	public boolean exec(int executingId, MonkeyScript script, TraceSink sink)
 	{
 		StringBuilder builder = new StringBuilder();
 		if (script!=null) {
@@ -206,7 +283,7 @@ public class Emulator extends Task
 		writeToFile(settingsFile, builder.toString());
 
 		//int executingId = path.id();
-		File logCatFile = Main.newOutFile(LOGCAT_OUT+executingId);
+		this.logCatFile = Main.newOutFile(LOGCAT_OUT+executingId);
 		File monkeyFile = Main.newOutFile(MONKEY_OUT+executingId);
 		File syslogFile = Main.newOutFile(SYSLOG_OUT+executingId);
 		runMonkey.setOutput(monkeyFile);
@@ -219,10 +296,25 @@ public class Emulator extends Task
 //		this.pushNewSolution.execute();
 		subtasks.add(pushNewSolution);
 		
-		target.execute();
+		this.sink = sink;
+		try {
+			target.execute();
+		} finally {
+			this.sink = null;
+			if (traceStream != null)
+				traceStream.close();
+		}
 
-		Path.copy(tmpLogCatFile, logCatFile);
-		tmpLogCatFile.delete();
+		//an incomplete stream is replaced by the pulled trace
+		if (traceStream == null || !traceStream.complete()) {
+			Path.copy(tmpLogCatFile, logCatFile);
+			tmpLogCatFile.delete();
+		}
+		if (tmpCoverageFile.exists()) {
+			Path.copy(tmpCoverageFile, Main.newOutFile(COVERAGE_OUT+executingId));
+			tmpCoverageFile.delete();
+		}
+		return sink != null && traceStream != null && traceStream.complete();
 		
 		//try{
 		//	return path.postProcess(logCatFile, monkeyFile, syslogFile, checkTransition);
@@ -279,6 +371,11 @@ public class Emulator extends Task
 		return LOGCAT_OUT+"emu"+port;
 	}
 
+	private String tmpCoverageFileName()
+	{
+		return COVERAGE_OUT+"emu"+port;
+	}
+
 	private String scriptFileName()
 	{
 		return SCRIPT_TXT + ".emu"+port;
@@ -0,0 +1,172 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps each path in files of its own in the out directory: trace.N,
+ * pc.N and pc.N.decl.
+ */
+class FilePathStore implements PathStore
+{
+	private final class PathFiles implements Writer
+	{
+		private final PrintWriter traceWriter;
+		private final PrintWriter pcWriter;
+		private final Z3DeclWriter declWriter;
+
+		PathFiles(int id) throws IOException
+		{
+			this.traceWriter = Main.newWriter(Path.traceFileNameFor(id));
+			this.pcWriter = Main.newWriter(Path.pcFileNameFor(id));
+			this.declWriter = new Z3DeclWriter(Main.newOutFile(Path.pcDeclFileNameFor(id)));
+			declWriter.printComment("Iteration " + id);
+		}
+
+		public void iter()
+		{
+			//empty line to separate out branches coming from diff events
+			traceWriter.println("");
+		}
+
+		public void branch(String bid, String comment)
+		{
+			traceWriter.println(bid + "  // " + comment);
+		}
+
+		public void pc(String constraint)
+		{
+			pcWriter.println(constraint);
+			declWriter.process(constraint);
+		}
+
+		public void finish()
+		{
+			abandon();
+		}
+
+		public void abandon()
+		{
+			traceWriter.close();
+			pcWriter.close();
+			declWriter.finish();
+		}
+	}
+
+	public Writer writer(int id, int seedId) throws IOException
+	{
+		return new PathFiles(id);
+	}
+
+	public boolean contains(int id)
+	{
+		return Main.newOutFile(Path.pcFileNameFor(id)).exists();
+	}
+
+	public String prefix(int id, int depth, List<String> prefix) throws IOException
+	{
+		final BufferedReader pcReader = Main.newReader(Path.pcFileNameFor(id));
+		try {
+			return Path.prefix(new Iterator<String>() {
+					private String next = pcReader.readLine();
+
+					public boolean hasNext()
+					{
+						return next != null;
+					}
+
+					public String next()
+					{
+						String line = next;
+						try {
+							next = pcReader.readLine();
+						} catch (IOException e) {
+							throw new Error(e);
+						}
+						return line;
+					}
+
+					public void remove()
+					{
+						throw new UnsupportedOperationException();
+					}
+				}, depth, prefix);
+		} finally {
+			pcReader.close();
+		}
+	}
+
+	public List<String> pc(int id) throws IOException
+	{
+		return readLines(Main.newOutFile(Path.pcFileNameFor(id)));
+	}
+
+	public List<String> trace(int id) throws IOException
+	{
+		return readLines(Main.newOutFile(Path.traceFileNameFor(id)));
+	}
+
+	public List<String> decls(int id) throws IOException
+	{
+		File declFile = Main.newOutFile(Path.pcDeclFileNameFor(id));
+		if (!declFile.exists())
+			return Collections.emptyList();
+		return readLines(declFile);
+	}
+
+	private static List<String> readLines(File file) throws IOException
+	{
+		BufferedReader reader = Main.newReader(file);
+		try {
+			return readLines(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static List<String> readLines(BufferedReader reader) throws IOException
+	{
+		List<String> lines = new ArrayList<String>();
+		String line;
+		while ((line = reader.readLine()) != null)
+			lines.add(line);
+		return lines;
+	}
+}
@@ -76,10 +76,14 @@ public class FuzzedMonkeyScript extends MonkeyScript
 				varName += (tapEventCount++ * 2);
 
 				float x, y;
-				String alias = (String) model.get(varName);
-				//System.out.println("varName " + varName + " alias " + alias);
-				if(alias != null) {
-					Z3Model.Array array = (Z3Model.Array) model.get(alias);
+				Object value = model.get(varName);
+				//System.out.println("varName " + varName + " value " + value);
+				if(value instanceof String) {
+					//(_ as-array alias)
+					value = model.get((String) value);
+				}
+				if(value != null) {
+					Z3Model.Array array = (Z3Model.Array) value;
 					x = ((Number) array.get(0)).floatValue();
 					y = ((Number) array.get(1)).floatValue();
 				}
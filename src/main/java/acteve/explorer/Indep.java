@@ -32,91 +32,219 @@
 package acteve.explorer;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.io.*;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public class Indep
 {
-	public static boolean check(int prefixId, PathInfo prefixPI, int suffixId, PathInfo suffixPI, int numEvents)
+	private static final Logger log = LoggerFactory.getLogger(Indep.class);
+
+	/**
+	 * What the check needs of one test, prepared once per round: its
+	 * trace, and for each event i the events read from by events i 
+	 * and later, as a bit set of event indices.
+	 */
+	static final class Test
+	{
+		final int id;
+		final Trace trace;
+		private final BitSet[] readsFrom;
+
+		Test(int id, PathInfo pinfo, Trace trace)
+		{
+			this.id = id;
+			this.trace = trace;
+			int numEvents = pinfo.numEvents;
+			assert trace.numEvents() == numEvents : trace.numEvents() + " " + numEvents + " " + id;
+			readsFrom = new BitSet[numEvents + 1];
+			readsFrom[numEvents] = new BitSet();
+			for(int i = numEvents - 1; i >= 0; i--) {
+				BitSet rws = (BitSet) readsFrom[i+1].clone();
+				for(long rw : pinfo.rwSet[i])
+					rws.set(PathInfo.eventId(rw));
+				readsFrom[i] = rws;
+			}
+		}
+
+		/*
+		  true if no event after last reads from one of the events in 
+		  (from, last]
+		 */
+		boolean noReadsFrom(int from, int last)
+		{
+			int i = readsFrom[last+1].nextSetBit(from+1);
+			return i < 0 || i > last;
+		}
+
+		/**
+		 * Equal for tests that have the same events in some order, 
+		 * which two tests must have to be independent.
+		 */
+		Fingerprint fingerprint()
+		{
+			return new Fingerprint(trace);
+		}
+	}
+
+	static final class Fingerprint
+	{
+		private final long[] hashes;
+		private final int hash;
+
+		Fingerprint(Trace trace)
+		{
+			hashes = new long[trace.numEvents()];
+			for(int i = 0; i < hashes.length; i++)
+				hashes[i] = trace.eventHash(i);
+			Arrays.sort(hashes);
+			hash = Arrays.hashCode(hashes);
+		}
+
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		public boolean equals(Object o)
+		{
+			return o instanceof Fingerprint && Arrays.equals(hashes, ((Fingerprint) o).hashes);
+		}
+	}
+
+	static Test test(int id, PathInfo pinfo)
+	{
+		try {
+			return new Test(id, pinfo, Path.store().branches(id));
+		} catch(IOException e) {
+			throw new Error(e);
+		}
+	}
+
+	/**
+	 * The pairs of independent tests, as pairs of ids. Tests are 
+	 * bucketed by their fingerprints, and only the pairs within a 
+	 * bucket are checked, in parallel.
+	 */
+	static Collection<int[]> independentPairs(List<Test> tests, int numEvents)
+	{
+		Map<Fingerprint,List<Test>> buckets = new HashMap();
+		for(Test test : tests) {
+			Fingerprint fingerprint = test.fingerprint();
+			List<Test> bucket = buckets.get(fingerprint);
+			if(bucket == null) {
+				bucket = new ArrayList();
+				buckets.put(fingerprint, bucket);
+			}
+			bucket.add(test);
+		}
+
+		List<Row> rows = new ArrayList();
+		long candidates = 0;
+		for(List<Test> bucket : buckets.values()) {
+			Test[] b = bucket.toArray(new Test[bucket.size()]);
+			for(int i = 0; i < b.length - 1; i++)
+				rows.add(new Row(b, i));
+			candidates += (long) b.length * (b.length - 1) / 2;
+		}
+		long all = (long) tests.size() * (tests.size() - 1) / 2;
+		log.info("(stat) No of pairs checked for indep. = {} of {}", candidates, all);
+
+		Queue<int[]> pairs = new ConcurrentLinkedQueue();
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			pool.invoke(new PairCheck(rows.toArray(new Row[rows.size()]), 0, rows.size(), numEvents, pairs));
+		} finally {
+			pool.shutdown();
+		}
+		return pairs;
+	}
+
+	/*
+	  The pairs of test index with the tests after it in its bucket.
+	 */
+	private static final class Row
 	{
-		String outDir = Config.g().outDir;
-		String[] trace1 = getTraceStr(numEvents, prefixId, outDir);
-		String[] trace2 = getTraceStr(numEvents, suffixId, outDir);
-		return check(prefixId, prefixPI, trace1, suffixId, suffixPI, trace2, numEvents);
+		final Test[] bucket;
+		final int index;
+
+		Row(Test[] bucket, int index)
+		{
+			this.bucket = bucket;
+			this.index = index;
+		}
 	}
 
-	private static boolean check(int prefixId, 
-								 PathInfo prefixPI, 
-								 String[] prefixTraceStr, 
-								 int suffixId, 
-								 PathInfo suffixPI, 
-								 String[] suffixTraceStr,
-								 int numEvents)
+	private static final class PairCheck extends RecursiveAction
 	{
-		for(CommutativeIndices indices : checkCommutative(prefixId, prefixTraceStr, suffixId, suffixTraceStr, numEvents)) {
+		private static final long serialVersionUID = 1L;
+
+		private final Row[] rows;
+		private final int from, to;
+		private final int numEvents;
+		private final Queue<int[]> pairs;
+
+		PairCheck(Row[] rows, int from, int to, int numEvents, Queue<int[]> pairs)
+		{
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+			this.numEvents = numEvents;
+			this.pairs = pairs;
+		}
+
+		protected void compute()
+		{
+			if(to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new PairCheck(rows, from, mid, numEvents, pairs), 
+						  new PairCheck(rows, mid, to, numEvents, pairs));
+				return;
+			}
+			if(to == from)
+				return;
+			Row row = rows[from];
+			Test prefix = row.bucket[row.index];
+			for(int i = row.index + 1; i < row.bucket.length; i++) {
+				Test suffix = row.bucket[i];
+				if(check(prefix, suffix, numEvents))
+					pairs.add(new int[]{prefix.id, suffix.id});
+			}
+		}
+	}
+
+	static boolean check(Test prefix, Test suffix, int numEvents)
+	{
+		for(CommutativeIndices indices : checkCommutative(prefix.id, prefix.trace, suffix.id, suffix.trace, numEvents)) {
 			int prefixLen = indices.prefixLen;
 			int commuteIndex = indices.commuteIndex;
-			boolean indep = true;
 
 			//System.out.println("prefixLen = " + prefixLen);
 			//System.out.println("commuteIndex = " + commuteIndex);
 			
 			//System.out.println("testing indep between " + prefixId + " " + suffixId);
-			
-			List<Set<Integer>> rwSet = unbox(prefixPI.rwSet);
-			Set<Integer> rws = new HashSet();
-			int i = numEvents - 1;
-			for(; i > commuteIndex; i--) 
-				rws.addAll(rwSet.get(i));
-			//for(Integer x : rws) { System.out.print(x + " "); } System.out.println("");
-			for(; indep && i > prefixLen; i--) {
-				if(rws.contains(i)) { 
-					indep = false;
-				}
-			}
-			
-			if(!indep) {
-				//System.out.println("dep1 " + i);
+
+			if(!prefix.noReadsFrom(prefixLen, commuteIndex)) {
+				//System.out.println("dep1");
 				continue;
 			}
-			
-			rwSet = unbox(suffixPI.rwSet);
-			rws = new HashSet();
+
 			final int j = prefixLen + numEvents - commuteIndex - 1;
-			i = numEvents - 1;
-			for(; i > j; i--) 
-				rws.addAll(rwSet.get(i));
-			
-			//for(Integer y : rws) { System.out.print(y + " "); }  System.out.println("");
-			for(; indep && i > prefixLen; i--) {
-				if(rws.contains(i)) {
-					indep = false;
-				}
-			}
-			
-			if(!indep) {
-				//System.out.println("dep2 " + i);
+			if(!suffix.noReadsFrom(prefixLen, j)) {
+				//System.out.println("dep2");
 				continue;
 			}
 
-			System.out.println("indep pair " + prefixId + " " + suffixId);
+			log.debug("indep pair {} {}", prefix.id, suffix.id);
 			return true;
 		}
 		
 		return false;
 	}
-	
-	private static List<Set<Integer>> unbox(List<Set<RWRecord>> rwSet)
-	{
-		List<Set<Integer>> result = new ArrayList();
-		for(Set<RWRecord> rws : rwSet) {
-			Set<Integer> set = new HashSet();
-			result.add(set);
-			for(RWRecord rw : rws) {
-				set.add(rw.id);
-			}
-		}
-		return result;
-	}
 
 	private static class CommutativeIndices {
 		int prefixLen;
@@ -132,22 +260,24 @@ public class Indep
 	  (p,q) is in the resulting list if 
           trace1[i] = trace2[i], 0 <= i <= p
           trace1[j] = trace2[j], ...
+	  where trace[i] are the branches of event i, compared by their 
+	  hashes first
 	 */
-	private static List<CommutativeIndices> checkCommutative(int id1, String[] trace1, int id2, String[] trace2, int numEvents) {
+	private static List<CommutativeIndices> checkCommutative(int id1, Trace trace1, int id2, Trace trace2, int numEvents) {
 		
 		List<CommutativeIndices> result = new ArrayList();
 		for(int prefixLen = -1; prefixLen < (numEvents-2); prefixLen++) {
 			if(prefixLen >= 0) {
-				if(!trace1[prefixLen].equals(trace2[prefixLen])) 
+				if(!trace1.sameEvent(prefixLen, trace2, prefixLen)) 
 					break;
 			}
 			for(int j = prefixLen+1; j < (numEvents-1); j++) {
 				boolean matched = true;
 				int k = numEvents-1;
 				for(int i = j; matched && i > prefixLen; i--, k--) 
-					matched = trace1[i].equals(trace2[k]);
+					matched = trace1.sameEvent(i, trace2, k);
 				for(int i = numEvents-1; matched && i > j; i--, k--) 
-					matched = trace1[i].equals(trace2[k]);
+					matched = trace1.sameEvent(i, trace2, k);
 				if(matched) {
 					result.add(new CommutativeIndices(prefixLen, j));
 					
@@ -166,50 +296,26 @@ public class Indep
 		return result;
 	}
 
-	private static String[] getTraceStr(int numEvents, int id, String outDir) {
-		String[] trace = new String[numEvents];
-        StringBuilder builder = null;
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(new File(outDir, Path.traceFileNameFor(id))));
-            String line;
-			int count = 0;
-            while ((line = reader.readLine()) != null) {
-                if (line.equals("")) {
-					if(builder != null){
-						trace[count++] = builder.toString();
-					}
-					builder = new StringBuilder();
-				}
-				else{
-					builder.append(line);
-				}
-            }
-            reader.close();
-			trace[count] = builder.toString();
-			assert (count+1) == numEvents : count + " " + numEvents + " " + id;
-        } catch(IOException e) {
-            throw new Error(e);
-        }
-        return trace;
-    }
-
+	/*
+	  Checks two recorded paths of the campaign in results.dir, read 
+	  through the path store; set restart so that Config keeps them.
+	 */
 	public static void main(String[] args)
 	{
-		String outDir = args[0];
-
-		int prefixId = Integer.parseInt(args[1]);
-		int suffixId = Integer.parseInt(args[2]);
+		if (args.length < 2) {
+			System.out.println("Usage: Indep <prefix id> <suffix id>");
+			System.exit(-1);
+		}
+		int prefixId = Integer.parseInt(args[0]);
+		int suffixId = Integer.parseInt(args[1]);
 		
-		PathInfo prefixPI = PathInfo.load(new File(outDir, PathInfo.fileName(prefixId)));
-		PathInfo suffixPI = PathInfo.load(new File(outDir, PathInfo.fileName(suffixId)));
+		PathInfo prefixPI = PathInfo.load(Main.newOutFile(PathInfo.fileName(prefixId)));
+		PathInfo suffixPI = PathInfo.load(Main.newOutFile(PathInfo.fileName(suffixId)));
 
 		int numEvents = prefixPI.numEvents;
 		assert suffixPI.numEvents == numEvents;
 
-		String[] prefixTrace = getTraceStr(numEvents, prefixId, outDir);
-		String[] suffixTrace = getTraceStr(numEvents, suffixId, outDir);
-
-		if(check(prefixId, prefixPI, prefixTrace, suffixId, suffixPI, suffixTrace, numEvents))
+		if(check(test(prefixId, prefixPI), test(suffixId, suffixPI), numEvents))
 			System.out.println("yes indep");
 		else
 			System.out.println("no indep");
@@ -31,10 +31,13 @@
 
 package acteve.explorer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.TreeSet;
 
 public class IndepGraph
 {
@@ -53,49 +56,48 @@ public class IndepGraph
 		edges.get(n).add(m);
 	}
 
+	/*
+	  Greedily picks a node of maximum degree until no edges are left.
+	  Nodes are kept in buckets by their current degree, so a pick
+	  and the degree updates of its neighbours do not scan the graph;
+	  among nodes of equal degree the smallest is picked.
+	 */
 	public Set<Integer> findGreedyMinVertexCover() {
 		Set<Integer> cover = new HashSet();
 
 		//add 0-degree nodes to cover
+		List<TreeSet<Integer>> buckets = new ArrayList();
 		for(Map.Entry<Integer,Set<Integer>> entry : edges.entrySet()) {
 			Integer node = entry.getKey();
-			if(entry.getValue().size() == 0) 
+			int degree = entry.getValue().size();
+			if(degree == 0) {
 				cover.add(node);
+				continue;
+			}
+			while(buckets.size() <= degree)
+				buckets.add(new TreeSet());
+			buckets.get(degree).add(node);
 		}
 		for(Integer node : cover)
 			edges.remove(node);
 	
-		int maxDegreeNode;
-		while(true) {
-			maxDegreeNode = findMaxDegreeNode();
-			if(maxDegreeNode < 0)
-				break;
-			cover.add(maxDegreeNode);
-			removeNode(maxDegreeNode);
-		}
-		return cover;
-	}
-
-	private int findMaxDegreeNode() {
-		int maxDegree = 0;
-		int maxNode = -1;
-		for(Map.Entry<Integer,Set<Integer>> entry : edges.entrySet()) {
-			Integer node = entry.getKey();
-			Set<Integer> nbrs = entry.getValue();
-			int size = nbrs.size();
-			if(size > maxDegree) {
-				maxDegree = size;
-				maxNode = node;
+		int maxDegree = buckets.size() - 1;
+		while(maxDegree > 0) {
+			TreeSet<Integer> bucket = buckets.get(maxDegree);
+			if(bucket.isEmpty()) {
+				maxDegree--;
+				continue;
+			}
+			Integer node = bucket.pollFirst();
+			cover.add(node);
+			for(Integer nbr : edges.remove(node)) {
+				Set<Integer> nbrs = edges.get(nbr);
+				buckets.get(nbrs.size()).remove(nbr);
+				nbrs.remove(node);
+				if(nbrs.size() > 0)
+					buckets.get(nbrs.size()).add(nbr);
 			}
 		}
-		return maxNode;
-	}
-
-	private void removeNode(int node) {
-		Set<Integer> nbrs = edges.remove(node);
-		for(Integer nbr : nbrs) { 
-			Set<Integer> nbrs2 = edges.get(nbr);
-			nbrs2.remove(node);
-		}
+		return cover;
 	}
-}
\ No newline at end of file
+}
@@ -102,6 +102,12 @@ public class KillTask extends AdbTask
 			return;
 		}
 
+		if(Config.g().adbInProcess){
+			AdbConnection.forEmulator(port).shell("kill " + pid, null);
+			log.debug("killed process " + pid);
+			return;
+		}
+
 		try{
 			String[] cmd = new String[]{"adb", "-s", "emulator-"+port, "shell", "kill", String.valueOf(pid)};
 			//= new String[]{"adb", "shell", "exec", "app_process", "/sdcard", "edu.gatech.symbolic.Hello", String.valueOf(pid)};
@@ -77,6 +77,7 @@ public class Main
 					   config.wildEmusThreshold);
 		System.out.println("Setting up Z3 with " + config.z3Path);
         Z3Task.setup(config.z3Path);
+        Z3Session.setup(config.z3Path);
 		BlackListedFields.setup(config.fieldSigsFile, config.blackListedFieldsFile);
 		
 //		ExplorationStrategy explorer = new ActevePathsExplorer();
@@ -90,6 +91,11 @@ public class Main
 
 //		explorer.perform(config.K, config.monkeyScript, config.checkReadOnly, config.checkIndep, config.pruneAfterLastStep);
 		explorer.perform(config);
+		ConcolicExecutor.v().shutdown();
+		ConcolicExecutor.v().printStats();
+		Z3Session.closeAll();
+		DeviceSignals.closeAll();
+		AdbConnection.closeAll();
 
 //         CoverageMonitor.printDangBranches(config.condMapFile);
 	}
@@ -41,7 +41,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,7 +78,7 @@ public class Path
     private static final String WRITE_MARKER = "E/A3T_WRITE";
     private static final String AREAD_MARKER = "E/A3T_AREAD";
     private static final String AWRITE_MARKER = "E/A3T_AWRITE";
-    private static final String METH_MARKER = "E/A3T_METHS";
+    private static final String CONCRETIZED_MARKER = "E/A3T_CONCRETIZED";
     static final String Z3_OUT = "z3out.";
     private static final String Z3_ERR = "z3err.";
 
@@ -83,6 +90,51 @@ public class Path
 
     private boolean extended;
 
+    //number of branches first covered by the seed execution
+    private int score;
+
+    //consecutive repeats of a diverged path, see getRepeatPath
+    private int repeats;
+
+    //new branches found in this execution
+    private int newBranches;
+
+    //processes the trace while it is streamed, see startTraceProcessor
+    private TraceProcessor streamed;
+
+    private static final Set<String> coveredBranches = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+    /*
+      Traces and path constraints of the executed paths. Created on 
+      first use, so that using the file names of Path offline (see 
+      TreePathStore.main) does not load the Config, which clears the 
+      out directory.
+     */
+    private static final class Store
+    {
+        static final SeedCache store = new SeedCache(newStore(Config.g().pathStore), Config.g().seedCacheMB*1024L*1024L);
+    }
+
+    static SeedCache store()
+    {
+        return Store.store;
+    }
+
+    private static PathStore newStore(String name)
+    {
+        log.debug("using {} path store", name);
+        if ("files".equals(name))
+            return new FilePathStore();
+        if ("tree".equals(name)) {
+            try {
+                return TreePathStore.open();
+            } catch (IOException e) {
+                throw new Error(e);
+            }
+        }
+        throw new Error("unknown path store " + name);
+    }
+
     public Path() {
     	this(null, -1, 0);
     }
@@ -121,6 +173,8 @@ public class Path
 		this.seedId = seedId;
 		this.depth = depth;
         this.id = PathQueue.nextPathId();
+        if (seedId >= 0)
+            store().expect(seedId);
     	log.trace("New path {} with new seed {} and depth {}",id, seedId, depth);
     }
 
@@ -128,6 +182,35 @@ public class Path
     {
         return id;
     }
+
+    int depth()
+    {
+        return depth;
+    }
+
+    int score()
+    {
+        return score;
+    }
+
+    /**
+     * Number of times this path was repeated in a row because it 
+     * diverged.
+     */
+    int repeats()
+    {
+        return repeats;
+    }
+
+    /**
+     * Called by PathQueue once the path was completely processed; the
+     * seed's cached data is dropped with its last child.
+     */
+    void retire()
+    {
+        if (seedId >= 0)
+            store().release(seedId);
+    }
     
     /**
      * This is where a new monkey script is generated which leads to different execution path.
@@ -139,7 +222,6 @@ public class Path
     {
     	File scriptToRun = Main.newOutFile(Emulator.SCRIPT_TXT+"."+id);    	
 
-        File pcDeclFile = Main.newOutFile(pcDeclFileNameFor(seedId));
         File smtFile = Main.newOutFile(smtFileNameFor(id));
 
 //		if(scriptToRun.exists()) {
@@ -152,73 +234,150 @@ public class Path
 //	    }
         log.debug("Generating new script");
         log.debug("	Smt file        : {} - {} ", smtFile.exists(), smtFile.getAbsolutePath());
-        log.debug("	pc file         : {} - {} ", Main.newOutFile(pcFileNameFor(seedId)).exists(), new File(pcFileNameFor(seedId)).getAbsolutePath());
-        log.debug("	pcDecl file     : {} - {} ", pcDeclFile.exists(), pcDeclFile.getAbsolutePath());
+        log.debug("	seed recorded   : {}", store().contains(seedId));
         log.debug("	scriptToRun file: {} - {} ", scriptToRun.exists(), scriptToRun.getAbsolutePath());
         log.debug("	Depth: {}", depth);
         log.debug("	id: {}", id);
         log.debug("	seedId: {}", seedId);
 
         
-        if (pcDeclFile.exists())
-        	copy(pcDeclFile, smtFile);
-
-        if (Main.newOutFile(pcFileNameFor(seedId)).exists()) {
-	        PrintWriter smtWriter = Main.newWriter(smtFile, true);
-	        BufferedReader pcReader = Main.newReader(pcFileNameFor(seedId));
-	        
-	        String line = pcReader.readLine();
-	        int i = 1;
-	        while(i < depth){
-	            char c = line.charAt(0);
-	            if(c != '*')
-	                i++;
-	            else
-	                line = line.substring(1);
-	            smtWriter.println("(assert "+line+")");
-	            line = pcReader.readLine();
-	        }
-	        char c = line.charAt(0);
-	        while(c == '*'){
-	            smtWriter.println("(assert "+line.substring(1)+")");
-	            line = pcReader.readLine();
-	            c = line.charAt(0);
-	        }
-	        
-	        //Invert last condition
-	        log.debug("Inverting " + line);
-	        smtWriter.println("(assert (not "+line+"))");
-	
-	        smtWriter.println("(check-sat)");
-	        smtWriter.println("(get-model)");
-	        
-	        pcReader.close();
-	        smtWriter.close();
-        }
-        if (smtFile.exists()) {
-	        File z3OutFile = Main.newOutFile(Z3_OUT+id);
-	        File z3ErrFile = Main.newOutFile(Z3_ERR+id);
-	        log.trace("Z3 Out file {}", z3OutFile.getAbsolutePath());
-	        log.trace("Z3 Err file {}", z3ErrFile.getAbsolutePath());
-	        new Z3Task().exec(z3OutFile, z3ErrFile, smtFile.getAbsolutePath());
-	        
-	        Z3Model model = Z3StrModelReader.read(z3OutFile);
-	        if(model != null){
-	        	log.info("** Solved model for path id {} **",id);
-	        	model.print();
-	            File seedMonkeyScript = Main.newOutFile(Emulator.SCRIPT_TXT+"."+seedId);
-	            MonkeyScript newMonkeyScript = new FuzzedMonkeyScript(seedMonkeyScript, model);
-				newMonkeyScript.addComment("Fuzzed from " + Emulator.SCRIPT_TXT+"."+seedId);
-	            newMonkeyScript.saveAs(scriptToRun);
-				return newMonkeyScript;
-	        }
-        } else {
-        	log.debug("No smt file exists, nothing to solve");
+        if (!store().contains(seedId)) {
+        	log.debug("No pc recorded, nothing to solve");
         	MonkeyScript ms = new ElementaryMonkeyScript();
 			ms.generate(Main.newOutFile(Emulator.SCRIPT_TXT));
 			return ms;
         }
-        return null;
+
+        List<String> prefix = new ArrayList<String>();
+        String flipped = store().prefix(seedId, depth, prefix);
+        Set<String> sliceVars = new HashSet<String>();
+        if (Config.g().z3Slice)
+        	prefix = ConstraintSlicer.slice(prefix, flipped, sliceVars);
+        log.debug("Inverting " + flipped);
+
+        File z3OutFile = Main.newOutFile(Z3_OUT+id);
+        SolverCache.Query query = SolverCache.query(prefix, flipped);
+        Z3Model model = query.lookup();
+        //z3out.N still has to be written if z3 did not write it
+        boolean save = true;
+        if (model != null) {
+        	log.debug("Solver cache hit for path id {}", id);
+        } else if (Config.g().z3Incremental) {
+	        Z3Session session = Z3Session.acquire(seedId);
+	        try {
+	        	model = session.solve(seedId, store(), prefix, flipped);
+	        } finally {
+	        	Z3Session.release(session);
+	        }
+	        query.record(model);
+        } else {
+        	model = solveWithTask(smtFile, z3OutFile, prefix, flipped);
+        	query.record(model);
+        	save = false;
+        }
+
+        if (model == null || model == Z3Model.UNSAT) {
+        	if (save)
+        		Z3Model.save(model, z3OutFile);
+        	return null;
+        }
+        //cached models are shared
+        model = model.copy();
+        if (Config.g().z3Slice && completeFromSeed(model, sliceVars))
+        	save = true;
+        //the device reads the solution from this file
+        if (save)
+        	Z3Model.save(model, z3OutFile);
+        return fuzz(model, scriptToRun);
+    }
+
+    private Z3Model solveWithTask(File smtFile, File z3OutFile, List<String> prefix, String flipped) throws IOException
+    {
+        PrintWriter smtWriter = Main.newWriter(smtFile);
+        for (String d : store().decls(seedId))
+            smtWriter.println(d);
+        for (String c : prefix)
+            smtWriter.println("(assert "+c+")");
+        
+        //Invert last condition
+        smtWriter.println("(assert (not "+flipped+"))");
+
+        smtWriter.println("(check-sat)");
+        smtWriter.println("(get-model)");
+        smtWriter.close();
+
+        File z3ErrFile = Main.newOutFile(Z3_ERR+id);
+        log.trace("Z3 Out file {}", z3OutFile.getAbsolutePath());
+        log.trace("Z3 Err file {}", z3ErrFile.getAbsolutePath());
+        new Z3Task().exec(z3OutFile, z3ErrFile, smtFile.getAbsolutePath());
+        
+        Z3Model model = Z3StrModelReader.read(z3OutFile);
+        if (model == null && Z3StrModelReader.isUnsat(z3OutFile))
+        	return Z3Model.UNSAT;
+        return model;
+    }
+
+    /*
+       Adds the constraints that precede the branch at index depth
+       (deterministic '*' constraints included, without the '*') to
+       prefix, and returns the branch constraint itself. lines are the
+       constraints of a path in the order they were recorded.
+    */
+    static String prefix(Iterator<String> lines, int depth, List<String> prefix)
+    {
+        String line = lines.next();
+        int i = 1;
+        while(i < depth){
+            char c = line.charAt(0);
+            if(c != '*')
+                i++;
+            else
+                line = line.substring(1);
+            prefix.add(line);
+            line = lines.next();
+        }
+        char c = line.charAt(0);
+        while(c == '*'){
+            prefix.add(line.substring(1));
+            line = lines.next();
+            c = line.charAt(0);
+        }
+        return line;
+    }
+
+    /*
+       Variables sliced away from the query keep the values they had
+       in the seed's solution. Returns true if the model changed.
+    */
+    private boolean completeFromSeed(Z3Model model, Set<String> sliceVars)
+    {
+        File seedOut = Main.newOutFile(Z3_OUT+seedId);
+        if (!seedOut.exists())
+        	return false;
+        Z3Model seedModel = Z3StrModelReader.read(seedOut);
+        if (seedModel == null)
+        	return false;
+        boolean changed = false;
+        for (Map.Entry<String,Object> e : seedModel.vals.entrySet()) {
+        	if (!sliceVars.contains(e.getKey())) {
+        		model.put(e.getKey(), e.getValue());
+        		changed = true;
+        	}
+        }
+        return changed;
+    }
+
+    private MonkeyScript fuzz(Z3Model model, File scriptToRun)
+    {
+        if(model == null)
+        	return null;
+    	log.info("** Solved model for path id {} **",id);
+    	model.print();
+        File seedMonkeyScript = Main.newOutFile(Emulator.SCRIPT_TXT+"."+seedId);
+        MonkeyScript newMonkeyScript = new FuzzedMonkeyScript(seedMonkeyScript, model);
+		newMonkeyScript.addComment("Fuzzed from " + Emulator.SCRIPT_TXT+"."+seedId);
+        newMonkeyScript.saveAs(scriptToRun);
+		return newMonkeyScript;
     }
 
     /*
@@ -245,159 +404,302 @@ public class Path
     ExecResult postProcess() throws IOException
     {		
 		File logCatFile = Main.newOutFile(Emulator.LOGCAT_OUT+id);
-		File monkeyFile = Main.newOutFile(Emulator.MONKEY_OUT+id);
 		File syslogFile = Main.newOutFile(Emulator.SYSLOG_OUT+id);
 
+		TraceProcessor processor = streamed;
+		streamed = null;
 		if(checkForSWB(syslogFile)) {
 			log.error("******** Something went bad! runid = " + id + " **********");
+			if (processor != null)
+				processor.abandon();
 			return ExecResult.SWB;
 		}
-        List<String> expectedList = getExpectedTrace();
 
+		if (processor == null) {
+			if(!(logCatFile.length() > 0)) throw new Error("Empty trace file");
+			processor = new TraceProcessor();
+			if (BinaryTrace.isBinary(logCatFile)) {
+				BinaryTrace.read(logCatFile, processor);
+			} else {
+				String line;
+				BufferedReader reader = Main.newReader(logCatFile);
+				while ((line = reader.readLine()) != null)
+					processor.line(line);
+				reader.close();
+			}
+		}
+		return processor.finish();
+	}
 
-        PrintWriter traceWriter = Main.newWriter(traceFileNameFor(id));
-        PrintWriter pcWriter = Main.newWriter(pcFileNameFor(id));
-        Z3DeclWriter declWriter = new Z3DeclWriter(Main.newOutFile(pcDeclFileNameFor(id)));
-//        CoverageMonitor covMonitor = new CoverageMonitor(id);
-        RWAnalyzer rwAnalyzer = new RWAnalyzer();
-		ReadOnlyLastTapDetector roltDetector = new ReadOnlyLastTapDetector();
+	/**
+	 * Returns a sink that processes the trace of this path while it is 
+	 * being streamed from the device. Its result is only used by 
+	 * postProcess if the stream is reported complete through traceStreamed.
+	 */
+	TraceSink startTraceProcessor() throws IOException
+	{
+		streamed = new TraceProcessor();
+		return streamed;
+	}
 
-        int count = 0, numEvents = 0, expectedSize = expectedList.size();
-        boolean diverged = false;
-        String line, prevLine="";
-        if(!(logCatFile.length() > 0)) throw new Error("Empty trace file");
-        
-        declWriter.printComment("Iteration " + id + " Count " + count + " Path depth" + expectedSize);
-        
-        BufferedReader reader = Main.newReader(logCatFile);
-        while ((line = reader.readLine()) != null) {
+	/**
+	 * Called once the device run is over. An incomplete stream is 
+	 * dropped and postProcess falls back to the pulled logcatout file.
+	 */
+	void traceStreamed(boolean complete)
+	{
+		if (!complete && streamed != null) {
+			log.info("Trace stream of runid = {} incomplete, using the pulled trace", id);
+			streamed.abandon();
+			streamed = null;
+		}
+	}
+
+	/**
+	 * Consumes the trace one line or binary record at a time and records
+	 * the trace and pc of this path in the store.
+	 */
+	private final class TraceProcessor implements TraceSink, BinaryTrace.Visitor
+	{
+		private final int[] expected;
+		private final PathStore.Writer records;
+		private final Trace.Builder trace = new Trace.Builder();
+		private final RWAnalyzer rwAnalyzer = new RWAnalyzer();
+		private final ReadOnlyLastTapDetector roltDetector = new ReadOnlyLastTapDetector();
+		//branches seen in this trace, checked against coveredBranches in finish()
+		private final Set<String> bids = new HashSet<String>();
+		private int count = 0, numEvents = 0;
+		private boolean diverged = false;
+		private String prevLine = "";
+		//thread of the current record (0 is the app's main thread) and
+		//the number of branches recorded by each thread
+		private int thread = 0;
+		private final Map<Integer,Integer> threadBranches = new TreeMap<Integer,Integer>();
+
+		TraceProcessor() throws IOException
+		{
+			this.expected = getExpectedTrace();
+			this.records = store().writer(id, seedId);
+		}
+
+		/*
+		  A line of a text trace, tagged with its thread.
+		 */
+		public void line(String line)
+		{
+			thread = threadOf(line);
+			text(line);
+		}
+
+		/*
+		  A record of a binary trace, whose thread was set by thread().
+		 */
+		public void text(String line)
+		{
             if (line.startsWith(BRANCH_MARKER)) {
-            	log.debug("Found branch marker! " + line + " | " + prevLine);
                 int i = line.indexOf(':');
                 String bid = line.substring(i+2).trim();
-                if (!diverged && count < expectedSize) {
-                    String expBid = expectedList.get(count);
-                    //Strip comment from Branch ID
-                    if (expBid.contains("//"))
-                    	expBid=expBid.substring(0,expBid.indexOf("//")-1).trim();
-                    if (!expBid.equals(bid)) {
-                        log.info("********* DIVERGED at index: " + count +
-                            " (expected=" + expBid + " got=" + bid + ") " + "runid = " + id + " **********");
-                        diverged = true;
-                    }
-                }
-                traceWriter.println(bid + "  // " + prevLine);
-                // XXX depInfo.process(did);
-                count++;
-				//} else if (line.startsWith(APP_MARKER)) {
-                //line = line.substring(line.indexOf(':')+2).trim();
-                //covMonitor.process(line);
+                branch(bid, Trace.encode(bid), line);
             } else if (line.startsWith(PC_MARKER)) {
-                line = line.substring(line.indexOf(':')+2).trim();
-//                System.out.println("    Writing PC_MARKER to PC file " + pcFileNameFor(id) + " and decl file " + pcDeclFileNameFor(id));
-                pcWriter.println(line);
-                declWriter.process(line);
-				//panelDetector.process(pc);
+                line = payload(line);
+                pc(line);
             } else if (line.startsWith(ITER_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
-                traceWriter.println("");      //empty line to separate out branches coming from diff events
-				rwAnalyzer.iter(line);
-				roltDetector.iter();
-                numEvents++;
+				line = payload(line);
+				iter(line);
             } else if (line.startsWith(WRITE_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
+				line = payload(line);
 				roltDetector.process(line);
             } else if (line.startsWith(RW_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
+				line = payload(line);
 				rwAnalyzer.rw(line);
 			} else if (line.startsWith(WW_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
+				line = payload(line);
 				rwAnalyzer.rw(line);
 			} else if (line.startsWith(AREAD_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
+				line = payload(line);
 				rwAnalyzer.aread(line);
 			} else if (line.startsWith(AWRITE_MARKER)) {
-				line = line.substring(line.indexOf(':')+2).trim();
+				line = payload(line);
 				rwAnalyzer.awrite(line);
-				roltDetector.processArray(line);
+				roltDetector.processArray();
+			} else if (line.startsWith(CONCRETIZED_MARKER)) {
+				line = payload(line);
+				log.info("Concretized symbolic values (branch id, count) {} runid = {}", line, id);
 			}
             prevLine = line;
-        }
+		}
 
-        if (!diverged && count < expectedSize) {
-            log.info("******* DIVERGED: expected length>=" + expectedSize + " got=" + count + " runid = " + id + " **********");
-            diverged = true;
-        }
-        reader.close();
-        traceWriter.close();
-        pcWriter.close();
-        declWriter.finish();
-        //covMonitor.finish();
-		rwAnalyzer.finish();
-		roltDetector.finish();
-
-		if(diverged) {
-			return ExecResult.DIVERGED;
+		private String payload(String line)
+		{
+			return line.substring(line.indexOf(':')+2).trim();
 		}
 
-		generateNextGenPaths(count);
 		/*
-		  int transited = -1;
-		  if(checkTransition){
-		  transited = ScreenTransition.check(id);
-		  System.out.println("screen transition: " + (transited == 0 ? "none" : (transited == -1 ? "return" : "call")));
-		  }
+		  Records of threads other than the main thread are tagged as
+		  E/TAG@n : msg by the runtime.
 		*/
-		boolean endsWithPanelClick = roltDetector.readOnlyLastTap();//panelDetector.lastTapOnPanel();
-		PathInfo info = new PathInfo(numEvents, 
-									 count, 
-									 roltDetector.writeSet(), 
-									 rwAnalyzer.rwSet(), 
-									 endsWithPanelClick);
-		info.dump(Main.newOutFile(PathInfo.fileName(id)));
-		return ExecResult.OK;
-    }
+		private int threadOf(String line)
+		{
+			int colon = line.indexOf(" : ");
+			int at = line.lastIndexOf('@', colon);
+			if (colon < 0 || at < 0 || !line.startsWith("E/"))
+				return 0;
+			try {
+				return Integer.parseInt(line.substring(at+1, colon));
+			} catch (NumberFormatException e) {
+				//an '@' in the tag of some other record
+				return 0;
+			}
+		}
+
+		public void thread(int thread)
+		{
+			this.thread = thread;
+		}
+
+		private void branch(String bid, int b, String line)
+		{
+            log.debug("Found branch marker! " + line + " | " + prevLine);
+            if (!diverged && count < expected.length && expected[count] != b) {
+                log.info("********* DIVERGED at index: " + count +
+                    " (expected=" + Trace.decode(expected[count]) + " got=" + bid + ") " + "runid = " + id + " **********");
+                diverged = true;
+            }
+            trace.branch(b);
+            bids.add(bid);
+            Integer n = threadBranches.get(thread);
+            threadBranches.put(thread, n == null ? 1 : n + 1);
+            records.branch(bid, prevLine);
+            // XXX depInfo.process(did);
+            count++;
+		}
+
+		public void branch(boolean taken, int branchId)
+		{
+			String bid = (taken ? "T" : "F") + branchId;
+			branch(bid, Trace.branch(taken, branchId), bid);
+			prevLine = "";
+		}
+
+		public void pc(String constraint)
+		{
+            records.pc(constraint);
+			//panelDetector.process(pc);
+			prevLine = constraint;
+		}
+
+		private void iter(String line)
+		{
+            records.iter();
+            trace.iter();
+			rwAnalyzer.iter(line);
+			roltDetector.iter();
+            numEvents++;
+		}
+
+		public void iter(int eventId)
+		{
+			iter(String.valueOf(eventId));
+			prevLine = "";
+		}
+
+		public void read(int fldId)
+		{
+			prevLine = "";
+		}
+
+		public void write(int fldId)
+		{
+			roltDetector.process(fldId);
+			prevLine = "";
+		}
+
+		public void rw(int evId, int fldId)
+		{
+			rwAnalyzer.rw(evId, fldId);
+			prevLine = "";
+		}
+
+		public void ww(int evId, int fldId)
+		{
+			rwAnalyzer.rw(evId, fldId);
+			prevLine = "";
+		}
+
+		public void aread(int objId, int index)
+		{
+			rwAnalyzer.aread(objId, index);
+			prevLine = "";
+		}
+
+		public void awrite(int objId, int index)
+		{
+			rwAnalyzer.awrite(objId, index);
+			roltDetector.processArray();
+			prevLine = "";
+		}
+
+		void abandon()
+		{
+			records.abandon();
+		}
+
+		ExecResult finish() throws IOException
+		{
+			if (!diverged && count < expected.length) {
+				log.info("******* DIVERGED: expected length>=" + expected.length + " got=" + count + " runid = " + id + " **********");
+				diverged = true;
+			}
+			records.finish();
+			rwAnalyzer.finish();
+			if (threadBranches.size() > 1)
+				log.info("Branches per thread {} runid = {}", threadBranches, id);
+			roltDetector.finish();
+
+			File coverageFile = Main.newOutFile(Emulator.COVERAGE_OUT+id);
+			if (Config.g().coverageBitmap && coverageFile.exists()) {
+				newBranches = CoverageMap.merge(coverageFile);
+			} else {
+				for (String bid : bids) {
+					if (coveredBranches.add(bid))
+						newBranches++;
+				}
+			}
+
+			if(diverged) {
+				return ExecResult.DIVERGED;
+			}
+
+			store().put(id, trace.build());
+			generateNextGenPaths(count);
+			boolean endsWithPanelClick = roltDetector.readOnlyLastTap();//panelDetector.lastTapOnPanel();
+			PathInfo info = new PathInfo(numEvents, 
+										 count, 
+										 roltDetector.writeSet(), 
+										 rwAnalyzer.rwSet(), 
+										 endsWithPanelClick);
+			info.dump(Main.newOutFile(PathInfo.fileName(id)));
+			return ExecResult.OK;
+		}
+	}
 
     /**
-     * Returns the sequence of expected branch markers for the current path.
+     * Returns the sequence of expected branches for the current path:
+     * the seed's branches up to depth, the last one flipped.
      * TODO expected is only set by ActevePathExplorer.
      * @return
      * @throws IOException
      */
-    private List<String> getExpectedTrace() throws IOException {
-        List<String> pathTxtList = new ArrayList<String>();
-		if (seedId >= 0) {
-            assert depth > 0;
-            String line;
-            // trace file of seed execution must have at least "depth" number of lines
-            String traceFile = traceFileNameFor(seedId);
-            BufferedReader reader = Main.newReader(traceFile);
-            for (int i = 0; i < depth - 1;) {
-                line = reader.readLine();
-                if(!line.equals("")){
-                    i++;
-                    //pathTxtWriter.println(line);
-                    pathTxtList .add(line);
-                }
-            }
-			do {
-				line = reader.readLine();
-			} while(line !=null && line.equals(""));
-			if (line!=null) {
-				if(extended) {
-					pathTxtList.add(line);
-				} else {
-					char c = line.charAt(0);
-					assert c == 'T' || c == 'F' : "unexpected " + line;
-					String flip = (c == 'T' ? "F" : "T") + line.substring(1);
-					//pathTxtWriter.println(flip);
-					pathTxtList.add(flip);
-				}
-			}
-
-            reader.close();
-        }
-        return pathTxtList;
+    private int[] getExpectedTrace() throws IOException {
+		if (seedId < 0)
+			return new int[0];
+		assert depth > 0;
+		// trace of seed execution must have at least "depth" number of branches
+		Trace seed = store().branches(seedId);
+		int[] expected = seed.branches(Math.min(depth, seed.size()));
+		if (expected.length == depth && !extended)
+			expected[depth-1] = Trace.flip(expected[depth-1]);
+		return expected;
 	}
 
 	void generateNextGenPaths(int traceLength)
@@ -405,6 +707,7 @@ public class Path
         for(int i = traceLength;  i > depth; i--){
         	log.trace("in generateNextGenPaths: traceLength {}, depth {}", traceLength, i);
             Path newPath = new Path(id, i);
+            newPath.score = newBranches;
             PathQueue.addPath(newPath);
         }
     }
@@ -415,7 +718,10 @@ public class Path
 		MonkeyScript seedScript = new ElementaryMonkeyScript(Main.newOutFile(divergingScript));
 		seedScript.addComment("Repeat of " + divergingScript);
 		log.debug("Creating repeat path. SeedId {}, depth {}",seedId, depth);
-		return new Path(seedScript, seedId, depth);
+		Path repeat = new Path(seedScript, seedId, depth);
+		repeat.score = score;
+		repeat.repeats = repeats + 1;
+		return repeat;
 	}
 
 	private boolean checkForSWB(File sysLog)
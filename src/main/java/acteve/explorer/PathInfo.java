@@ -31,55 +31,101 @@
 
 package acteve.explorer;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Set;
-import java.util.Map;
-import java.util.HashSet;
-import java.util.HashMap;
 import java.util.Properties;
-import java.util.Iterator;
-import java.io.BufferedReader;
+import java.util.zip.CRC32;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.File;
-import java.io.FilenameFilter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+/**
+ * What the pruning between rounds needs to know of a path. 
+ *
+ * pathinfo.N is binary: "A3TI", a version byte, then unsigned LEB128
+ * varints
+ *
+ *   numEvents traceLength endsWithPanelClick
+ *   size writeSet-deltas
+ *   (size rwRecord-deltas)*numEvents
+ *
+ * and the CRC32 of everything before it (4 bytes, big-endian). The 
+ * write set is sorted, its first value zigzag-encoded (it may be -1). 
+ * An RW record is packed into a long, eventId << 32 | fieldId; the 
+ * records of an event are sorted, and each is written as its 
+ * difference to the previous one. Files in the older properties 
+ * format are still read.
+ */
 class PathInfo
 {
 	private static final String PATHINFO = "pathinfo.";
+	private static final byte[] MAGIC = {'A', '3', 'T', 'I'};
+	private static final int VERSION = 1;
 
-	Set<Integer> writeSet;
-	List<Set<RWRecord>> rwSet;
+	//sorted
+	int[] writeSet;
+	//the sorted, packed RW records of each event
+	long[][] rwSet;
 	boolean endsWithPanelClick;
 	int traceLength;
 	int numEvents;
 
-	void dump(File file)
+	static long rwRecord(int eventId, int fieldId)
 	{
-		Properties props = new Properties();
-		props.setProperty("numevents", String.valueOf(numEvents));
-		props.setProperty("tracelength", String.valueOf(traceLength));
-		props.setProperty("endswithpanelclick", String.valueOf(endsWithPanelClick));
+		return ((long) eventId << 32) | (fieldId & 0xFFFFFFFFL);
+	}
 
-		StringBuilder builder = new StringBuilder();
-		for(Integer fid : writeSet)
-			builder.append(fid+" ");
-		props.setProperty("writeset", builder.toString());
+	static int eventId(long rwRecord)
+	{
+		return (int) (rwRecord >>> 32);
+	}
 
-		builder = new StringBuilder();
-		for(Set<RWRecord> rws : rwSet){
-			for(RWRecord eid : rws)
-				builder.append(eid.id+";"+eid.fldId + " ");
-			builder.append(",");
-		}
-		props.setProperty("rwset", builder.toString());
+	static int fieldId(long rwRecord)
+	{
+		return (int) rwRecord;
+	}
 
+	void dump(File file)
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
 		try{
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.write(MAGIC);
+			out.writeByte(VERSION);
+			varint(out, numEvents);
+			varint(out, traceLength);
+			out.writeByte(endsWithPanelClick ? 1 : 0);
+			varint(out, writeSet.length);
+			for(int i = 0; i < writeSet.length; i++){
+				if(i == 0)
+					varint(out, (writeSet[0] << 1) ^ (writeSet[0] >> 31));
+				else
+					varint(out, writeSet[i] - writeSet[i-1]);
+			}
+			for(long[] rws : rwSet){
+				varint(out, rws.length);
+				long prev = 0;
+				for(long rw : rws){
+					varlong(out, rw - prev);
+					prev = rw;
+				}
+			}
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			out.writeInt((int) crc.getValue());
+			out.close();
+
 			FileOutputStream fos = new FileOutputStream(file);
-			props.store(fos, "");
+			bytes.writeTo(fos);
 			fos.close();
 		}catch(IOException e){
 			throw new Error(e);
@@ -87,6 +133,116 @@ class PathInfo
 	}
 
 	static PathInfo load(File file)
+	{
+		return new Reader(file.getParentFile()).read(file);
+	}
+
+	/**
+	 * Reads pathinfo files of a directory with plain channel reads into
+	 * one reused buffer, and decodes them from there. Not thread-safe.
+	 */
+	static class Reader
+	{
+		private final File dir;
+		private byte[] buf = new byte[4096];
+
+		Reader(File dir)
+		{
+			this.dir = dir;
+		}
+
+		PathInfo read(int id)
+		{
+			return read(new File(dir, fileName(id)));
+		}
+
+		private PathInfo read(File file)
+		{
+			int n;
+			try{
+				RandomAccessFile raf = new RandomAccessFile(file, "r");
+				try{
+					FileChannel channel = raf.getChannel();
+					n = (int) channel.size();
+					if(buf.length < n)
+						buf = new byte[Math.max(n, 2*buf.length)];
+					ByteBuffer dst = ByteBuffer.wrap(buf, 0, n);
+					while(dst.hasRemaining()){
+						if(channel.read(dst) < 0)
+							throw new IOException("truncated " + file);
+					}
+				}finally{
+					raf.close();
+				}
+			}catch(IOException e){
+				throw new Error(e);
+			}
+			if(n < MAGIC.length || !Arrays.equals(Arrays.copyOf(buf, MAGIC.length), MAGIC))
+				return loadProperties(file);
+			CRC32 crc = new CRC32();
+			crc.update(buf, 0, n - 4);
+			ByteBuffer in = ByteBuffer.wrap(buf, 0, n);
+			if(in.getInt(n - 4) != (int) crc.getValue())
+				throw new Error("corrupt " + file);
+			in.position(MAGIC.length);
+			int version = in.get();
+			if(version != VERSION)
+				throw new Error("unsupported version " + version + " of " + file);
+
+			int numEvents = varint(in);
+			int traceLength = varint(in);
+			boolean endsWithPanelClick = in.get() != 0;
+			int[] writeSet = new int[varint(in)];
+			for(int i = 0; i < writeSet.length; i++){
+				int v = varint(in);
+				writeSet[i] = i == 0 ? (v >>> 1) ^ -(v & 1) : writeSet[i-1] + v;
+			}
+			long[][] rwSet = new long[numEvents][];
+			for(int e = 0; e < numEvents; e++){
+				long[] rws = new long[varint(in)];
+				long prev = 0;
+				for(int i = 0; i < rws.length; i++)
+					rws[i] = prev += varlong(in);
+				rwSet[e] = rws;
+			}
+			return new PathInfo(numEvents, traceLength, writeSet, rwSet, endsWithPanelClick);
+		}
+	}
+
+	private static void varint(DataOutputStream out, int v) throws IOException
+	{
+		varlong(out, v & 0xFFFFFFFFL);
+	}
+
+	private static void varlong(DataOutputStream out, long v) throws IOException
+	{
+		while((v & ~0x7FL) != 0){
+			out.writeByte((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	private static int varint(ByteBuffer in)
+	{
+		return (int) varlong(in);
+	}
+
+	private static long varlong(ByteBuffer in)
+	{
+		long v = 0;
+		for(int shift = 0; ; shift += 7){
+			byte b = in.get();
+			v |= (long) (b & 0x7F) << shift;
+			if(b >= 0)
+				return v;
+		}
+	}
+
+	/*
+	  pathinfo files written before the binary format
+	 */
+	private static PathInfo loadProperties(File file)
 	{
 		Properties props = new Properties();
 		try{
@@ -102,32 +258,31 @@ class PathInfo
 		boolean endsWithPanelClick = Boolean.parseBoolean(props.getProperty("endswithpanelclick"));
 
 		String writeSetStr = props.getProperty("writeset").trim();
-		Set<Integer> writeSet = new HashSet();
+		int[] writeSet = new int[0];
 		if(writeSetStr.length() > 0){
 			String[] tokens = writeSetStr.split(" ");
-			for(String token : tokens){
-				writeSet.add(Integer.parseInt(token));
-			}
+			writeSet = new int[tokens.length];
+			for(int i = 0; i < tokens.length; i++)
+				writeSet[i] = Integer.parseInt(tokens[i]);
+			Arrays.sort(writeSet);
 		}
 
 		String rwSetStr = props.getProperty("rwset").trim();
-		List<Set<RWRecord>> rwSet = new ArrayList();
+		long[][] rwSet = new long[numEvents][];
 		String[] tokens1 = split(rwSetStr, ',');
 		for(int i = 0; i < numEvents; i++){
-			Set rws = new HashSet();
-			rwSet.add(rws);
+			List<Long> rws = new ArrayList();
 			String tk1 = tokens1[i];
-			if(tk1.length() == 0)
-				continue;
-			String[] tokens2 = tk1.split(" ");
+			String[] tokens2 = tk1.length() == 0 ? new String[0] : tk1.split(" ");
 			int m = tokens2.length;
 			for(int j = 0; j < m; j++){
 				String tk2 = tokens2[j];
 				if(tk2.length() == 0)
 					continue;
 				String[] tokens3 = tk2.split(";");
-				rws.add(new RWRecord(Integer.parseInt(tokens3[0]), Integer.parseInt(tokens3[1])));
+				rws.add(rwRecord(Integer.parseInt(tokens3[0]), Integer.parseInt(tokens3[1])));
 			}
+			rwSet[i] = sorted(rws);
 		}
 
 		return new PathInfo(numEvents, traceLength, writeSet, rwSet, endsWithPanelClick);
@@ -153,11 +308,49 @@ class PathInfo
 		return result.toArray(new String[0]);
 	}
 
+	private static long[] sorted(List<Long> rws)
+	{
+		long[] result = new long[rws.size()];
+		for(int i = 0; i < result.length; i++)
+			result[i] = rws.get(i);
+		Arrays.sort(result);
+		int n = 0;
+		for(int i = 0; i < result.length; i++){
+			if(n == 0 || result[n-1] != result[i])
+				result[n++] = result[i];
+		}
+		return n == result.length ? result : Arrays.copyOf(result, n);
+	}
+
 	PathInfo(int numEvents,
 			 int traceLength, 
 			 Set<Integer> writeSet,
 			 List<Set<RWRecord>> rwSet,
 			 boolean endsWithPanelClick)
+	{
+		this.writeSet = new int[writeSet.size()];
+		int i = 0;
+		for(Integer fid : writeSet)
+			this.writeSet[i++] = fid;
+		Arrays.sort(this.writeSet);
+		this.rwSet = new long[rwSet.size()][];
+		i = 0;
+		for(Set<RWRecord> rws : rwSet){
+			List<Long> packed = new ArrayList();
+			for(RWRecord rw : rws)
+				packed.add(rwRecord(rw.id, rw.fldId));
+			this.rwSet[i++] = sorted(packed);
+		}
+		this.endsWithPanelClick = endsWithPanelClick;
+		this.traceLength = traceLength;
+		this.numEvents = numEvents;
+	}
+
+	private PathInfo(int numEvents,
+					 int traceLength, 
+					 int[] writeSet,
+					 long[][] rwSet,
+					 boolean endsWithPanelClick)
 	{
 		this.writeSet = writeSet;
 		this.rwSet = rwSet;
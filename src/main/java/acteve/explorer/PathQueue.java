@@ -31,8 +31,6 @@
 
 package acteve.explorer;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -42,8 +40,22 @@ import org.slf4j.LoggerFactory;
 public class PathQueue
 {
 	private static final Logger log = LoggerFactory.getLogger(PathQueue.class);
-	private static final BlockingQueue<Path> allPaths = new LinkedBlockingQueue<Path>();
+	private static final PathScheduler allPaths = newScheduler(Config.g().scheduler);
 	private static final AtomicInteger globalId = new AtomicInteger(0);
+	//paths added but not yet retired by the executor
+	private static final AtomicInteger outstanding = new AtomicInteger(0);
+
+	private static PathScheduler newScheduler(String name)
+	{
+		log.debug("using {} path scheduler", name);
+		if("fifo".equals(name))
+			return new FifoPathScheduler();
+		if("generational".equals(name))
+			return new GenerationalPathScheduler();
+		if("iddfs".equals(name))
+			return new IterativeDeepeningPathScheduler(Config.g().schedulerDepthStep);
+		throw new Error("unknown scheduler " + name);
+	}
 
 	static int pathsCount()
 	{
@@ -57,8 +69,28 @@ public class PathQueue
 	
 	static void addPath(Path p)
 	{
+		outstanding.incrementAndGet();
 		allPaths.add(p);
 	}
+
+	/**
+	   called once a path taken from the queue has been completely 
+	   processed, i.e., after any paths derived from it were added.
+	 */
+	static void retire(Path p)
+	{
+		p.retire();
+		outstanding.decrementAndGet();
+	}
+
+	/**
+	   true if the queue is empty and no path is being solved, 
+	   executed or post-processed.
+	 */
+	static boolean isDrained()
+	{
+		return outstanding.get() == 0;
+	}
 	
 	static Path getNextPath()
 	{
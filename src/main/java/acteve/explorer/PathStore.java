@@ -0,0 +1,96 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Keeps what was recorded for each executed path: its trace (branch 
+ * decisions and event boundaries), its path constraint, and the 
+ * declarations of the symbolic variables the constraint uses. 
+ * Implementations must be thread-safe; a path is written by one 
+ * Writer and read only after the Writer finished.
+ */
+public interface PathStore
+{
+	/**
+	 * Records of a path being executed. The recorded trace is expected
+	 * to repeat the one of seedId (-1 for none) for a while.
+	 */
+	interface Writer
+	{
+		/** A new event begins. */
+		void iter();
+
+		/** 
+		 * Branch decision bid (e.g. T42); comment is a free-form note
+		 * for the per-file view.
+		 */
+		void branch(String bid, String comment);
+
+		/** A constraint, det ones prefixed with '*'. */
+		void pc(String constraint);
+
+		void finish() throws IOException;
+
+		/** Drops what was written, the path is recorded again. */
+		void abandon();
+	}
+
+	Writer writer(int id, int seedId) throws IOException;
+
+	/** Whether path id was recorded. */
+	boolean contains(int id);
+
+	/**
+	 * Adds the constraints of path id that precede its branch at 
+	 * depth (det constraints included, without the '*') to prefix and
+	 * returns the constraint of that branch.
+	 */
+	String prefix(int id, int depth, List<String> prefix) throws IOException;
+
+	/** 
+	 * The path constraint of path id, in the order it was recorded 
+	 * (det constraints marked with '*').
+	 */
+	List<String> pc(int id) throws IOException;
+
+	/**
+	 * The trace of path id, one branch decision per line and an empty
+	 * line where an event begins.
+	 */
+	List<String> trace(int id) throws IOException;
+
+	/** The declarations for the constraints of path id, for z3. */
+	List<String> decls(int id) throws IOException;
+}
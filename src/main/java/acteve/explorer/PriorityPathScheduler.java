@@ -0,0 +1,77 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of schedulers that order paths by a priority. Ties are
+ * broken by path id, i.e., in generation order.
+ */
+public abstract class PriorityPathScheduler implements PathScheduler
+{
+	private final PriorityBlockingQueue<Path> paths;
+
+	protected PriorityPathScheduler()
+	{
+		paths = new PriorityBlockingQueue<Path>(64, new Comparator<Path>() {
+				public int compare(Path p1, Path p2) {
+					int c = PriorityPathScheduler.this.compare(p1, p2);
+					if(c != 0)
+						return c;
+					return p1.id() < p2.id() ? -1 : (p1.id() == p2.id() ? 0 : 1);
+				}
+			});
+	}
+
+	/**
+	 * Negative if p1 should be explored before p2.
+	 */
+	protected abstract int compare(Path p1, Path p2);
+
+	public void add(Path path)
+	{
+		paths.add(path);
+	}
+
+	public Path poll(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return paths.poll(timeout, unit);
+	}
+
+	public int size()
+	{
+		return paths.size();
+	}
+}
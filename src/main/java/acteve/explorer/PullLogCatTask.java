@@ -45,27 +45,49 @@ public class PullLogCatTask extends Task
 	private AdbTask pullLogCatFile;
 	private AdbTask rmDeviceLogCatFile;
 	private AdbTask rmDeviceKilledProcFile;
+	private AdbTask pullCoverageFile;
+	private AdbTask rmDeviceCoverageFile;
 	private File killedFile;
 	private final int port;
 	private File tmpLogCatFile;
+	private File tmpCoverageFile;
+	private final DeviceSignals signals;
+	private final TraceStreamReader traceStream;
 
     private static final String LOG_FILE = "/mylog.txt";
+    private static final String BINARY_LOG_FILE = "/mylog.bin";
+    private static final String COVERAGE_FILE = "/sdcard/a3t_cov.bin";
     private static final String LOG_DIR_PREFIX = "/data/data/";
 	private static final String KILLED_FILE = "a3t_killed_proc";
 	private static final int MAX_TRY = 5;
+	//the sum of the polling back-offs
+	private static final long EXIT_TIMEOUT = 7500;
+	//the end of the stream is sent before the kill file is written
+	private static final long STREAM_END_TIMEOUT = 2000;
 
-	PullLogCatTask(int port, String appPkgName, File tmpLogCatFile)
+	/**
+	 * @param tmpCoverageFile where to pull the coverage bitmap to, or 
+	 *        null if the runtime does not write it
+	 */
+	PullLogCatTask(int port, String appPkgName, File tmpLogCatFile, File tmpCoverageFile, DeviceSignals signals, TraceStreamReader traceStream)
 	{
 		this.port = port;
-		String deviceLogCatFilePath = "/sdcard"+LOG_FILE;//LOG_DIR_PREFIX+appPkgName+LOG_FILE;
+		this.signals = signals;
+		this.traceStream = traceStream;
+		String deviceLogCatFilePath = "/sdcard"+(Config.g().traceBinary ? BINARY_LOG_FILE : LOG_FILE);//LOG_DIR_PREFIX+appPkgName+LOG_FILE;
 		String deviceKilledFilePath = LOG_DIR_PREFIX+appPkgName+"/"+KILLED_FILE;
 
 		killedFile = Main.newOutFile(KILLED_FILE+".emu"+port);
 		this.tmpLogCatFile = tmpLogCatFile;
+		this.tmpCoverageFile = tmpCoverageFile;
 		pullKilledProcFile = new AdbTask(port, "pull " + deviceKilledFilePath + " " + killedFile.getAbsolutePath());
 		pullLogCatFile = new AdbTask(port, "pull " + deviceLogCatFilePath  + " " + tmpLogCatFile.getAbsolutePath());
 		rmDeviceLogCatFile = new AdbTask(port, "shell rm " + deviceLogCatFilePath);
 		rmDeviceKilledProcFile = new AdbTask(port, "shell rm " + deviceKilledFilePath);
+		if (tmpCoverageFile != null) {
+			pullCoverageFile = new AdbTask(port, "pull " + COVERAGE_FILE + " " + tmpCoverageFile.getAbsolutePath());
+			rmDeviceCoverageFile = new AdbTask(port, "shell rm " + COVERAGE_FILE);
+		}
 	}
 
 	void prepare()
@@ -74,28 +96,42 @@ public class PullLogCatTask extends Task
 			throw new Error("cannot delete " +killedFile.getAbsolutePath());
 		rmDeviceKilledProcFile.execute();
 		rmDeviceLogCatFile.execute();
+		if (rmDeviceCoverageFile != null) {
+			if(tmpCoverageFile.exists() && !tmpCoverageFile.delete())
+				throw new Error("cannot delete " +tmpCoverageFile.getAbsolutePath());
+			rmDeviceCoverageFile.execute();
+		}
 	}
 	
 	public void execute()
 	{
-		int count = 0;
-		while(!killedFile.exists() && count < MAX_TRY) {
+		if(signals != null){
+			//the kill file is written right before the exit signal
+			if(!signals.await(DeviceSignals.EXITED, EXIT_TIMEOUT))
+				log.trace("no exit signal from emulator-"+port);
 			try{
 				pullKilledProcFile.execute();
 			}catch(Exception e){
-				count++;
-				log.trace("waiting for emulator-"+port+ " to finish.");
-			}
-			try{
-				Thread.sleep(count*500);
-			}catch(InterruptedException e){
-				throw new Error("thread sleep");
+				log.trace("no kill file on emulator-"+port);
 			}
+		} else {
+			pollKilledProcFile();
 		}
 		if(!killedFile.exists()) {
 			throw new EmuGoneWildException(port);
 		} else {
 			System.out.println("");
+			if(pullCoverageFile != null){
+				try{
+					pullCoverageFile.execute();
+				}catch(Exception e){
+					log.trace("no coverage bitmap on emulator-"+port);
+				}
+			}
+			if(traceStream != null && traceStream.awaitEnd(STREAM_END_TIMEOUT)){
+				log.trace("trace of emulator-{} streamed", port);
+				return;
+			}
 			pullLogCatFile.execute();
 //			try {
 //				BufferedReader r = new BufferedReader(new FileReader(tmpLogCatFile));
@@ -111,12 +147,34 @@ public class PullLogCatTask extends Task
 		
 	}
 
+	private void pollKilledProcFile()
+	{
+		int count = 0;
+		while(!killedFile.exists() && count < MAX_TRY) {
+			try{
+				pullKilledProcFile.execute();
+			}catch(Exception e){
+				count++;
+				log.trace("waiting for emulator-"+port+ " to finish.");
+			}
+			try{
+				Thread.sleep(count*500);
+			}catch(InterruptedException e){
+				throw new Error("thread sleep");
+			}
+		}
+	}
+
 	public void setProject(Project pr)
 	{
 		pullKilledProcFile.setProject(pr);
 		pullLogCatFile.setProject(pr);
 		rmDeviceLogCatFile.setProject(pr);
 		rmDeviceKilledProcFile.setProject(pr);
+		if (pullCoverageFile != null) {
+			pullCoverageFile.setProject(pr);
+			rmDeviceCoverageFile.setProject(pr);
+		}
 	}
 
 }
@@ -65,8 +65,11 @@ public class RWAnalyzer
 	void rw(String str)
 	{
 		String[] tokens = str.split(" ");
-		int writeEventId = Integer.parseInt(tokens[0]);
-		int fldId = Integer.parseInt(tokens[1]);
+		rw(Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]));
+	}
+
+	void rw(int writeEventId, int fldId)
+	{
 		if(BlackListedFields.check(fldId))
 			return;
 		curRWSet.add(new RWRecord(writeEventId, fldId));
@@ -75,8 +78,11 @@ public class RWAnalyzer
 	void aread(String str)
 	{
 		String[] tokens = str.split(" ");
-		int arrayObjId = Integer.parseInt(tokens[0]);
-		int index = Integer.parseInt(tokens[1]);
+		aread(Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]));
+	}
+
+	void aread(int arrayObjId, int index)
+	{
 		RWRecord rec = new RWRecord(arrayObjId, index);		
 		int count = findLastWrite(rec);
 		if(count >= 0)
@@ -86,8 +92,11 @@ public class RWAnalyzer
 	void awrite(String str)
 	{
 		String[] tokens = str.split(" ");
-		int arrayObjId = Integer.parseInt(tokens[0]);
-		int index = Integer.parseInt(tokens[1]);
+		awrite(Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]));
+	}
+
+	void awrite(int arrayObjId, int index)
+	{
 		RWRecord rec = new RWRecord(arrayObjId, index);
 		int count = findLastWrite(rec);
 		if(count >= 0)
@@ -59,7 +59,11 @@ public class ReadOnlyLastTapDetector
 
 	void process(String line)
 	{
-		int fieldSigId = Integer.parseInt(line);
+		process(Integer.parseInt(line));
+	}
+
+	void process(int fieldSigId)
+	{
 		//System.out.println("write " + fldSigId);
 
 		if(BlackListedFields.check(fieldSigId))
@@ -68,7 +72,7 @@ public class ReadOnlyLastTapDetector
 		writeSet.add(fieldSigId);
 	}
 
-	void processArray(String line)
+	void processArray()
 	{
 		writeSet.add(-1);
 	}
@@ -0,0 +1,289 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the trace, path constraint and declarations of seeds in memory
+ * while their children are generated, in front of the PathStore.
+ *
+ * Every child of a seed needs the seed's constraints and declarations
+ * to be solved and the seed's trace (a Trace, put here by the seed 
+ * itself when its records were processed) to be checked for 
+ * divergence, so a seed with a long trace would otherwise be read from
+ * the store once per child. A seed is dropped when the last of its 
+ * children is retired (see expect and release), or when it is the 
+ * least recently used one and the cache has grown past its size. 
+ * Sizes are estimates of the bytes held.
+ */
+class SeedCache implements PathStore
+{
+	private static final Logger log = LoggerFactory.getLogger(SeedCache.class);
+
+	//estimated overhead of a String and of a list slot
+	private static final int STRING_BYTES = 40;
+	private static final int SLOT_BYTES = 8;
+
+	private final PathStore store;
+	private final long maxBytes;
+
+	//guarded by this
+	private final LinkedHashMap<Integer,Seed> seeds = new LinkedHashMap<Integer,Seed>(16, 0.75f, true);
+	private final Map<Integer,Integer> children = new HashMap<Integer,Integer>();
+	private long bytes;
+
+	private final AtomicInteger hits = new AtomicInteger(0);
+	private final AtomicInteger misses = new AtomicInteger(0);
+	private final AtomicInteger evictions = new AtomicInteger(0);
+
+	/*
+	  What has been read of one seed. Each part is loaded on its first
+	  use: solving needs pc and decls, post-processing the trace.
+	 */
+	private static final class Seed
+	{
+		List<String> pc;
+		Trace trace;
+		List<String> decls;
+		long bytes;
+	}
+
+	/*
+	  One part of a seed: where it is kept, how it is read from the 
+	  store and what it is estimated to cost.
+	 */
+	private static abstract class Part<T>
+	{
+		abstract T get(Seed seed);
+		abstract void set(Seed seed, T value);
+		abstract T load(PathStore store, int id) throws IOException;
+		abstract long sizeOf(T value);
+	}
+
+	private static final Part<List<String>> PC = new Part<List<String>>() {
+			List<String> get(Seed seed) { return seed.pc; }
+			void set(Seed seed, List<String> pc) { seed.pc = pc; }
+			List<String> load(PathStore store, int id) throws IOException
+			{
+				return Collections.unmodifiableList(store.pc(id));
+			}
+			long sizeOf(List<String> pc) { return SeedCache.sizeOf(pc); }
+		};
+
+	private static final Part<Trace> TRACE = new Part<Trace>() {
+			Trace get(Seed seed) { return seed.trace; }
+			void set(Seed seed, Trace trace) { seed.trace = trace; }
+			Trace load(PathStore store, int id) throws IOException
+			{
+				return Trace.of(store.trace(id));
+			}
+			long sizeOf(Trace trace) { return trace.bytes(); }
+		};
+
+	private static final Part<List<String>> DECLS = new Part<List<String>>() {
+			List<String> get(Seed seed) { return seed.decls; }
+			void set(Seed seed, List<String> decls) { seed.decls = decls; }
+			List<String> load(PathStore store, int id) throws IOException
+			{
+				return Collections.unmodifiableList(store.decls(id));
+			}
+			long sizeOf(List<String> decls) { return SeedCache.sizeOf(decls); }
+		};
+
+	SeedCache(PathStore store, long maxBytes)
+	{
+		this.store = store;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * A child of seedId was created.
+	 */
+	synchronized void expect(int seedId)
+	{
+		Integer n = children.get(seedId);
+		children.put(seedId, n == null ? 1 : n + 1);
+	}
+
+	/**
+	 * A child of seedId was retired; the seed is dropped with its last
+	 * child.
+	 */
+	synchronized void release(int seedId)
+	{
+		Integer n = children.get(seedId);
+		if (n == null)
+			return;
+		if (n > 1) {
+			children.put(seedId, n - 1);
+			return;
+		}
+		children.remove(seedId);
+		Seed seed = seeds.remove(seedId);
+		if (seed != null)
+			bytes -= seed.bytes;
+	}
+
+	void printStats()
+	{
+		log.info("(stat) Seed cache hits = " + hits.get());
+		log.info("(stat) Seed cache misses = " + misses.get());
+		log.info("(stat) Seed cache evictions = " + evictions.get());
+	}
+
+	public Writer writer(int id, int seedId) throws IOException
+	{
+		return store.writer(id, seedId);
+	}
+
+	public boolean contains(int id)
+	{
+		return store.contains(id);
+	}
+
+	public String prefix(int id, int depth, List<String> prefix) throws IOException
+	{
+		if (maxBytes <= 0)
+			return store.prefix(id, depth, prefix);
+		return Path.prefix(pc(id).iterator(), depth, prefix);
+	}
+
+	public List<String> pc(int id) throws IOException
+	{
+		return get(id, PC);
+	}
+
+	public List<String> trace(int id) throws IOException
+	{
+		return store.trace(id);
+	}
+
+	public List<String> decls(int id) throws IOException
+	{
+		return get(id, DECLS);
+	}
+
+	/**
+	 * The branches of path id.
+	 */
+	Trace branches(int id) throws IOException
+	{
+		return get(id, TRACE);
+	}
+
+	/**
+	 * Caches the trace of path id, built while its records were 
+	 * processed, for the path's children.
+	 */
+	void put(int id, Trace trace)
+	{
+		if (maxBytes > 0)
+			put(id, TRACE, trace);
+	}
+
+	/*
+	  Part of seed id, read from the store on a miss. Two threads that
+	  miss at once both read it; the first one to finish keeps its 
+	  copy.
+	 */
+	private <T> T get(int id, Part<T> part) throws IOException
+	{
+		if (maxBytes <= 0)
+			return part.load(store, id);
+		synchronized (this) {
+			Seed seed = seeds.get(id);
+			T cached = seed == null ? null : part.get(seed);
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached;
+			}
+		}
+		misses.incrementAndGet();
+		return put(id, part, part.load(store, id));
+	}
+
+	/*
+	  Keeps part of seed id unless another thread was first; returns
+	  the kept one.
+	 */
+	private synchronized <T> T put(int id, Part<T> part, T loaded)
+	{
+		Seed seed = seeds.get(id);
+		if (seed == null) {
+			seed = new Seed();
+			seeds.put(id, seed);
+		}
+		T cached = part.get(seed);
+		if (cached != null)
+			return cached;
+		part.set(seed, loaded);
+		long size = part.sizeOf(loaded);
+		seed.bytes += size;
+		bytes += size;
+		trim();
+		return loaded;
+	}
+
+	/*
+	  Drops least recently used seeds until the cache fits, possibly
+	  the one just loaded if it is larger than the cache on its own.
+	 */
+	private void trim()
+	{
+		Iterator<Seed> it = seeds.values().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			Seed seed = it.next();
+			it.remove();
+			bytes -= seed.bytes;
+			evictions.incrementAndGet();
+		}
+	}
+
+	private static long sizeOf(List<String> lines)
+	{
+		long size = 0;
+		for (String line : lines)
+			size += SLOT_BYTES + STRING_BYTES + 2*line.length();
+		return size;
+	}
+}
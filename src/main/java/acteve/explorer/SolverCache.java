@@ -0,0 +1,355 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches solver results across paths.
+ *
+ * Constraints are hash-consed: each distinct constraint (whitespace
+ * normalized) of a cached result gets an int id, released with the
+ * last result using it, and a query is the sorted set of the ids
+ * of its prefix constraints plus the id of the negated branch. Results
+ * (a model or Z3Model.UNSAT) are kept in an LRU map keyed by that set.
+ *
+ * In addition, every asserted sequence proven UNSAT is recorded in a
+ * trie over the ids in assertion order; a later query whose sequence
+ * starts with a recorded one is UNSAT without asking the solver. A
+ * sequence leaves the trie when its result leaves the LRU map, so the
+ * trie is bounded by the same z3.cache.size.
+ *
+ * The declarations of the seed are not part of the key: they are
+ * derived from the variable names, and the extra tap-coordinate
+ * assertions only constrain variables that occur in the constraints.
+ */
+class SolverCache
+{
+	private static final Logger log = LoggerFactory.getLogger(SolverCache.class);
+
+	/*
+	  All of the state below is guarded by the results lock. A 
+	  constraint has an id only while an entry of the map uses it; ids
+	  are not reused, so a constraint that comes back gets a new one.
+	 */
+	private static final Map<String,Interned> constraintIds = new HashMap();
+	private static int nextConstraintId = 0;
+
+	private static final Map<Key,Result> results = new LinkedHashMap(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				if(size() <= Config.g().z3CacheSize)
+					return false;
+				forget((Result) eldest.getValue());
+				return true;
+			}
+		};
+	private static final TrieNode unsatPrefixes = new TrieNode();
+
+	private static final AtomicInteger hits = new AtomicInteger(0);
+	private static final AtomicInteger unsatPrefixHits = new AtomicInteger(0);
+	private static final AtomicInteger misses = new AtomicInteger(0);
+
+	static Query query(List<String> prefix, String flipped)
+	{
+		if(Config.g().z3CacheSize <= 0)
+			return new Query(null);
+		int n = prefix.size();
+		String[] seq = new String[n+1];
+		for(int i = 0; i < n; i++)
+			seq[i] = canonicalize(prefix.get(i));
+		seq[n] = canonicalize("(not " + flipped + ")");
+		return new Query(seq);
+	}
+
+	//releases the ids and the trie entry of a result leaving the map
+	private static void forget(Result result)
+	{
+		if(result.unsatSeq != null)
+			unsatPrefixes.remove(result.unsatSeq);
+		for(Interned c : result.constraints){
+			if(--c.refs == 0)
+				constraintIds.remove(c.constraint);
+		}
+	}
+
+	static void printStats()
+	{
+		log.info("(stat) Solver cache hits = " + hits.get());
+		log.info("(stat) Solver UNSAT-prefix hits = " + unsatPrefixHits.get());
+		log.info("(stat) Solver cache misses = " + misses.get());
+	}
+
+	//the id of constraint, created if missing; holds results
+	private static Interned intern(String constraint)
+	{
+		Interned c = constraintIds.get(constraint);
+		if(c == null){
+			c = new Interned(constraint, nextConstraintId++);
+			constraintIds.put(constraint, c);
+		}
+		return c;
+	}
+
+	private static String canonicalize(String constraint)
+	{
+		StringBuilder buf = new StringBuilder(constraint.length());
+		boolean space = false;
+		for(int i = 0; i < constraint.length(); i++){
+			char c = constraint.charAt(i);
+			if(Character.isWhitespace(c)){
+				space = true;
+				continue;
+			}
+			if(space && buf.length() > 0 && c != ')' && buf.charAt(buf.length()-1) != '(')
+				buf.append(' ');
+			space = false;
+			buf.append(c);
+		}
+		return buf.toString();
+	}
+
+	static class Query
+	{
+		//canonical constraints in assertion order; the last one is the
+		//negated branch. null if the cache is off.
+		private final String[] seq;
+
+		private Query(String[] seq)
+		{
+			this.seq = seq;
+		}
+
+		/**
+		 * Returns the cached model, Z3Model.UNSAT, or null on a miss.
+		 */
+		Z3Model lookup()
+		{
+			if(seq == null)
+				return null;
+			Result result = null;
+			synchronized(results){
+				//a constraint without an id is in no entry, so only the
+				//part of seq before it can match
+				int[] ids = new int[seq.length];
+				int n = 0;
+				for(; n < seq.length; n++){
+					Interned c = constraintIds.get(seq[n]);
+					if(c == null)
+						break;
+					ids[n] = c.id;
+				}
+				if(unsatPrefixes.covers(ids, n)){
+					unsatPrefixHits.incrementAndGet();
+					return Z3Model.UNSAT;
+				}
+				if(n == seq.length)
+					result = results.get(new Key(ids));
+			}
+			if(result != null)
+				hits.incrementAndGet();
+			else
+				misses.incrementAndGet();
+			return result != null ? result.model : null;
+		}
+
+		/**
+		 * Records a solver result; null (unknown) is not cached.
+		 */
+		void record(Z3Model model)
+		{
+			if(model == null || seq == null)
+				return;
+			synchronized(results){
+				Interned[] interned = new Interned[seq.length];
+				int[] ids = new int[seq.length];
+				for(int i = 0; i < seq.length; i++)
+					ids[i] = (interned[i] = intern(seq[i])).id;
+				Key key = new Key(ids);
+				//referenced before an old result of the key releases them
+				Interned[] constraints = new Interned[key.ids.length];
+				for(Interned c : interned){
+					int k = Arrays.binarySearch(key.ids, c.id);
+					if(constraints[k] == null){
+						constraints[k] = c;
+						c.refs++;
+					}
+				}
+				Result old = results.remove(key);
+				if(old != null)
+					forget(old);
+				Result result = new Result(model, model == Z3Model.UNSAT ? ids : null, constraints);
+				if(result.unsatSeq != null)
+					unsatPrefixes.add(ids);
+				results.put(key, result);
+			}
+		}
+	}
+
+	private static class Interned
+	{
+		final String constraint;
+		final int id;
+		//entries of the map that use the id
+		int refs;
+
+		Interned(String constraint, int id)
+		{
+			this.constraint = constraint;
+			this.id = id;
+		}
+	}
+
+	private static class Result
+	{
+		final Z3Model model;
+		//the sequence recorded in the trie, for UNSAT results
+		final int[] unsatSeq;
+		//the distinct constraints of the key, each holding one reference
+		final Interned[] constraints;
+
+		Result(Z3Model model, int[] unsatSeq, Interned[] constraints)
+		{
+			this.model = model;
+			this.unsatSeq = unsatSeq;
+			this.constraints = constraints;
+		}
+	}
+
+	private static class Key
+	{
+		private final int[] ids;
+		private final int hash;
+
+		//the sorted set of the ids of a sequence
+		Key(int[] seq)
+		{
+			int[] set = seq.clone();
+			Arrays.sort(set);
+			int n = 0;
+			for(int i = 0; i < set.length; i++){
+				if(n == 0 || set[n-1] != set[i])
+					set[n++] = set[i];
+			}
+			this.ids = Arrays.copyOf(set, n);
+			this.hash = Arrays.hashCode(ids);
+		}
+
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		public boolean equals(Object o)
+		{
+			return o instanceof Key && Arrays.equals(ids, ((Key) o).ids);
+		}
+	}
+
+	private static class TrieNode
+	{
+		private Map<Integer,TrieNode> children;
+		private boolean unsat;
+
+		void add(int[] seq)
+		{
+			TrieNode node = this;
+			for(int id : seq){
+				if(node.unsat)
+					return;
+				if(node.children == null)
+					node.children = new HashMap();
+				TrieNode child = node.children.get(id);
+				if(child == null){
+					child = new TrieNode();
+					node.children.put(id, child);
+				}
+				node = child;
+			}
+			node.unsat = true;
+			//every extension is subsumed now
+			node.children = null;
+		}
+
+		/*
+		  Unmarks seq, if it is marked itself rather than subsumed by a
+		  marked prefix, and drops the nodes left with nothing marked
+		  below them.
+		 */
+		void remove(int[] seq)
+		{
+			TrieNode[] path = new TrieNode[seq.length+1];
+			TrieNode node = this;
+			path[0] = node;
+			for(int i = 0; i < seq.length; i++){
+				if(node.children == null)
+					return;
+				node = node.children.get(seq[i]);
+				if(node == null)
+					return;
+				path[i+1] = node;
+			}
+			if(!node.unsat)
+				return;
+			node.unsat = false;
+			for(int i = seq.length; i > 0; i--){
+				node = path[i];
+				if(node.unsat || (node.children != null && !node.children.isEmpty()))
+					break;
+				path[i-1].children.remove(seq[i-1]);
+			}
+		}
+
+		//whether a marked sequence starts seq[0..n)
+		boolean covers(int[] seq, int n)
+		{
+			TrieNode node = this;
+			for(int i = 0; i < n; i++){
+				if(node.unsat)
+					return true;
+				if(node.children == null)
+					return false;
+				node = node.children.get(seq[i]);
+				if(node == null)
+					return false;
+			}
+			return node.unsat;
+		}
+	}
+}
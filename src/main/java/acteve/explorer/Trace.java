@@ -0,0 +1,217 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The branch decisions of a path, one int per branch: the branch id,
+ * with the sign bit set if the branch was not taken (F). Branches are
+ * grouped into events; each event's polynomial hash is computed when
+ * the trace is built, so events of two traces are compared by their 
+ * hashes first and element by element only when the hashes are equal.
+ */
+final class Trace
+{
+	private static final long BASE = 1000003L;
+	private static final int[] EMPTY = new int[0];
+
+	private final int[] branches;
+	//index of the first branch of each event; branches before the 
+	//first event belong to none
+	private final int[] events;
+	private final long[] hashes;
+	private final long hash;
+
+	private Trace(int[] branches, int[] events)
+	{
+		this.branches = branches;
+		this.events = events;
+		this.hashes = new long[events.length];
+		long h = hash(0, events.length == 0 ? branches.length : events[0]);
+		for (int i = 0; i < events.length; i++) {
+			hashes[i] = hash(events[i], end(i));
+			h = h*BASE + hashes[i];
+		}
+		this.hash = h;
+	}
+
+	/**
+	 * Builds a trace from records as they are processed.
+	 */
+	static final class Builder
+	{
+		private int[] branches = new int[64];
+		private int size;
+		private int[] events = new int[8];
+		private int numEvents;
+
+		void iter()
+		{
+			if (numEvents == events.length)
+				events = Arrays.copyOf(events, 2*numEvents);
+			events[numEvents++] = size;
+		}
+
+		void branch(int b)
+		{
+			if (size == branches.length)
+				branches = Arrays.copyOf(branches, 2*size);
+			branches[size++] = b;
+		}
+
+		Trace build()
+		{
+			return new Trace(Arrays.copyOf(branches, size), Arrays.copyOf(events, numEvents));
+		}
+	}
+
+	/**
+	 * The trace of the lines of PathStore.trace: a branch id (maybe
+	 * followed by a comment) per line, an empty line where an event 
+	 * begins.
+	 */
+	static Trace of(List<String> lines)
+	{
+		Builder builder = new Builder();
+		for (String line : lines) {
+			if (line.length() == 0)
+				builder.iter();
+			else
+				builder.branch(encode(line));
+		}
+		return builder.build();
+	}
+
+	static int branch(boolean taken, int branchId)
+	{
+		return taken ? branchId : branchId | Integer.MIN_VALUE;
+	}
+
+	/**
+	 * The int of a branch id like T42, ignoring a trailing comment.
+	 */
+	static int encode(String bid)
+	{
+		int end = bid.indexOf(' ');
+		int id = Integer.parseInt(end < 0 ? bid.substring(1) : bid.substring(1, end));
+		char c = bid.charAt(0);
+		assert c == 'T' || c == 'F' : "unexpected " + bid;
+		return branch(c == 'T', id);
+	}
+
+	static String decode(int b)
+	{
+		return (b < 0 ? "F" : "T") + (b & Integer.MAX_VALUE);
+	}
+
+	/** The other outcome of branch b. */
+	static int flip(int b)
+	{
+		return b ^ Integer.MIN_VALUE;
+	}
+
+	/** Number of branches. */
+	int size()
+	{
+		return branches.length;
+	}
+
+	int branch(int i)
+	{
+		return branches[i];
+	}
+
+	/** The first n branches. */
+	int[] branches(int n)
+	{
+		return n == 0 ? EMPTY : Arrays.copyOf(branches, n);
+	}
+
+	int numEvents()
+	{
+		return events.length;
+	}
+
+	long eventHash(int i)
+	{
+		return hashes[i];
+	}
+
+	/** Whether event i of this trace has the branches of event j of t. */
+	boolean sameEvent(int i, Trace t, int j)
+	{
+		if (hashes[i] != t.hashes[j])
+			return false;
+		int from = events[i], n = end(i) - from;
+		int tFrom = t.events[j];
+		if (t.end(j) - tFrom != n)
+			return false;
+		for (int k = 0; k < n; k++)
+			if (branches[from+k] != t.branches[tFrom+k])
+				return false;
+		return true;
+	}
+
+	/** Estimated bytes held by this trace. */
+	long bytes()
+	{
+		return 4L*branches.length + 12L*events.length + 64;
+	}
+
+	public int hashCode()
+	{
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	public boolean equals(Object o)
+	{
+		if (!(o instanceof Trace))
+			return false;
+		Trace t = (Trace) o;
+		return hash == t.hash && Arrays.equals(branches, t.branches) && Arrays.equals(events, t.events);
+	}
+
+	private int end(int event)
+	{
+		return event + 1 < events.length ? events[event+1] : branches.length;
+	}
+
+	private long hash(int from, int to)
+	{
+		long h = 1;
+		for (int i = from; i < to; i++)
+			h = h*BASE + branches[i];
+		return h;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the trace the instrumented app streams over its "a3t_trace"
+ * socket (see acteve.symbolic.TraceStream), forwarded by adb to a
+ * local tcp port of this emulator. Every line is handed to a 
+ * TraceSink and written to the run's logcatout.N, so a complete 
+ * stream saves pulling mylog.txt and copying it after the run.
+ */
+class TraceStreamReader implements Runnable
+{
+	private static final Logger log = LoggerFactory.getLogger(TraceStreamReader.class);
+
+	static final String SOCKET_NAME = "a3t_trace";
+	private static final String END = "E/A3T_END";
+	//the app may not have bound its socket yet
+	private static final long RETRY_INTERVAL = 100;
+
+	private final int port;
+	private final int hostPort;
+
+	private TraceSink sink;
+	private File file;
+	private Thread thread;
+	private Socket socket;
+	private volatile boolean stopped;
+	private volatile boolean complete;
+
+	TraceStreamReader(int port)
+	{
+		this.port = port;
+		this.hostPort = port + 10000;
+	}
+
+	int hostPort()
+	{
+		return hostPort;
+	}
+
+	/**
+	 * Starts reading the stream of the run that is being started. 
+	 * sink may be null.
+	 */
+	void open(TraceSink sink, File file)
+	{
+		close();
+		this.sink = sink;
+		this.file = file;
+		this.stopped = false;
+		this.complete = false;
+		thread = new Thread(this, "Trace-"+port);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Waits up to timeout milliseconds for the end marker of the 
+	 * stream and returns whether the whole trace was received.
+	 */
+	boolean awaitEnd(long timeout)
+	{
+		if(thread == null)
+			return false;
+		try{
+			thread.join(timeout);
+		}catch(InterruptedException e){
+			throw new Error(e);
+		}
+		if(!complete)
+			close();
+		return complete;
+	}
+
+	boolean complete()
+	{
+		return complete;
+	}
+
+	void close()
+	{
+		stopped = true;
+		synchronized(this){
+			try{
+				if(socket != null)
+					socket.close();
+			}catch(IOException e){
+				//ignore
+			}
+		}
+		if(thread != null){
+			try{
+				thread.join();
+			}catch(InterruptedException e){
+				throw new Error(e);
+			}
+			thread = null;
+		}
+	}
+
+	public void run()
+	{
+		PrintWriter writer = null;
+		try{
+			writer = Main.newWriter(file);
+			//adb accepts the forwarded connection and closes it if
+			//nothing listens on the device yet
+			while(!stopped && !read(writer)){
+				try{
+					Thread.sleep(RETRY_INTERVAL);
+				}catch(InterruptedException e){
+					return;
+				}
+			}
+		}catch(IOException e){
+			if(!stopped)
+				log.debug("trace stream of emulator-{} closed: {}", port, e.getMessage());
+		}finally{
+			if(writer != null)
+				writer.close();
+			synchronized(this){
+				socket = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns false if the connection was closed before any line
+	 * was received.
+	 */
+	private boolean read(PrintWriter writer) throws IOException
+	{
+		Socket s = new Socket("127.0.0.1", hostPort);
+		synchronized(this){
+			if(stopped){
+				s.close();
+				return true;
+			}
+			socket = s;
+		}
+		boolean received = false;
+		try{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream()));
+			String line;
+			while((line = reader.readLine()) != null){
+				received = true;
+				if(line.startsWith(END)){
+					complete = true;
+					break;
+				}
+				writer.println(line);
+				if(sink != null)
+					sink.line(line);
+			}
+		}finally{
+			s.close();
+		}
+		return received;
+	}
+}
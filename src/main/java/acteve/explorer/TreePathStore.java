@@ -0,0 +1,489 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the recorded paths as an execution tree, in one append-only
+ * segment file (paths.seg) and an index (paths.idx) from path id to
+ * the path's last node. A node holds one branch decision, with the 
+ * events and constraints recorded since the previous one, and points 
+ * to its parent. While a run repeats its seed's trace it reuses the
+ * seed's nodes, so each path only adds the nodes past the point where
+ * it left the seed. Nodes are decoded with positional reads of the 
+ * segment, which any number of threads may do at once.
+ *
+ * Segment: "A3TP", a version byte, then nodes of
+ *
+ *   parent(long)  events(int)  bid  count(int)  constraint*count
+ *
+ * where strings are a length (int) and UTF-8 bytes, parent is -1 for
+ * a root, and events counts the events that began before the branch.
+ * A path's last node may be a tail, with an empty bid, holding what 
+ * was recorded after its last branch.
+ *
+ * Index: 16 bytes per path id, the offset of the path's last node (0 
+ * if the path was not recorded) and its number of branches.
+ *
+ * The per-file view of a path (trace.N, pc.N, pc.N.decl) is written 
+ * by export(), for every path if path.store.export is set, or for a 
+ * finished campaign with
+ *   java acteve.explorer.TreePathStore <results dir> [id ...]
+ */
+class TreePathStore implements PathStore
+{
+	private static final Logger log = LoggerFactory.getLogger(TreePathStore.class);
+
+	static final String SEGMENT = "paths.seg";
+	static final String INDEX = "paths.idx";
+	private static final byte[] MAGIC = {'A', '3', 'T', 'P'};
+	private static final int VERSION = 1;
+	private static final int ENTRY_SIZE = 16;
+	//bytes read at once when decoding a node
+	private static final int READ_SIZE = 4096;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final File dir;
+	private final FileChannel segment;
+	private final FileChannel index;
+	private final boolean export;
+	//guarded by this
+	private long end;
+	private long[] lasts = new long[1024];
+	private int[] branches = new int[1024];
+
+	private final class TreeWriter implements Writer
+	{
+		private final int id;
+		//the seed's nodes from the root, reused while they match
+		private final long[] seed;
+		private int shared;
+		private boolean leftSeed;
+		private long last = -1;
+		private int count;
+		private int events;
+		private final List<String> constraints = new ArrayList<String>();
+
+		TreeWriter(int id, int seedId) throws IOException
+		{
+			this.id = id;
+			this.seed = seedId >= 0 && contains(seedId) ? chain(seedId) : new long[0];
+		}
+
+		public void iter()
+		{
+			events++;
+		}
+
+		public void branch(String bid, String comment)
+		{
+			node(bid);
+			count++;
+		}
+
+		public void pc(String constraint)
+		{
+			constraints.add(constraint);
+		}
+
+		public void finish() throws IOException
+		{
+			if (events > 0 || !constraints.isEmpty() || last < 0)
+				node("");
+			index(id, last, count);
+			if (export)
+				export(id);
+		}
+
+		public void abandon()
+		{
+			//the nodes appended so far are never reached
+		}
+
+		private void node(String bid)
+		{
+			try {
+				if (!leftSeed && shared < seed.length && matches(seed[shared], events, bid, constraints)) {
+					last = seed[shared++];
+				} else {
+					leftSeed = true;
+					last = append(last, events, bid, constraints);
+				}
+			} catch (IOException e) {
+				throw new Error(e);
+			}
+			events = 0;
+			constraints.clear();
+		}
+	}
+
+	/*
+	  A node decoded from the segment.
+	 */
+	private static final class Node
+	{
+		long parent;
+		int events;
+		String bid;
+		String[] constraints;
+	}
+
+	private TreePathStore(File dir, boolean create, boolean export) throws IOException
+	{
+		this.dir = dir;
+		this.export = export;
+		File segmentFile = new File(dir, SEGMENT);
+		File indexFile = new File(dir, INDEX);
+		if (create) {
+			segmentFile.delete();
+			indexFile.delete();
+		}
+		this.segment = new RandomAccessFile(segmentFile, "rw").getChannel();
+		this.index = new RandomAccessFile(indexFile, "rw").getChannel();
+		if (segment.size() == 0) {
+			ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 1);
+			header.put(MAGIC).put((byte) VERSION).flip();
+			segment.write(header, 0);
+		}
+		this.end = segment.size();
+		ByteBuffer entries = ByteBuffer.allocate((int) index.size());
+		index.read(entries, 0);
+		entries.flip();
+		for (int id = 0; entries.remaining() >= ENTRY_SIZE; id++) {
+			long last = entries.getLong();
+			int count = entries.getInt();
+			entries.getInt();
+			if (last != 0)
+				put(id, last, count);
+		}
+	}
+
+	/**
+	 * The store in the out directory, emptied unless the results of
+	 * an earlier run are kept (restart).
+	 */
+	static TreePathStore open() throws IOException
+	{
+		File dir = new File(Config.g().outDir);
+		log.debug("execution tree of the paths in {}", dir);
+		return new TreePathStore(dir, !Config.g().restart, Config.g().pathStoreExport);
+	}
+
+	public Writer writer(int id, int seedId) throws IOException
+	{
+		return new TreeWriter(id, seedId);
+	}
+
+	public synchronized boolean contains(int id)
+	{
+		return id < lasts.length && lasts[id] != 0;
+	}
+
+	public String prefix(int id, int depth, List<String> prefix) throws IOException
+	{
+		final long[] chain = chain(id);
+		return Path.prefix(new Iterator<String>() {
+				private int node = 0;
+				private String[] constraints = new String[0];
+				private int i = 0;
+
+				public boolean hasNext()
+				{
+					while (i == constraints.length && node < chain.length) {
+						try {
+							constraints = node(chain[node++]).constraints;
+						} catch (IOException e) {
+							throw new Error(e);
+						}
+						i = 0;
+					}
+					return i < constraints.length;
+				}
+
+				public String next()
+				{
+					hasNext();
+					return constraints[i++];
+				}
+
+				public void remove()
+				{
+					throw new UnsupportedOperationException();
+				}
+			}, depth, prefix);
+	}
+
+	public List<String> pc(int id) throws IOException
+	{
+		List<String> pc = new ArrayList<String>();
+		for (long offset : chain(id))
+			pc.addAll(Arrays.asList(node(offset).constraints));
+		return pc;
+	}
+
+	public List<String> trace(int id) throws IOException
+	{
+		List<String> trace = new ArrayList<String>();
+		for (long offset : chain(id)) {
+			Node n = node(offset);
+			for (int i = 0; i < n.events; i++)
+				trace.add("");
+			if (n.bid.length() > 0)
+				trace.add(n.bid);
+		}
+		return trace;
+	}
+
+	public List<String> decls(int id) throws IOException
+	{
+		StringWriter out = new StringWriter();
+		writeDecls(id, out);
+		List<String> decls = new ArrayList<String>();
+		for (String line : out.toString().split("\n"))
+			if (line.length() > 0)
+				decls.add(line);
+		return decls;
+	}
+
+	private void writeDecls(int id, java.io.Writer out) throws IOException
+	{
+		Z3DeclWriter declWriter = new Z3DeclWriter(out);
+		declWriter.printComment("Iteration " + id);
+		for (String c : pc(id))
+			declWriter.process(c);
+		declWriter.finish();
+	}
+
+	/**
+	 * Writes trace.N, pc.N and pc.N.decl of path id, as FilePathStore
+	 * does, into the directory of the store.
+	 */
+	void export(int id) throws IOException
+	{
+		PrintWriter traceWriter = Main.newWriter(new File(dir, Path.traceFileNameFor(id)));
+		for (String line : trace(id))
+			traceWriter.println(line);
+		traceWriter.close();
+
+		PrintWriter pcWriter = Main.newWriter(new File(dir, Path.pcFileNameFor(id)));
+		for (String c : pc(id))
+			pcWriter.println(c);
+		pcWriter.close();
+
+		writeDecls(id, new FileWriter(new File(dir, Path.pcDeclFileNameFor(id))));
+	}
+
+	/*
+	  The nodes of path id, from the root.
+	 */
+	private long[] chain(int id) throws IOException
+	{
+		long last;
+		int count;
+		synchronized (this) {
+			last = lasts[id];
+			count = branches[id];
+		}
+		long[] chain = new long[count + 1];
+		int n = 0;
+		for (long offset = last; offset >= 0; offset = node(offset).parent) {
+			if (n == chain.length)
+				chain = Arrays.copyOf(chain, 2*n);
+			chain[n++] = offset;
+		}
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			long t = chain[i];
+			chain[i] = chain[j];
+			chain[j] = t;
+		}
+		return n == chain.length ? chain : Arrays.copyOf(chain, n);
+	}
+
+	private boolean matches(long offset, int events, String bid, List<String> constraints) throws IOException
+	{
+		Node n = node(offset);
+		if (n.events != events || !n.bid.equals(bid) || n.constraints.length != constraints.size())
+			return false;
+		for (int i = 0; i < n.constraints.length; i++)
+			if (!n.constraints[i].equals(constraints.get(i)))
+				return false;
+		return true;
+	}
+
+	private Node node(long offset) throws IOException
+	{
+		NodeInput in = new NodeInput(offset);
+		Node n = new Node();
+		n.parent = in.need(8).getLong();
+		n.events = in.need(4).getInt();
+		n.bid = in.string();
+		n.constraints = new String[in.need(4).getInt()];
+		for (int i = 0; i < n.constraints.length; i++)
+			n.constraints[i] = in.string();
+		return n;
+	}
+
+	private long append(long parent, int events, String bid, List<String> constraints) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(parent);
+		out.writeInt(events);
+		string(out, bid);
+		out.writeInt(constraints.size());
+		for (String c : constraints)
+			string(out, c);
+		out.close();
+		ByteBuffer node = ByteBuffer.wrap(bytes.toByteArray());
+		synchronized (this) {
+			long offset = end;
+			while (node.hasRemaining())
+				segment.write(node, end + node.position());
+			end += node.limit();
+			return offset;
+		}
+	}
+
+	private void index(int id, long last, int count) throws IOException
+	{
+		ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+		entry.putLong(last).putInt(count).putInt(0).flip();
+		synchronized (this) {
+			while (entry.hasRemaining())
+				index.write(entry, (long) id * ENTRY_SIZE + entry.position());
+			put(id, last, count);
+		}
+	}
+
+	private synchronized void put(int id, long last, int count)
+	{
+		if (id >= lasts.length) {
+			int n = Math.max(id + 1, 2*lasts.length);
+			lasts = Arrays.copyOf(lasts, n);
+			branches = Arrays.copyOf(branches, n);
+		}
+		lasts[id] = last;
+		branches[id] = count;
+	}
+
+	/*
+	  Reads one node in chunks of READ_SIZE. Nodes are complete once
+	  they are reachable, so bytes read past the node's end are only
+	  ignored.
+	 */
+	private final class NodeInput
+	{
+		//segment offset of buf's first byte
+		private long offset;
+		private ByteBuffer buf = ByteBuffer.allocate(0);
+
+		NodeInput(long offset)
+		{
+			this.offset = offset;
+		}
+
+		//buf with at least n bytes remaining
+		ByteBuffer need(int n) throws IOException
+		{
+			if (buf.remaining() >= n)
+				return buf;
+			offset += buf.position();
+			buf = ByteBuffer.allocate(Math.max(n, READ_SIZE));
+			while (buf.hasRemaining()) {
+				if (segment.read(buf, offset + buf.position()) < 0)
+					break;
+			}
+			buf.flip();
+			if (buf.remaining() < n)
+				throw new EOFException("truncated node at " + offset + " in " + new File(dir, SEGMENT));
+			return buf;
+		}
+
+		String string() throws IOException
+		{
+			int length = need(4).getInt();
+			byte[] bytes = new byte[length];
+			need(length).get(bytes);
+			return new String(bytes, UTF8);
+		}
+	}
+
+	private static void string(DataOutputStream out, String s) throws IOException
+	{
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	void close() throws IOException
+	{
+		segment.close();
+		index.close();
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1) {
+			System.out.println("Usage: TreePathStore <results dir> [id ...]");
+			System.exit(-1);
+		}
+		TreePathStore store = new TreePathStore(new File(args[0]), false, false);
+		if (args.length > 1) {
+			for (int i = 1; i < args.length; i++)
+				store.export(Integer.parseInt(args[i]));
+		} else {
+			for (int id = 0; id < store.lasts.length; id++)
+				if (store.contains(id))
+					store.export(id);
+		}
+		store.close();
+	}
+}
@@ -36,6 +36,10 @@ import java.io.FileWriter;
 import java.io.BufferedWriter;
 import java.io.PrintWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.regex.Pattern;
@@ -57,18 +61,34 @@ public class Z3DeclWriter
 			throw new Error(e);
 		}
 	}
+
+	Z3DeclWriter(Writer out)
+	{
+		pcDeclWriter = new PrintWriter(out);
+	}
 	
 	void printComment(String comment) {
 		pcDeclWriter.println(";"+comment);
 	}
 
-	void process(String pc)
+	/**
+	 * Adds the names of the symbolic variables occurring in pc.
+	 */
+	static void collectVarNames(String pc, Collection<String> names)
 	{
-		//find the vars
 		Matcher matcher = varNamePat.matcher(pc);
 		while(matcher.find()){
 			String varName = matcher.group();
-			varName = varName.substring(0, varName.length()-1);
+			names.add(varName.substring(0, varName.length()-1));
+		}
+	}
+
+	void process(String pc)
+	{
+		//find the vars
+		List<String> names = new ArrayList();
+		collectVarNames(pc, names);
+		for(String varName : names){
 			if(varNames.contains(varName))
 				continue;
 			varNames.add(varName);
@@ -31,11 +31,17 @@
 
 package acteve.explorer;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.Map;
 import java.util.HashMap;
 
 public class Z3Model
 {
+	/** result of a query proven unsatisfiable */
+	static final Z3Model UNSAT = new Z3Model();
+
 	Map<String,Object> vals = new HashMap();
 	
 	void put(String varName, Object value)
@@ -55,6 +61,48 @@ public class Z3Model
 		}
 	}
 
+	Z3Model copy()
+	{
+		Z3Model m = new Z3Model();
+		m.vals.putAll(vals);
+		return m;
+	}
+
+	/**
+	 * Saves the scalar values in the Z3-str output layout, which is
+	 * what Z3StrModelReader and the device runtime read. UNSAT is
+	 * saved as such, a null model as UNKNOWN.
+	 */
+	static void save(Z3Model model, File file)
+	{
+		try{
+			PrintWriter writer = Main.newWriter(file);
+			writer.println("************************");
+			writer.println(model == UNSAT ? ">> UNSAT" : (model == null ? ">> UNKNOWN" : ">> SAT"));
+			writer.println("------------------------");
+			if(model != null && model != UNSAT){
+				for(Map.Entry<String,Object> e : model.vals.entrySet()){
+					Object value = e.getValue();
+					String name = e.getKey();
+					if(value instanceof Number)
+						writer.println(name + " : " + (value instanceof Integer || value instanceof Long ? "int" : "real") + " -> " + value);
+					else if(value instanceof String){
+						//values read back by Z3StrModelReader are kept verbatim
+						String v = (String) value;
+						if(name.startsWith("$X"))
+							writer.println(name + " : string -> " + (v.startsWith("\"") ? v : "\"" + v + "\""));
+						else if(!name.startsWith("$!"))
+							writer.println(name + " : " + (v.indexOf('.') < 0 ? "int" : "real") + " -> " + v);
+					}
+				}
+			}
+			writer.println("************************");
+			writer.close();
+		}catch(IOException e){
+			throw new Error(e);
+		}
+	}
+
 	public static class Array
 	{
 		private Map<Integer,Number> vals = new HashMap();
@@ -31,6 +31,7 @@
 
 package acteve.explorer;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -71,6 +72,20 @@ public class Z3ModelReader
 		}
 	}
 
+	/**
+	 * Parses the response of a (get-model) command.
+	 */
+	static Z3Model parseModel(String text)
+	{
+		try{
+			SimpleSExprStream p = new SimpleSExprStream(new ByteArrayInputStream(text.getBytes("UTF-8")));
+			p.setListsAsVectors(true);
+			return process((Vector) p.parse());
+		}catch(Exception e){
+			throw new Error(e);
+		}
+	}
+
 	static private String readResult(SimpleSExprStream p) throws IOException
 	{
 		final int len = 10;
@@ -91,13 +106,18 @@ public class Z3ModelReader
 	private static Z3Model process(Vector root)
 	{
 
-		if(!((Symbol) root.elementAt(0)).toString().equals("model"))
-			assert false;
+		//newer z3 versions omit the "model" keyword
+		int first = 0;
+		if(root.size() > 0 && root.elementAt(0) instanceof Symbol){
+			if(!((Symbol) root.elementAt(0)).toString().equals("model"))
+				assert false;
+			first = 1;
+		}
 
 		Z3Model model = new Z3Model();
 	
 		int size = root.size();
-		for(int i = 1; i < size; i++)
+		for(int i = first; i < size; i++)
 			define_fun(root.elementAt(i), model);
 		
 		return model;
@@ -128,11 +148,17 @@ public class Z3ModelReader
 			if(t instanceof Symbol){
 				if(((Symbol) t).toString().equals("Array")){
 					Vector value = (Vector) v;
-					if(!("_".equals(((Symbol) value.elementAt(0)).toString())))
-						assert false;
-					if(!("as-array".equals(((Symbol) value.elementAt(1)).toString())))
-						assert false;
-					return ((Symbol) value.elementAt(2)).toString();
+					if(value.elementAt(0) instanceof Symbol &&
+					   "_".equals(((Symbol) value.elementAt(0)).toString())){
+						if(!("as-array".equals(((Symbol) value.elementAt(1)).toString())))
+							assert false;
+						return ((Symbol) value.elementAt(2)).toString();
+					}
+					//inline array value: store chain over a constant array
+					String elemType = ((Symbol) ((Vector) type).elementAt(2)).toString();
+					Z3Model.Array array = new Z3Model.Array();
+					store(elemType, value, array);
+					return array;
 				}
 				else 
 					assert false; 
@@ -162,10 +188,32 @@ public class Z3ModelReader
 					assert false;
 			}
 		}
+		else if("String".equals(t)){
+			return v.toString();
+		}
 		else
 			assert false;
 		return null;
 	}
+
+	/*
+	  (store (store ((as const (Array Int Real)) 0.0) 0 1.0) 1 39.0)
+	*/
+	static private void store(String t, Vector expr, Z3Model.Array array)
+	{
+		Object head = expr.elementAt(0);
+		if(head instanceof Vector){
+			//((as const (Array Int Real)) v)
+			array.setDefaultValue(number(t, expr.elementAt(1)));
+		}
+		else if(((Symbol) head).toString().equals("store")){
+			store(t, (Vector) expr.elementAt(1), array);
+			Integer index = (Integer) number("Int", expr.elementAt(2));
+			array.put(index, number(t, expr.elementAt(3)));
+		}
+		else
+			assert false;
+	}
 	
 	static private void ite(String t, Vector iteExpr, Z3Model.Array array)
 	{
@@ -0,0 +1,247 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A warm z3 process in interactive (-in) mode.
+ *
+ * A session is bound to one seed at a time: the declarations of the
+ * seed are loaded once and every prefix constraint is asserted in its
+ * own scope. Solving a flip at depth d pops back to the common prefix,
+ * pushes the missing prefix constraints and checks the negated branch
+ * in a scope of its own. Flips of one seed (generated from the deepest
+ * branch upwards) therefore only pop scopes.
+ *
+ * Idle sessions are pooled; acquire() prefers a session already bound
+ * to the requested seed.
+ */
+public class Z3Session
+{
+	private static final Logger log = LoggerFactory.getLogger(Z3Session.class);
+	private static final String DONE_MARKER = "a3t-done";
+
+	private static final List<Z3Session> idle = new ArrayList();
+	private static final List<Z3Session> all = new ArrayList();
+	private static final AtomicInteger sessionIds = new AtomicInteger(0);
+	private static String z3Path;
+
+	private final int sessionId;
+	private Process process;
+	private Writer toZ3;
+	private BufferedReader fromZ3;
+
+	private int seedId = -1;
+	//prefix constraints currently asserted, one scope each
+	private final List<String> scopes = new ArrayList();
+
+	static void setup(String path)
+	{
+		z3Path = new File(path).getAbsolutePath();
+	}
+
+	static Z3Session acquire(int seedId)
+	{
+		synchronized(idle){
+			Z3Session any = null;
+			for(Iterator<Z3Session> it = idle.iterator(); it.hasNext();){
+				Z3Session s = it.next();
+				if(s.seedId == seedId){
+					it.remove();
+					return s;
+				}
+				any = s;
+			}
+			if(any != null){
+				idle.remove(any);
+				return any;
+			}
+		}
+		Z3Session s = new Z3Session(sessionIds.getAndIncrement());
+		synchronized(all){
+			all.add(s);
+		}
+		return s;
+	}
+
+	static void release(Z3Session s)
+	{
+		synchronized(idle){
+			idle.add(s);
+		}
+	}
+
+	static void closeAll()
+	{
+		synchronized(all){
+			for(Z3Session s : all)
+				s.close();
+			all.clear();
+		}
+		synchronized(idle){
+			idle.clear();
+		}
+	}
+
+	private Z3Session(int sessionId)
+	{
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Checks prefix /\ !flipped under the declarations of the seed, 
+	 * taken from store. Returns the model, Z3Model.UNSAT, or null if z3
+	 * could not decide.
+	 */
+	Z3Model solve(int seedId, PathStore store, List<String> prefix, String flipped) throws IOException
+	{
+		try{
+			if(process == null)
+				start();
+			if(seedId != this.seedId)
+				loadSeed(seedId, store.decls(seedId));
+
+			int common = 0;
+			int max = Math.min(scopes.size(), prefix.size());
+			while(common < max && scopes.get(common).equals(prefix.get(common)))
+				common++;
+
+			StringBuilder cmds = new StringBuilder();
+			int pops = scopes.size() - common;
+			if(pops > 0){
+				cmds.append("(pop ").append(pops).append(")\n");
+				scopes.subList(common, scopes.size()).clear();
+			}
+			for(int i = common; i < prefix.size(); i++){
+				String c = prefix.get(i);
+				cmds.append("(push)\n(assert ").append(c).append(")\n");
+				scopes.add(c);
+			}
+			cmds.append("(push)\n(assert (not ").append(flipped).append("))\n(check-sat)\n");
+			log.trace("session {} seed {}: popped {}, pushed {}", sessionId, seedId, pops, prefix.size()-common);
+
+			String result = send(cmds.toString()).trim();
+			Z3Model model = null;
+			if(result.equals("sat")){
+				model = Z3ModelReader.parseModel(send("(get-model)\n"));
+			} else if(result.equals("unsat")){
+				model = Z3Model.UNSAT;
+			} else {
+				log.warn("session {}: check-sat returned {}", sessionId, result);
+			}
+			send("(pop)\n");
+			return model;
+		}catch(IOException e){
+			close();
+			throw e;
+		}
+	}
+
+	private void start() throws IOException
+	{
+		ProcessBuilder pb = new ProcessBuilder(z3Path, "-in");
+		pb.redirectError(ProcessBuilder.Redirect.appendTo(Main.newOutFile("z3err.session"+sessionId)));
+		process = pb.start();
+		toZ3 = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), "US-ASCII"));
+		fromZ3 = new BufferedReader(new InputStreamReader(process.getInputStream(), "US-ASCII"));
+		seedId = -1;
+		scopes.clear();
+		log.debug("started z3 session {}", sessionId);
+	}
+
+	private void loadSeed(int seedId, List<String> decls) throws IOException
+	{
+		StringBuilder cmds = new StringBuilder("(reset)\n");
+		for(String line : decls){
+			if(!line.startsWith(";"))
+				cmds.append(line).append('\n');
+		}
+		scopes.clear();
+		this.seedId = -1;
+		send(cmds.toString());
+		this.seedId = seedId;
+	}
+
+	/**
+	 * Sends the commands followed by an echo of DONE_MARKER and
+	 * returns whatever z3 printed before the marker.
+	 */
+	private String send(String cmds) throws IOException
+	{
+		toZ3.write(cmds);
+		toZ3.write("(echo \"" + DONE_MARKER + "\")\n");
+		toZ3.flush();
+
+		StringBuilder response = new StringBuilder();
+		String line;
+		while((line = fromZ3.readLine()) != null){
+			if(line.equals(DONE_MARKER))
+				break;
+			if(line.startsWith("(error "))
+				log.warn("session {}: {}", sessionId, line);
+			response.append(line).append('\n');
+		}
+		if(line == null)
+			throw new IOException("z3 session " + sessionId + " terminated");
+		return response.toString();
+	}
+
+	private void close()
+	{
+		if(process == null)
+			return;
+		try{
+			toZ3.write("(exit)\n");
+			toZ3.flush();
+		}catch(IOException e){
+			//already gone
+		}
+		process.destroy();
+		process = null;
+		seedId = -1;
+		scopes.clear();
+	}
+}
@@ -87,6 +87,28 @@ public class Z3StrModelReader
 		}
 	}
 	
+	/**
+	 * True if the solver output in file reports UNSAT.
+	 */
+	static boolean isUnsat(File file)
+	{
+		try{
+			BufferedReader br = new BufferedReader(new FileReader(file));
+			String line;
+			boolean unsat = false;
+			while ((line = br.readLine())!=null) {
+				if (line.startsWith(">>")) {
+					unsat = line.equals(">> UNSAT");
+					break;
+				}
+			}
+			br.close();
+			return unsat;
+		}catch(Exception e){
+			throw new Error(e);
+		}
+	}
+	
 	public static void main(String[] args) 
 	{
 		String dirName = args[0];
@@ -59,6 +59,10 @@ public final class Config {
 	public final String methsWhitelist;
 	public final boolean instrAllFields;
 	public final Set<String> fieldsToModel;
+	public final int runtimeVerbosity;
+	public final int arrayConcretizeSize;
+	public final int concretizeMaxSize;
+	public final int concretizeMaxDepth;
 
 	private static Config config;
 
@@ -95,6 +99,21 @@ public final class Config {
 		else
 			throw new RuntimeException("Unknown value for rw.kind: " + s);
 		
+		// levels of acteve.symbolic.Verbosity, baked into the runtime
+		s = props.getProperty("runtime.verbosity", "info");
+		if (s.equals("quiet"))
+			runtimeVerbosity = 0;
+		else if (s.equals("info"))
+			runtimeVerbosity = 1;
+		else if (s.equals("debug"))
+			runtimeVerbosity = 2;
+		else
+			throw new RuntimeException("Unknown value for runtime.verbosity: " + s);
+
+		arrayConcretizeSize = Integer.parseInt(props.getProperty("array.concretize.size", "1024"));
+		concretizeMaxSize = Integer.parseInt(props.getProperty("concretize.max.size", "512"));
+		concretizeMaxDepth = Integer.parseInt(props.getProperty("concretize.max.depth", "64"));
+
 		fldsWhitelist = props.getProperty("whiteflds.file", null);
 		fldsBlacklist = props.getProperty("blackflds.file", null);
 		methsWhitelist = props.getProperty("whitemeths.file", null);
@@ -125,6 +144,10 @@ public final class Config {
 		log.debug("blackflds.file=" + fldsBlacklist);
 		log.debug("whitemeths.file=" + methsWhitelist);
 		log.debug("instrflds.all="+ instrAllFields);
+		log.debug("runtime.verbosity=" + runtimeVerbosity);
+		log.debug("array.concretize.size=" + arrayConcretizeSize);
+		log.debug("concretize.max.size=" + concretizeMaxSize);
+		log.debug("concretize.max.depth=" + concretizeMaxDepth);
 	}
 
 	public boolean isSDK() {
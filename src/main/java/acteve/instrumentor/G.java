@@ -215,9 +215,9 @@ public class G
 		readArray = symUtilClass.getMethod("void readArray(" + OBJECT_CLASS_NAME + ",int)").makeRef();
 		writeArray = symUtilClass.getMethod("void writeArray(" + OBJECT_CLASS_NAME + ",int)").makeRef();
 		only_write = symUtilClass.getMethod("void only_write(int)").makeRef();
-		getSolution_int = symUtilClass.getMethod("int getSolution_int("+OBJECT_CLASS_NAME+")").makeRef();
-		getSolution_long = symUtilClass.getMethod("long getSolution_long("+OBJECT_CLASS_NAME+")").makeRef();
-		getSolution_string = symUtilClass.getMethod("java.lang.String getSolution_string("+OBJECT_CLASS_NAME+")").makeRef();
+		getSolution_int = symUtilClass.getMethod("int getSolution_int(int,java.lang.String)").makeRef();
+		getSolution_long = symUtilClass.getMethod("long getSolution_long(int,java.lang.String)").makeRef();
+		getSolution_string = symUtilClass.getMethod("java.lang.String getSolution_string(int,java.lang.String)").makeRef();
 
 		symOpsClass = SymOpsClassGenerator.generate();
     }
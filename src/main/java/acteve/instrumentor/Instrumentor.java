@@ -121,6 +121,7 @@ public class Instrumentor extends AbstractStmtSwitch {
     private final MethodSubsigNumberer methSubsigNumberer;
     private final MethodSigNumberer methSigNumberer;
     private final FieldSigNumberer fieldSigNumberer;
+    private final SymVarNumberer symVarNumberer;
 	private final Filter fieldsWhitelist;
 	private final Filter fieldsBlacklist;
 	@SuppressWarnings("unused")
@@ -222,6 +223,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 		methSubsigNumberer = new MethodSubsigNumberer();
 		methSigNumberer = new MethodSigNumberer();
 		fieldSigNumberer = new FieldSigNumberer();
+		symVarNumberer = new SymVarNumberer();
 		
 		fieldsWhitelist = _fldsWLFile != null ? new Filter(_fldsWLFile) : null;
 		fieldsBlacklist = _fldsBLFile != null ? new Filter(_fldsBLFile) : null;
@@ -229,6 +231,16 @@ public class Instrumentor extends AbstractStmtSwitch {
 		instrAllFields = _instrAllFields;
 	}
 
+	// number of conditionals, including the SDK's
+	public int condCount() {
+		return condIdStrList.size();
+	}
+
+	// number of method signatures, including the SDK's
+	public int methodCount() {
+		return methSigNumberer.size();
+	}
+
 	public void instrument(Set<SootMethod> methods) {
 		for (SootMethod klass : methods) {
 			klass.getDeclaringClass().setApplicationClass();
@@ -599,7 +611,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 				// Force solution value to drive execution down the new path.
 				SootMethod modelInvoker = ModelMethodsHandler.getModelInvokerFor(callee);
 				if (modelInvoker != null) {
-					G.editor.insertStmtAfter(G.jimple.newAssignStmt(retValue, G.staticInvokeExpr(G.getSolution_long, StringConstant.v(toSymbolicVarName(callee)))));
+					G.editor.insertStmtAfter(G.jimple.newAssignStmt(retValue, solutionFor(G.getSolution_long, toSymbolicVarName(callee))));
 				}
 
 				G.editor.insertStmtAfter(G.jimple.newAssignStmt(symLocalfor(retValue),
@@ -612,6 +624,15 @@ public class Instrumentor extends AbstractStmtSwitch {
 		}
 	}
 
+	/**
+	 * Call to the runtime returning the solution's value for the symbolic
+	 * variable, which is passed by id and name.
+	 */
+	private InvokeExpr solutionFor(SootMethodRef getSolution, String varName) {
+		int id = symVarNumberer.getOrMakeId(varName);
+		return G.staticInvokeExpr(getSolution, IntConstant.v(id), StringConstant.v(varName));
+	}
+
 	/**
 	 * Converts Soot method name to symbolic variable representing its return value.
 	 * 
@@ -955,7 +976,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 		//Overwrite concrete value with solution
 		if (ModelMethodsHandler.modelExistsFor(fld)) { //Modelled?
 			if (fld.getType() instanceof PrimType || fld.getType().toString().equals("java.lang.String")) { //Supported type?
-				G.editor.insertStmtAfter(Jimple.v().newAssignStmt(leftOp, G.staticInvokeExpr(G.getSolution_string, StringConstant.v(toSymbolicVarName(fld)))));
+				G.editor.insertStmtAfter(Jimple.v().newAssignStmt(leftOp, solutionFor(G.getSolution_string, toSymbolicVarName(fld))));
 			} else {
 				log.error("Modelled field of non-supported type: " + fld.getName() + " : " + fld.getType());
 			}
@@ -1188,6 +1209,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 	private static final String METH_SUBSIGS_FILENAME = "methsubsigs.txt";
 	private static final String METH_SIGS_FILENAME = "methsigs.txt";
 	private static final String FIELD_SIGS_FILENAME = "fieldsigs.txt";
+	private static final String SYM_VARS_FILENAME = "symvars.txt";
 
 	private void loadFiles() {
 		if (sdkDir == null)
@@ -1195,6 +1217,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 		methSubsigNumberer.load(sdkDir + "/" + METH_SUBSIGS_FILENAME);
 		methSigNumberer.load(sdkDir + "/" + METH_SIGS_FILENAME);
 		fieldSigNumberer.load(sdkDir + "/" + FIELD_SIGS_FILENAME);
+		symVarNumberer.load(sdkDir + "/" + SYM_VARS_FILENAME);
 		try {
 			BufferedReader in = new BufferedReader(new FileReader(sdkDir + "/" + CONDMAP_FILENAME));
 			String s;
@@ -1211,6 +1234,7 @@ public class Instrumentor extends AbstractStmtSwitch {
 		methSubsigNumberer.save(outDir + "/" + METH_SUBSIGS_FILENAME);
 		methSigNumberer.save(outDir + "/" + METH_SIGS_FILENAME);
 		fieldSigNumberer.save(outDir + "/" + FIELD_SIGS_FILENAME);
+		symVarNumberer.save(outDir + "/" + SYM_VARS_FILENAME);
         try {
             PrintWriter out;
 
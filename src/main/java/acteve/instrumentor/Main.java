@@ -57,6 +57,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import soot.Body;
 import soot.JimpleClassSource;
 import soot.MethodOrMethodContext;
 import soot.Modifier;
@@ -67,6 +68,9 @@ import soot.SootClass;
 import soot.SootMethod;
 import soot.SourceLocator;
 import soot.Transform;
+import soot.Unit;
+import soot.jimple.IntConstant;
+import soot.jimple.ReturnStmt;
 import soot.jimple.infoflow.android.SetupApplication;
 import soot.jimple.infoflow.android.data.AndroidMethod;
 import soot.jimple.toolkits.callgraph.CallGraph;
@@ -81,6 +85,10 @@ public class Main extends SceneTransformer {
 	private static Set<SootMethod> methodsToInstrument = new HashSet<SootMethod>();
 	private static Map<String, List<String>> uninstrumentedClasses = new HashMap<String, List<String>>();
 	private static final String dummyMainClassName = "acteve.symbolic.DummyMain";
+	private static final String verbosityClassName = "acteve.symbolic.Verbosity";
+	private static final String coverageClassName = "acteve.symbolic.Coverage";
+	private static final String arrayClassName = "acteve.symbolic.array.Array";
+	private static final String concretizerClassName = "acteve.symbolic.integer.Concretizer";
 	static boolean DEBUG = false;
 	public final static boolean DUMP_JIMPLE = false; //default: false. Set to true to create Jimple code instead of APK
 	public final static boolean VALIDATE = false; //Set to true to apply some consistency checks. Set to false to get past validation exceptions and see the generated code. Note: these checks are more strict than the Dex verifier and may fail at some obfuscated, though valid classes
@@ -118,6 +126,8 @@ public class Main extends SceneTransformer {
 										   config.methsWhitelist, 
 										   config.instrAllFields);
 		ci.instrument(methodsToInstrument);
+		bakeInt(coverageClassName, "branchCount", ci.condCount());
+		bakeInt(coverageClassName, "methodCount", ci.methodCount());
 		ModelMethodsHandler.addInvokerBodies();
 		Scene.v().getApplicationClasses().remove(Scene.v().getSootClass(dummyMainClassName));
 		//Remove dummyMainClass as it is not needed at runtime and results in VRFY errors in Android >5.0
@@ -244,6 +254,10 @@ public class Main extends SceneTransformer {
 			SootClass clazz = Scene.v().forceResolve(s, SootClass.BODIES);
 			clazz.setApplicationClass();
 		}
+		bakeInt(verbosityClassName, "baked", config.runtimeVerbosity);
+		bakeInt(arrayClassName, "concretizeSize", config.arrayConcretizeSize);
+		bakeInt(concretizerClassName, "maxSize", config.concretizeMaxSize);
+		bakeInt(concretizerClassName, "maxDepth", config.concretizeMaxDepth);
 
 		//Get the lifecycle method to instrument
 		ih = new InstrumentationHelper(new File(apk));
@@ -407,6 +421,20 @@ public class Main extends SceneTransformer {
 		}
 	}
 	
+	/**
+	 * Makes the int method of the injected runtime class return value
+	 * instead of its default (verbosity level, coverage map sizes).
+	 */
+	private static void bakeInt(String className, String methodName, int value) {
+		SootClass klass = Scene.v().getSootClass(className);
+		Body body = klass.getMethodByName(methodName).retrieveActiveBody();
+		for (Unit u : body.getUnits()) {
+			if (u instanceof ReturnStmt)
+				((ReturnStmt) u).setOp(IntConstant.v(value));
+		}
+		log.debug("Baked into {}.{}: {}", className, methodName, value);
+	}
+
 	private static void printUsage() {
 		System.out.println("Usage: instrumenter <apk>");
 		System.out.println("  apk:    APK file to prepare");
@@ -51,6 +51,10 @@ public class SigNumberer {
 		return id;
 	}
 
+	public int size() {
+		return sigToId.size();
+	}
+
 	public void save(String fileName) {
 		String[] a = new String[sigToId.size()];
 		for (Map.Entry<String, Integer> e : sigToId.entrySet()) {
@@ -71,6 +71,7 @@ public class SymOpsClassGenerator
     private static final String IntCMP      = "integer.IntegerExpression";
 	private static final String Array       = "array.Array";
 	private static final String Strings     = "string.String";
+	private static final String Concretizer = "integer.Concretizer";
 
     static SootClass generate()
     {
@@ -237,6 +238,15 @@ public class SymOpsClassGenerator
 		G.addBody(method);
 
         List<Local> paramLocals = G.paramLocals(method);
+
+		//operands over the size/depth limits are replaced by their concrete values
+		for (int i = 0; i < numOperands; i++) {
+			Local operandConcrete = paramLocals.get(i+numOperands);
+			SootMethodRef bound = boundMethodFor(operandConcrete.getType());
+			if (bound != null)
+				G.assign(paramLocals.get(i), G.staticInvokeExpr(bound, paramLocals.get(i), operandConcrete));
+		}
+
 		Local op1 = paramLocals.get(0);
 		Local result = G.newLocal(G.EXPRESSION_TYPE);
 		Local op1Cast = G.newLocal(operatorClass.getType());
@@ -276,6 +286,9 @@ public class SymOpsClassGenerator
 			G.insertStmt(nop);
 			args.add(operand);
 		}
+		//a concretized array pins a symbolic index to its concrete value
+		if (opMethodName.equals(G.arrayGetMethodName))
+			args.add(paramLocals.get(1+numOperands));
 
 		SootMethodRef opMethod = operatorClass.getMethodByName(opMethodName).makeRef();
 		InstanceInvokeExpr ie = operatorClass.isInterface() ?
@@ -288,6 +301,15 @@ public class SymOpsClassGenerator
 		G.debug(method, Main.DEBUG);
     }
 	
+    private static SootMethodRef boundMethodFor(Type type)
+    {
+		if (!(type.equals(IntType.v()) || type.equals(LongType.v()) || 
+			  type.equals(FloatType.v()) || type.equals(DoubleType.v())))
+			return null;
+		return Scene.v().getMethod("<"+PACKAGE_NAME+Concretizer+": "+G.EXPRESSION_CLASS_NAME+" bound("+
+								   G.EXPRESSION_CLASS_NAME+","+type+")>").makeRef();
+    }
+
     private static SootClass exprConstClassFor(Type type)
     {
 		String name = null;
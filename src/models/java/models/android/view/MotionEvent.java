@@ -37,6 +37,7 @@ import acteve.symbolic.integer.Expression;
 import acteve.symbolic.integer.SymbolicFloat;
 import android.util.Slog;
 import acteve.symbolic.Util;
+import acteve.symbolic.Verbosity;
 
 public class MotionEvent
 {
@@ -48,43 +49,58 @@ public class MotionEvent
 											  "mLastDataSampleIndex", "mLastEventTimeNanoSampleIndex",
 											  "mPointerIdentifiers", "mNumSamples"};
 
+	/*
+	  Field handles of android.view.MotionEvent (a final class), looked
+	  up once instead of on every injected event.
+	 */
+	private static class Fields
+	{
+		static final Field dataSamples;
+		static final Field dataSamplesSym;
+		static final Field[] syms = new Field[fldNames.length];
+
+		static {
+			try {
+				Class cls = android.view.MotionEvent.class;
+				dataSamples = accessible(cls.getDeclaredField("mDataSamples"));
+				dataSamplesSym = accessible(cls.getDeclaredField("mDataSamples$sym"));
+				for (int i = 0; i < fldNames.length; i++)
+					syms[i] = accessible(cls.getDeclaredField(fldNames[i]+"$sym"));
+			} catch (NoSuchFieldException e) {
+				throw new Error(e);
+			}
+		}
+
+		private static Field accessible(Field fld)
+		{
+			fld.setAccessible(true);
+			return fld;
+		}
+	}
+
 	public static Expression Landroid_view_MotionEvent_2(java.lang.Object seed, java.lang.String name)
     {
         int id = count++;
         if (id % 2 == 0) {
             //XXX: tap specific trick. each tap calls this method twice (UP and DOWN)
 			Util.newEvent();
-           	Util.e("A3T_ITER", String.valueOf(id));
+           	Util.iter(id);
         }
-		Slog.e("A3T_DEBUG", "symbolic motion event injected " + id);
+		if (Verbosity.DEBUG_ON)
+			Slog.e("A3T_DEBUG", "symbolic motion event injected " + id);
 		android.view.MotionEvent event = (android.view.MotionEvent) seed;
-		Class cls = event.getClass();
 
 		try {
-			String fldName = "mDataSamples";
-			Field conFld = cls.getDeclaredField(fldName);			
-			conFld.setAccessible(true);
-			float[] conVal = (float[]) conFld.get(event);
+			float[] conVal = (float[]) Fields.dataSamples.get(event);
 			Expression symVal = (conVal == null) ? null : new SymbolicFloatArray(name+"$"+id, new int[]{0, 1});
-			setSymField(event, cls, fldName, symVal);
+			Fields.dataSamplesSym.set(event, symVal);
 
-			for(String fName : fldNames)
-				setSymField(event, cls, fName, null);
+			for (Field symFld : Fields.syms)
+				symFld.set(event, null);
 			
 			return null;
-		 } catch (NoSuchFieldException e) {
-			 throw new Error(e);
 		 } catch (IllegalAccessException e) {
 			 throw new Error(e);
 		 }
 	 }
-
-	
-	private static void setSymField(android.view.MotionEvent event, Class cls, String fldName, Expression symVal) 
-		throws NoSuchFieldException, IllegalAccessException
-	{
-		Field symFld = cls.getDeclaredField(fldName+"$sym");
-		symFld.setAccessible(true);
-		symFld.set(event, symVal);
-	}
 }
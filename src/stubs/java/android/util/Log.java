@@ -37,4 +37,9 @@ public class Log
 	{
 		return 0;
 	}
+
+	public static int i(String tag, String msg)
+	{
+		return 0;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the trace in the compact binary format read by 
+ * acteve.explorer.BinaryTrace, instead of the text lines of mylog.txt.
+ *
+ * Every thread that records has its own BinaryLog (see Mylog), so
+ * encoding takes no lock shared between threads. The file starts with
+ * the magic "A3TB" and a version byte, followed by frames, each 
+ * holding whole records of one thread:
+ *
+ *   thread len record-bytes
+ *
+ * A record is a tag byte, the delta of its sequence number to the 
+ * previous record of the same thread and its fields, all unsigned 
+ * LEB128 varints. Sequence numbers are drawn from one process-wide 
+ * counter, so the reader merges the threads' records back into the 
+ * order in which they were made. Strings (pc constraints, tags of 
+ * text records) are interned per frame: the first use of a string 
+ * in a frame emits a STRING record, which has no sequence number and
+ * assigns the string the frame's next id; records refer to it by id 
+ * afterwards. The table starts empty with every frame, so it never 
+ * holds more than one chunk's worth of strings.
+ *
+ *   STRING  len utf8-bytes       (id is implicit: 0, 1, 2, ... per frame)
+ *   BRANCH  seq (branchId << 1) | taken
+ *   PC      seq string-id
+ *   ITER    seq eventId
+ *   READ    seq fieldId
+ *   WRITE   seq fieldId
+ *   RW      seq eventId fieldId
+ *   WW      seq eventId fieldId
+ *   AREAD   seq objectId index
+ *   AWRITE  seq objectId index
+ *   TEXT    seq tag-string-id len utf8-bytes
+ *   LINE    seq len utf8-bytes
+ *
+ * Records are encoded into a chunk in memory; a chunk that has filled
+ * up is handed as one frame to the LogRing of Mylog, whose flusher 
+ * thread writes it to the file. close() hands over the last, partial
+ * chunk.
+ */
+class BinaryLog
+{
+	static final int VERSION = 3;
+	private static final byte[] MAGIC = {'A', '3', 'T', 'B'};
+
+	static final int STRING = 0;
+	static final int BRANCH = 1;
+	static final int PC = 2;
+	static final int ITER = 3;
+	static final int READ = 4;
+	static final int WRITE = 5;
+	static final int RW = 6;
+	static final int WW = 7;
+	static final int AREAD = 8;
+	static final int AWRITE = 9;
+	static final int TEXT = 10;
+	static final int LINE = 11;
+
+	private static final int CHUNK_SIZE = 16*1024;
+
+	private static final AtomicLong seq = new AtomicLong();
+
+	private final LogRing ring;
+	private final int thread;
+	private byte[] chunk = new byte[CHUNK_SIZE];
+	private int pos;
+	private long lastSeq;
+	private final HashMap<String,Integer> strings = new HashMap<String,Integer>();
+
+	BinaryLog(LogRing ring, int thread)
+	{
+		this.ring = ring;
+		this.thread = thread;
+	}
+
+	static byte[] header()
+	{
+		byte[] h = Arrays.copyOf(MAGIC, MAGIC.length + 1);
+		h[MAGIC.length] = VERSION;
+		return h;
+	}
+
+	synchronized void branch(int branchId, boolean taken)
+	{
+		tag(BRANCH);
+		varint((branchId << 1) | (taken ? 1 : 0));
+		end();
+	}
+
+	synchronized void pc(String constraint)
+	{
+		int id = intern(constraint);
+		tag(PC);
+		varint(id);
+		end();
+	}
+
+	synchronized void record(int tag, int value)
+	{
+		tag(tag);
+		varint(value);
+		end();
+	}
+
+	synchronized void record(int tag, int value1, int value2)
+	{
+		tag(tag);
+		varint(value1);
+		varint(value2);
+		end();
+	}
+
+	synchronized void text(String tag, String msg)
+	{
+		int id = intern(tag);
+		tag(TEXT);
+		varint(id);
+		string(msg);
+		end();
+	}
+
+	synchronized void line(String line)
+	{
+		tag(LINE);
+		string(line);
+		end();
+	}
+
+	/*
+	  Only contended at exit, when the shutdown hook closes the logs
+	  of all threads.
+	 */
+	synchronized void close()
+	{
+		if(pos > 0)
+			ship();
+	}
+
+	private int intern(String s)
+	{
+		Integer id = strings.get(s);
+		if(id == null){
+			id = strings.size();
+			strings.put(s, id);
+			put(STRING);
+			string(s);
+		}
+		return id;
+	}
+
+	private void tag(int tag)
+	{
+		put(tag);
+		long s = seq.getAndIncrement();
+		varlong(s - lastSeq);
+		lastSeq = s;
+	}
+
+	//records are not split across frames
+	private void end()
+	{
+		if(pos >= CHUNK_SIZE)
+			ship();
+	}
+
+	private void ship()
+	{
+		byte[] frame = new byte[pos + 10];
+		int n = varint(frame, 0, thread);
+		n = varint(frame, n, pos);
+		System.arraycopy(chunk, 0, frame, n, pos);
+		ring.add(n + pos == frame.length ? frame : Arrays.copyOf(frame, n + pos));
+		if(chunk.length > CHUNK_SIZE)
+			chunk = new byte[CHUNK_SIZE];
+		pos = 0;
+		strings.clear();
+	}
+
+	private void varint(int v)
+	{
+		while((v & ~0x7F) != 0){
+			put((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		put(v);
+	}
+
+	private void varlong(long v)
+	{
+		while((v & ~0x7FL) != 0){
+			put((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		put((int) v);
+	}
+
+	private static int varint(byte[] b, int i, int v)
+	{
+		while((v & ~0x7F) != 0){
+			b[i++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		b[i++] = (byte) v;
+		return i;
+	}
+
+	private void string(String s)
+	{
+		byte[] bytes;
+		try{
+			bytes = s.getBytes("UTF-8");
+		}catch(UnsupportedEncodingException e){
+			throw new Error(e);
+		}
+		varint(bytes.length);
+		for(byte b : bytes)
+			put(b);
+	}
+
+	private void put(int b)
+	{
+		//a record longer than a chunk grows it
+		if(pos == chunk.length)
+			chunk = Arrays.copyOf(chunk, 2*chunk.length);
+		chunk[pos++] = (byte) b;
+	}
+}
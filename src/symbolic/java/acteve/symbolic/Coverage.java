@@ -0,0 +1,161 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Coverage bitmap of the run, memory-mapped to /sdcard/a3t_cov.bin so
+ * that the explorer can pull it without parsing the trace.
+ *
+ * Layout (big-endian header, then bits):
+ * <pre>
+ *   int magic "A3TC", int version, int branch slots, int method slots
+ *   2 bits per branch slot: (id &lt;&lt; 1 | taken)
+ *   1 bit per method slot: method sig id
+ * </pre>
+ * Slot counts are powers of two at least as large as the number of
+ * conditionals and method signatures, which the instrumentor bakes
+ * into {@link #branchCount()} and {@link #methodCount()}. Ids are
+ * masked, so a wrong count only causes collisions.
+ *
+ * Only enabled if /sdcard/a3t_coverage exists, and only records while
+ * the app is monitored (Util.readConfTxt()).
+ */
+public final class Coverage
+{
+	private static final String FILE = "/sdcard/a3t_cov.bin";
+	private static final String ENABLE_FILE = "/sdcard/a3t_coverage";
+	static final int MAGIC = 0x41335443;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	//used when the instrumentor did not bake a count
+	private static final int DEFAULT_SLOTS = 1 << 16;
+
+	private static final int BRANCH_SLOTS = slots(branchCount());
+	private static final int METHOD_SLOTS = slots(methodCount());
+	private static final int METHODS_START = HEADER_SIZE + BRANCH_SLOTS / 4;
+
+	//null if disabled
+	private static final MappedByteBuffer map = open();
+
+	private Coverage()
+	{
+	}
+
+	public static void branch(int branchId, boolean taken)
+	{
+		if(map == null)
+			return;
+		int bit = ((branchId & (BRANCH_SLOTS - 1)) << 1) | (taken ? 1 : 0);
+		set(HEADER_SIZE + (bit >>> 3), 1 << (bit & 7));
+	}
+
+	public static void method(int sigId)
+	{
+		if(map == null)
+			return;
+		int bit = sigId & (METHOD_SLOTS - 1);
+		set(METHODS_START + (bit >>> 3), 1 << (bit & 7));
+	}
+
+	/*
+	  Pushes the bitmap to the file; called on shutdown, before the
+	  explorer is told to pull.
+	 */
+	static void close()
+	{
+		if(map != null)
+			map.force();
+	}
+
+	private static void set(int pos, int mask)
+	{
+		//after the first hit a bit costs one read
+		if((map.get(pos) & mask) == 0)
+			setSlow(pos, mask);
+	}
+
+	private static synchronized void setSlow(int pos, int mask)
+	{
+		map.put(pos, (byte) (map.get(pos) | mask));
+	}
+
+	private static MappedByteBuffer open()
+	{
+		if(!new File(ENABLE_FILE).exists())
+			return null;
+		try{
+			int size = METHODS_START + METHOD_SLOTS / 8;
+			RandomAccessFile file = new RandomAccessFile(FILE, "rw");
+			//the explorer removes the file before each run; never shrink
+			//it, another process may have it mapped
+			if(file.length() < size)
+				file.setLength(size);
+			MappedByteBuffer m = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+			file.close();
+			m.putInt(0, MAGIC);
+			m.putInt(4, VERSION);
+			m.putInt(8, BRANCH_SLOTS);
+			m.putInt(12, METHOD_SLOTS);
+			return m;
+		}catch(IOException e){
+			throw new Error(e);
+		}
+	}
+
+	private static int slots(int count)
+	{
+		if(count <= 0)
+			return DEFAULT_SLOTS;
+		int n = 8;
+		while(n < count)
+			n <<= 1;
+		return n;
+	}
+
+	//number of conditionals; rewritten by the instrumentor
+	private static int branchCount()
+	{
+		return 0;
+	}
+
+	//number of method signatures; rewritten by the instrumentor
+	private static int methodCount()
+	{
+		return 0;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands log records from the app threads to a background flusher 
+ * thread, so that instrumented code never waits on storage or socket 
+ * I/O. Any number of threads may add(); a slot is claimed with one 
+ * atomic increment and published by storing the record into it. The
+ * flusher consumes slots in order and writes them with write(); it
+ * calls flush() whenever it runs out of records.
+ *
+ * A producer only waits (yielding) if the ring is full.
+ */
+abstract class LogRing implements Runnable
+{
+	//how long the flusher sleeps when there is nothing to write
+	private static final long IDLE_NANOS = 1000*1000;
+
+	private final AtomicReferenceArray<Object> slots;
+	private final int mask;
+	//next sequence number to claim
+	private final AtomicLong tail = new AtomicLong();
+	//next sequence number to consume, only written by the flusher
+	private volatile long head;
+	private volatile boolean closed;
+	private Throwable error;
+	private final Thread flusher;
+
+	LogRing(int capacity)
+	{
+		if(Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+		this.slots = new AtomicReferenceArray<Object>(capacity);
+		this.mask = capacity - 1;
+		this.flusher = new Thread(this, "a3t-log");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	protected abstract void write(Object record) throws IOException;
+
+	protected abstract void flush() throws IOException;
+
+	void add(Object record)
+	{
+		if(closed)
+			return;
+		long seq = tail.getAndIncrement();
+		while(seq - head >= slots.length())
+			Thread.yield();
+		slots.lazySet((int) seq & mask, record);
+	}
+
+	public void run()
+	{
+		long h = head;
+		boolean dirty = false;
+		while(true){
+			int i = (int) h & mask;
+			Object record = slots.get(i);
+			if(record == null){
+				//nothing published at h yet
+				if(dirty){
+					try{
+						flush();
+					}catch(Throwable e){
+						fail(e);
+					}
+					dirty = false;
+				}
+				if(closed && h >= tail.get())
+					return;
+				LockSupport.parkNanos(IDLE_NANOS);
+				continue;
+			}
+			slots.lazySet(i, null);
+			head = ++h;
+			try{
+				write(record);
+			}catch(Throwable e){
+				//keep consuming, or producers would wait forever
+				fail(e);
+			}
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Writes out every record added so far, stops the flusher and 
+	 * drops later records. Throws the first write error, if any.
+	 */
+	void close()
+	{
+		closed = true;
+		LockSupport.unpark(flusher);
+		try{
+			flusher.join();
+		}catch(InterruptedException e){
+			throw new Error(e);
+		}
+		synchronized(this){
+			if(error != null)
+				throw new Error(error);
+		}
+	}
+
+	private synchronized void fail(Throwable e)
+	{
+		if(error == null)
+			error = e;
+	}
+}
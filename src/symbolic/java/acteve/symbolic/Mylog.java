@@ -33,11 +33,20 @@ package acteve.symbolic;
 
 import java.io.File;
 import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Looper;
+
+import acteve.symbolic.integer.Concretizer;
 
 public class Mylog
 {
@@ -45,11 +54,120 @@ public class Mylog
 	private static final String LOG_DIR_PREFIX = "/data/data/";
 	private static final String PKG_FILE = "/sdcard/pkg.txt";
 	private static final String KILLED_FILE = "/a3t_killed_proc";
+	private static final String MYLOG_BIN = "/mylog.bin";
+	private static final String BINARY_FLAG = "/sdcard/a3t_binary";
+	private static final int RING_SIZE = 8192;
 	
+	//only used by the flusher thread of the ring
 	private static PrintWriter writer;
+	private static OutputStream binaryOut;
+
+	//created by the first record
+	private static volatile boolean ringStarted;
+
+	//true if the explorer asked for the binary trace format
+	private static final boolean binary = new File(BINARY_FLAG).exists();
+
+	/*
+	  Per-thread part of the log. Records of threads other than the 
+	  main thread are tagged with the thread's number: text records as
+	  E/TAG@n, binary ones by the frames of the thread's own encoder.
+	  The explorer merges them back into one trace.
+	 */
+	private static final class ThreadLog
+	{
+		final Thread owner;
+		final String suffix;
+		//null unless the binary format is used
+		final BinaryLog binary;
+
+		ThreadLog(Thread owner, int thread)
+		{
+			this.owner = owner;
+			this.suffix = thread == 0 ? "" : "@" + thread;
+			if(Mylog.binary){
+				this.binary = new BinaryLog(Ring.ring, thread);
+				binaries.add(this.binary);
+			} else
+				this.binary = null;
+		}
+	}
+
+	//numbers of the threads other than the main thread, which is 0
+	private static final AtomicInteger threads = new AtomicInteger();
+	//encoders of all threads, closed at exit
+	private static final Queue<BinaryLog> binaries = new ConcurrentLinkedQueue<BinaryLog>();
+
+	private static final ThreadLocal<ThreadLog> logs = new ThreadLocal<ThreadLog>() {
+		protected ThreadLog initialValue() {
+			Thread t = Thread.currentThread();
+			Looper main = Looper.getMainLooper();
+			boolean isMain = main != null && main.getThread() == t;
+			return new ThreadLog(t, isMain ? 0 : threads.incrementAndGet());
+		}
+	};
+
+	//log of the thread that recorded last; saves the ThreadLocal lookup
+	//while a single thread is running
+	private static ThreadLog lastLog;
+
+	private static ThreadLog log()
+	{
+		ThreadLog l = lastLog;
+		if(l == null || l.owner != Thread.currentThread()){
+			l = logs.get();
+			lastLog = l;
+		}
+		return l;
+	}
+
+	/*
+	  Lines (String) and chunks of the binary trace (byte[]) are 
+	  written to storage and to the trace stream by the flusher thread 
+	  of this ring, off the instrumented threads.
+	*/
+	private static class Ring
+	{
+		static final LogRing ring = new LogRing(RING_SIZE) {
+				protected void write(Object record) throws IOException
+				{
+					if(record instanceof String){
+						String line = (String) record;
+						if(!binary){
+							//the explorer pulls the trace file; logcat only
+							//gets a copy when debugging
+							if(Verbosity.DEBUG_ON)
+								System.out.println(line);
+							writer().println(line);
+						}
+						TraceStream.println(line);
+					} else {
+						if(binaryOut == null){
+							binaryOut = new FileOutputStream("/sdcard"+MYLOG_BIN);
+							binaryOut.write(BinaryLog.header());
+						}
+						binaryOut.write((byte[]) record);
+					}
+				}
+
+				protected void flush() throws IOException
+				{
+					if(writer != null)
+						writer.flush();
+					if(binaryOut != null)
+						binaryOut.flush();
+				}
+			};
+
+		static {
+			ringStarted = true;
+		}
+	}
 
 	static {
 		new ShutDownHook().start();
+		Signals.watchMainLooper();
+		TraceStream.start();
 	}
 
 	private static PrintWriter writer()
@@ -67,19 +185,104 @@ public class Mylog
 
 	public static void e(String tag, String msg)
 	{
-		System.out.println(tag + " " + msg);
-		if (tag.contains("BRANCH")) {
-			System.out.println("I am branching!!!!");
-		}
-		writer().println("E/"+tag+" : "+msg);
-		writer().flush();
+		ThreadLog l = log();
+		if(!binary || TraceStream.enabled())
+			text(l, tag, msg);
+		if(binary)
+			l.binary.text(tag, msg);
 	}
 	
 	public static void println(String msg)
 	{
-		System.out.println(msg);
-		writer().println(msg);
-		writer().flush();
+		if(!binary || TraceStream.enabled())
+			Ring.ring.add(msg);
+		if(binary)
+			log().binary.line(msg);
+	}
+
+	public static void branch(int branchId, boolean taken)
+	{
+		ThreadLog l = log();
+		if(!binary || TraceStream.enabled())
+			text(l, "A3T_BRANCH", (taken ? "T" : "F") + branchId);
+		if(binary)
+			l.binary.branch(branchId, taken);
+	}
+
+	/*
+	  det constraints (array encodings) are marked with a leading '*';
+	  the marker is added while the record is built, not to the
+	  rendered constraint
+	 */
+	public static void pc(String constraint, boolean det)
+	{
+		ThreadLog l = log();
+		if(!binary || TraceStream.enabled())
+			Ring.ring.add("E/A3T_PC" + l.suffix + (det ? " : *" : " : ") + constraint);
+		if(binary)
+			l.binary.pc(det ? "*" + constraint : constraint);
+	}
+
+	public static void iter(int eventId)
+	{
+		record("A3T_ITER", BinaryLog.ITER, eventId);
+	}
+
+	public static void read(int fldId)
+	{
+		record("A3T_READ", BinaryLog.READ, fldId);
+	}
+
+	public static void write(int fldId)
+	{
+		record("A3T_WRITE", BinaryLog.WRITE, fldId);
+	}
+
+	public static void rw(int evId, int fldId)
+	{
+		record("A3T_RW", BinaryLog.RW, evId, fldId);
+	}
+
+	public static void ww(int evId, int fldId)
+	{
+		record("A3T_WW", BinaryLog.WW, evId, fldId);
+	}
+
+	public static void aread(int objId, int index)
+	{
+		record("A3T_AREAD", BinaryLog.AREAD, objId, index);
+	}
+
+	public static void awrite(int objId, int index)
+	{
+		record("A3T_AWRITE", BinaryLog.AWRITE, objId, index);
+	}
+
+	private static void record(String tag, int binaryTag, int value)
+	{
+		ThreadLog l = log();
+		if(!binary || TraceStream.enabled())
+			text(l, tag, String.valueOf(value));
+		if(binary)
+			l.binary.record(binaryTag, value);
+	}
+
+	private static void record(String tag, int binaryTag, int value1, int value2)
+	{
+		ThreadLog l = log();
+		if(!binary || TraceStream.enabled())
+			text(l, tag, value1 + " " + value2);
+		if(binary)
+			l.binary.record(binaryTag, value1, value2);
+	}
+
+	/*
+	  Queues the text form of a record for mylog.txt, unless the binary
+	  format is used, and for the trace stream.
+	*/
+	private static void text(ThreadLog l, String tag, String msg)
+	{
+		Ring.ring.add("E/"+tag+l.suffix+" : "+msg);
 	}
 
 	private static class ShutDownHook extends Thread
@@ -98,7 +301,14 @@ public class Mylog
 					break;
 				}
 			}
-			e("A3T_METHS", Util.reachedMethsStr());
+			Concretizer.report();
+			for(BinaryLog b : binaries)
+				b.close();
+			//drain the ring before the kill file tells the explorer to pull
+			if(ringStarted)
+				Ring.ring.close();
+			TraceStream.finish();
+			Coverage.close();
 			android.util.Slog.e("Mylog", "Shutting down");
 			
 			if(writer != null) {
@@ -107,6 +317,13 @@ public class Mylog
 				writer.flush();
 				writer.close();
 			}
+			if(binaryOut != null) {
+				try{
+					binaryOut.close();
+				}catch(IOException e){
+					throw new Error("error in writing to mylog.bin", e);
+				}
+			}
 
 			try{				
 				String pkg = new BufferedReader(new FileReader(PKG_FILE)).readLine();
@@ -117,6 +334,7 @@ public class Mylog
 				writer.flush();
 				writer.close();
 				android.util.Slog.e("Mylog","kill file exists" + killedfile.exists());
+				Signals.signal("exited");
 			}catch(IOException e){
 				throw new Error(e);
 			}
@@ -0,0 +1,73 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+/**
+ * Readiness signals for the explorer, written to logcat under the tag
+ * A3T_SIGNAL so that they reach the host as soon as they happen.
+ */
+public class Signals
+{
+	private static final String TAG = "A3T_SIGNAL";
+
+	public static void signal(String what)
+	{
+		android.util.Log.i(TAG, what);
+	}
+
+	/**
+	 * Signals "idle" the first time the main looper runs out of
+	 * messages, i.e., once the launched activity has settled.
+	 */
+	static void watchMainLooper()
+	{
+		try{
+			new Handler(Looper.getMainLooper()).post(new Runnable() {
+					public void run() {
+						Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+								public boolean queueIdle() {
+									signal("idle");
+									return false;
+								}
+							});
+					}
+				});
+		}catch(RuntimeException e){
+			//no main looper; the explorer falls back to its timeout
+			System.out.println("cannot watch main looper: " + e);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Values the explorer's solution forces on symbolic inputs (return
+ * values of modelled methods, modelled fields).
+ *
+ * /sdcard/solution.txt is read once, when the class is initialized; the
+ * explorer kills the app and pushes the next solution before each run,
+ * so a process never sees a second one. Each variable has an id
+ * assigned by the instrumentor; its value is looked up by name and
+ * parsed the first time the id is asked for, after which lookups are an
+ * array access.
+ *
+ * The solution file looks like this:
+ * <pre>
+ * ************************
+ * >> SAT
+ * ------------------------
+ * $Xsym_android_os_Build__java_lang_String_BOARD : string -> "q"
+ * $I$0 : int -> -18
+ * $L$sym_java_lang_System_currentTimeMillis__J : int -> -18
+ * ************************
+ * </pre>
+ */
+public final class Solution
+{
+	private static final String SOLUTION_FILE = "/sdcard/solution.txt";
+	private static final Pattern LINE = Pattern.compile("([^\\s]*?)\\s+:\\s+(.*?)->\\s+(.*)");
+
+	private static final int DEFAULT_INT = 123;
+	private static final String DEFAULT_STRING = "";
+
+	//state of an id
+	private static final byte UNBOUND = 0;
+	private static final byte NUM = 1;
+	private static final byte STR = 2;
+
+	/*
+	  Immutable; binding an id publishes a new table, so lookups need
+	  no locking. Each id is bound once, so the copies are few.
+	 */
+	private static final class Table
+	{
+		final HashMap<String,String> values;
+		final byte[] state;
+		final long[] nums;
+		final String[] strs;
+
+		Table(HashMap<String,String> values, byte[] state, long[] nums, String[] strs)
+		{
+			this.values = values;
+			this.state = state;
+			this.nums = nums;
+			this.strs = strs;
+		}
+	}
+
+	private static volatile Table table = new Table(read(), new byte[0], new long[0], new String[0]);
+
+	private Solution()
+	{
+	}
+
+	public static int getInt(int id, String name)
+	{
+		Table t = table;
+		if(id < t.state.length && t.state[id] == NUM)
+			return (int) t.nums[id];
+		return (int) bind(id, name, NUM);
+	}
+
+	public static long getLong(int id, String name)
+	{
+		Table t = table;
+		if(id < t.state.length && t.state[id] == NUM)
+			return t.nums[id];
+		return bind(id, name, NUM);
+	}
+
+	public static String getString(int id, String name)
+	{
+		Table t = table;
+		if(id < t.state.length && t.state[id] == STR)
+			return t.strs[id];
+		bind(id, name, STR);
+		return table.strs[id];
+	}
+
+	/*
+	  Resolves id from the parsed file and publishes it; returns the
+	  numeric value, or 0 for strings.
+	 */
+	private static synchronized long bind(int id, String name, byte kind)
+	{
+		Table t = table;
+		int len = Math.max(t.state.length, id + 1);
+		byte[] state = Arrays.copyOf(t.state, len);
+		long[] nums = Arrays.copyOf(t.nums, len);
+		String[] strs = Arrays.copyOf(t.strs, len);
+
+		if(t.values.containsKey(name)){
+			String value = t.values.get(name);
+			if(kind == NUM){
+				nums[id] = Long.parseLong(value);
+				state[id] = NUM;
+			} else {
+				strs[id] = value;
+				state[id] = STR;
+			}
+			if(Verbosity.DEBUG_ON)
+				System.out.println(name + " -> " + value);
+		} else {
+			if(Verbosity.INFO_ON)
+				System.err.println("Solution for " + name + " required but not available (" + t.values.size() + " values in solution)");
+			//keep answering the default without coming back here
+			nums[id] = DEFAULT_INT;
+			strs[id] = DEFAULT_STRING;
+			state[id] = kind;
+		}
+		table = new Table(t.values, state, nums, strs);
+		return nums[id];
+	}
+
+	private static HashMap<String,String> read()
+	{
+		HashMap<String,String> values = new HashMap<String,String>();
+		File solutionFile = new File(SOLUTION_FILE);
+		if(!solutionFile.canRead()){
+			//first iteration: no solution pushed yet
+			if(Verbosity.INFO_ON)
+				System.err.println("Cannot read from solution file " + solutionFile.getAbsolutePath());
+			return values;
+		}
+		try{
+			BufferedReader br = new BufferedReader(new FileReader(solutionFile));
+			String line;
+			while((line = br.readLine()) != null){
+				if(Verbosity.DEBUG_ON)
+					System.out.println("SOLUTION: " + line);
+				if(line.startsWith("*") || line.startsWith("-"))
+					continue;
+				else if(line.startsWith(">>")){
+					if(!line.equals(">> SAT")){
+						System.err.println("Not SAT: (" + solutionFile.getName() + ")" + line);
+						values.clear();
+						break;
+					}
+				} else if(line.contains("->")){
+					Matcher mat = LINE.matcher(line);
+					if(!mat.matches()){
+						br.close();
+						throw new Error("Unexpected line format: " + line);
+					}
+					//TODO handle array and float types
+					String value = mat.group(3);
+					if("\"null@0\"".equals(value))
+						value = null;
+					values.put(mat.group(1), value);
+				}
+			}
+			br.close();
+		}catch(IOException e){
+			throw new Error(e);
+		}
+		return values;
+	}
+}
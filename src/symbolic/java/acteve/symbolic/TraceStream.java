@@ -0,0 +1,157 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import android.net.LocalServerSocket;
+import android.net.LocalSocket;
+
+/**
+ * Streams the lines written to mylog.txt to the explorer while the app
+ * runs, over the abstract local socket "a3t_trace" (forwarded by adb).
+ * Lines logged before the explorer connects are buffered. mylog.txt
+ * is still written, so the explorer can fall back to pulling it.
+ *
+ * Only enabled if /sdcard/a3t_stream exists.
+ */
+public class TraceStream implements Runnable
+{
+	private static final String SOCKET_NAME = "a3t_trace";
+	private static final String ENABLE_FILE = "/sdcard/a3t_stream";
+	private static final String END = "E/A3T_END : ";
+	//give up buffering if the explorer does not connect
+	private static final int MAX_PENDING = 4*1024*1024;
+
+	private static LocalServerSocket server;
+	private static LocalSocket client;
+	private static Writer out;
+	private static StringBuilder pending;
+	private static volatile boolean enabled;
+
+	static synchronized void start()
+	{
+		if(!new File(ENABLE_FILE).exists())
+			return;
+		try{
+			server = new LocalServerSocket(SOCKET_NAME);
+		}catch(IOException e){
+			//another process owns the socket
+			return;
+		}
+		pending = new StringBuilder();
+		enabled = true;
+		Thread t = new Thread(new TraceStream(), "a3t-trace");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	public void run()
+	{
+		try{
+			LocalSocket s = server.accept();
+			Writer w = new BufferedWriter(new OutputStreamWriter(s.getOutputStream()));
+			synchronized(TraceStream.class){
+				if(!enabled){
+					s.close();
+					return;
+				}
+				w.write(pending.toString());
+				w.flush();
+				pending = null;
+				client = s;
+				out = w;
+			}
+		}catch(IOException e){
+			synchronized(TraceStream.class){
+				disable();
+			}
+		}
+	}
+
+	static boolean enabled()
+	{
+		return enabled;
+	}
+
+	static synchronized void println(String line)
+	{
+		if(!enabled)
+			return;
+		if(out == null){
+			pending.append(line).append('\n');
+			if(pending.length() > MAX_PENDING)
+				disable();
+			return;
+		}
+		try{
+			out.write(line);
+			out.write('\n');
+			out.flush();
+		}catch(IOException e){
+			disable();
+		}
+	}
+
+	/**
+	 * Sends the end marker and closes the stream. The explorer only
+	 * trusts a streamed trace that ends with the marker.
+	 */
+	static synchronized void finish()
+	{
+		println(END);
+		disable();
+	}
+
+	private static void disable()
+	{
+		enabled = false;
+		pending = null;
+		try{
+			if(out != null)
+				out.close();
+			if(client != null)
+				client.close();
+			if(server != null)
+				server.close();
+		}catch(IOException e){
+			//nothing to do
+		}
+		out = null;
+		client = null;
+		server = null;
+	}
+}
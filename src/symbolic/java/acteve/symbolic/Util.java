@@ -35,14 +35,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import acteve.symbolic.array.SymbolicDoubleArray;
 import acteve.symbolic.array.SymbolicFloatArray;
 import acteve.symbolic.array.SymbolicIntegerArray;
+import acteve.symbolic.integer.BooleanConstant;
 import acteve.symbolic.integer.Expression;
 import acteve.symbolic.integer.SymbolicDouble;
 import acteve.symbolic.integer.SymbolicFloat;
@@ -55,516 +52,1058 @@ import acteve.symbolic.integer.Types;
 
 public class Util
 {
-    private static boolean[] reachedMeths = new boolean[50000];
-	private static long latestSolution = 0l;	//Timestamp of latest solution file
-	private static HashMap<String, String> solutionMap = new HashMap<String, String>();
+	// The flags and counters below are shared by all threads of the app and
+	// read on every record; they are volatile rather than guarded by a lock.
+	// They are written once (the settings) or only by the main thread (eventId).
 
-
-    public static String reachedMethsStr() {
-        StringBuffer sb = new StringBuffer(15000);
-        for (int i = 0; i < reachedMeths.length; i++)
-            if (reachedMeths[i])
-                sb.append(i).append(',');
-        return sb.toString();
-    }
-
-	private static boolean readConfTxt = true; //By JULIAN: Switch off reading /sdcard/settings.txt with "numevents=n"
+	private static volatile boolean readConfTxt = true; //By JULIAN: Switch off reading /sdcard/settings.txt with "numevents=n"
 
 	// Flag used to determine whether we are monitoring (i.e., logging) for this process
-	private static boolean monitor = true;
+	private static volatile boolean monitor = true;
 
 	// Flag used to determine whether testing has begun
 	// invariant: started => monitor
-	private static boolean started = true;
+	private static volatile boolean started = true;
 
 	private static File settingsFile = new File("/sdcard/settings.txt");
 
-	private static int numEvents;
+	private static volatile int numEvents;
 
 	// static count of number of conditionals in the SDK.
 	private static int numSDKConds;
 
-	private static int eventId;
-
-	// global data
-	private static class SymArgs {
-		Expression[] symArgs;
-		int subSignatureId;
-		long threadId;
-		
-		SymArgs(int subsig, long threadId, Expression[] sa) {
-			this.symArgs = sa;
-			this.subSignatureId = subsig;
-			this.threadId = threadId;
+	private static volatile int eventId;
+
+	// Symbolic arguments and return values are handed from caller to callee
+	// through a per-thread Frame. The caller's argpush and the callee's argpop
+	// prologue are adjacent, as are retpush and the caller's retpop, so one
+	// preallocated slot per thread is enough and no call allocates.
+	private static final int MAX_ARGS = 30;
+
+	// shared array of nulls handed out when nothing was pushed; never written
+	private static final Expression[] NO_ARGS = new Expression[MAX_ARGS];
+
+	private static final class Frame {
+		final Thread owner;
+		final Expression[] args = new Expression[MAX_ARGS];
+		int argCount;
+		int argSubsig;
+		boolean hasArgs;
+		Expression ret;
+		int retSubsig;
+		boolean hasRet;
+		//id of the last conditional reached, see Concretizer
+		int branch = -1;
+
+		Frame(Thread owner) {
+			this.owner = owner;
 		}
 	}
-	private static class SymRet {
-		Expression symRet;
-		int subSignatureId;
-		long threadId;
-		
-		SymRet(int subsig, long threadId, Expression sr) {
-			this.symRet = sr;
-			this.subSignatureId = subsig;
-			this.threadId = threadId;
+
+	private static final ThreadLocal<Frame> frames = new ThreadLocal<Frame>() {
+		protected Frame initialValue() {
+			return new Frame(Thread.currentThread());
 		}
-	}
+	};
 
-	private static SymArgs symArgs;
-	private static SymRet symRet;
+	// frame of the thread that made the last call; saves the ThreadLocal
+	// lookup while a single thread is running
+	private static Frame lastFrame = new Frame(null);
 
-	private static void argpush0(int subsig, Expression[] sa)
+	private static Frame frame()
 	{
-		symRet = null;
-		long threadId = Thread.currentThread().getId();
-		symArgs = new SymArgs(subsig, threadId, sa);
-//		Mylog.e("PRE_A3T_ARGPUSH", subsig + " " + Arrays.toString(sa));
+		Frame f = lastFrame;
+		if (f.owner != Thread.currentThread()) {
+			f = frames.get();
+			lastFrame = f;
+		}
+		return f;
 	}
 
-	public static void argpush(int subsig)
+	private static Frame argpush0(int subsig, int count)
 	{
-		argpush0(subsig, new Expression[0]);
+		Frame f = frame();
+		f.hasRet = false;
+		f.argSubsig = subsig;
+		f.argCount = count;
+		f.hasArgs = true;
+		return f;
 	}
 
-	public static void argpush(int subsig, Expression a0)
+	/**
+	 * The static ID of the last conditional reached by the calling 
+	 * thread, or -1.
+	 */
+	public static int lastBranch()
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0
-		};
-		argpush0(subsig, symArgs);
+		return frame().branch;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1)
+	private static void noargs()
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1
-		};
-		argpush0(subsig, symArgs);
+		Frame f = frame();
+		f.hasRet = false;
+		f.hasArgs = false;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2)
+	public static void argpush(int subsig)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2
-		};
-		argpush0(subsig, symArgs);
+		noargs();
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3)
+	public static void argpush(int subsig, Expression a0)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3
-		};
-		argpush0(subsig, symArgs);
+		if (a0 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 1).args;
+		a[0] = a0;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, Expression a4)
+	public static void argpush(int subsig, Expression a0, Expression a1)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4
-		};
-		argpush0(subsig, symArgs);
+		if (a0 == null && a1 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 2).args;
+		a[0] = a0;
+		a[1] = a1;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-							   Expression a4, Expression a5)
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5
-		};
-		argpush0(subsig, symArgs);
+		if (a0 == null && a1 == null && a2 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 3).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-							   Expression a4, Expression a5, Expression a6)
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6
-		};
-		argpush0(subsig, symArgs);
+		if (a0 == null && a1 == null && a2 == null && a3 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 4).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-							   Expression a4, Expression a5, Expression a6, Expression a7)
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4)
 	{
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7
-		};
-		argpush0(subsig, symArgs);
-	}
-
-    public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-							   Expression a4, Expression a5, Expression a6, Expression a7, Expression a8)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8
-		};
-		argpush0(subsig, symArgs);
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 5).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-							   Expression a4, Expression a5, Expression a6, Expression a7, 
-							   Expression a8, Expression a9)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9
-		};
-		argpush0(subsig, symArgs);
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5)
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 6).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
 	}
 
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6)
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 7).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7)
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 8).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
+								 Expression a8)
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 9).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
+								 Expression a8, Expression a9)
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 10).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 11).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 12).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
 								 Expression a12)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 13).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
 								 Expression a12, Expression a13)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 14).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
 								 Expression a12, Expression a13, Expression a14)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14 
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 15).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
 								 Expression a12, Expression a13, Expression a14, Expression a15)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 16).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 17).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null && a17 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 18).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 19).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 20).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 21).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 22).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null && a22 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 23).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 24).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 25).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24, Expression a25)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24,
-			a25
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null && a25 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 26).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+		a[25] = a25;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24, Expression a25, Expression a26)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24,
-			a25, a26
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null && a25 == null && a26 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 27).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+		a[25] = a25;
+		a[26] = a26;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24, Expression a25, Expression a26, Expression a27)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24,
-			a25, a26, a27
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null && a25 == null && a26 == null && a27 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 28).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+		a[25] = a25;
+		a[26] = a26;
+		a[27] = a27;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24, Expression a25, Expression a26, Expression a27,
 								 Expression a28)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24,
-			a25, a26, a27, a28
-		};
-		argpush0(subsig, symArgs);
-	}
-
-	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3, 
-								 Expression a4, Expression a5, Expression a6, Expression a7, 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null && a25 == null && a26 == null &&
+			a27 == null && a28 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 29).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+		a[25] = a25;
+		a[26] = a26;
+		a[27] = a27;
+		a[28] = a28;
+	}
+
+	public static void argpush(int subsig, Expression a0, Expression a1, Expression a2, Expression a3,
+								 Expression a4, Expression a5, Expression a6, Expression a7,
 								 Expression a8, Expression a9, Expression a10, Expression a11,
-								 Expression a12, Expression a13, Expression a14, Expression a15, 
+								 Expression a12, Expression a13, Expression a14, Expression a15,
 								 Expression a16, Expression a17, Expression a18, Expression a19,
 								 Expression a20, Expression a21, Expression a22, Expression a23,
 								 Expression a24, Expression a25, Expression a26, Expression a27,
 								 Expression a28, Expression a29)
-    {
-		Expression[] symArgs = new Expression[]{ 
-			a0, a1, a2, a3, a4, a5, a6, a7, a8, 
-			a9, a10, a11, a12, a13, a14, a15, a16,
-			a17, a18, a19, a20, a21, a22, a23, a24,
-			a25, a26, a27, a28, a29
-		};
-		argpush0(subsig, symArgs);
-	} 
+	{
+		if (a0 == null && a1 == null && a2 == null && a3 == null && a4 == null && a5 == null &&
+			a6 == null && a7 == null && a8 == null && a9 == null && a10 == null && a11 == null &&
+			a12 == null && a13 == null && a14 == null && a15 == null && a16 == null &&
+			a17 == null && a18 == null && a19 == null && a20 == null && a21 == null &&
+			a22 == null && a23 == null && a24 == null && a25 == null && a26 == null &&
+			a27 == null && a28 == null && a29 == null) {
+			noargs();
+			return;
+		}
+		Expression[] a = argpush0(subsig, 30).args;
+		a[0] = a0;
+		a[1] = a1;
+		a[2] = a2;
+		a[3] = a3;
+		a[4] = a4;
+		a[5] = a5;
+		a[6] = a6;
+		a[7] = a7;
+		a[8] = a8;
+		a[9] = a9;
+		a[10] = a10;
+		a[11] = a11;
+		a[12] = a12;
+		a[13] = a13;
+		a[14] = a14;
+		a[15] = a15;
+		a[16] = a16;
+		a[17] = a17;
+		a[18] = a18;
+		a[19] = a19;
+		a[20] = a20;
+		a[21] = a21;
+		a[22] = a22;
+		a[23] = a23;
+		a[24] = a24;
+		a[25] = a25;
+		a[26] = a26;
+		a[27] = a27;
+		a[28] = a28;
+		a[29] = a29;
+	}
 
 	/*
-	  the returned array contains metadata for parameters
+	  the returned array contains metadata for parameters. It is owned by
+	  the calling thread's frame and must be read before the next call.
 	 */
 	public static Expression[] argpop(int subSig, int sig, int argCount)
 	{
-//		Mylog.e("PRE_A3T_ARGPOP", subSig + " " + sig + " "+argCount);
-
-        if (sig >= 0) { // -1 for models method
-			if(eventId == numEvents)
-				reachedMeths[sig] = true;
-		}
-
-		SymArgs sa = symArgs;
-		if(sa != null){
-			long ti = sa.threadId;
-			if(ti == Thread.currentThread().getId()) {
-				int ss = sa.subSignatureId;
-				if (subSig < 0 || ss == subSig) {
-					//ss is negative for @Symbolic annotated methods 
-					//and model invoker methods
-					return sa.symArgs;
-				}
+        if (sig >= 0 && readConfTxt()) // -1 for models method
+			Coverage.method(sig);
+
+		Frame f = frame();
+		if (f.hasArgs) {
+			f.hasArgs = false;
+			int ss = f.argSubsig;
+			if (subSig < 0 || ss == subSig) {
+				//ss is negative for @Symbolic annotated methods 
+				//and model invoker methods
+				Expression[] a = f.args;
+				for (int i = f.argCount; i < argCount && i < MAX_ARGS; i++)
+					a[i] = null;
+				if (argCount <= MAX_ARGS)
+					return a;
 			}
-			//bad things are probably happening.			
-			//Mylog.e("A3T_WARN", "bad: " + "subSig = " + subSig + " ss = " + ss);
-		}
-		else{
-			;//Mylog.e("A3T_WARN", "bad: " + "sa is null");
 		}
-		//unless we are in the main method, when symArgs will be actually null
+		//unless we are in the main method, when nothing was pushed,
 		//just return nulls as symargs
-		return new Expression[argCount];
+		return argCount <= MAX_ARGS ? NO_ARGS : new Expression[argCount];
 	}
 	
 	public static void retpush(int subSig, Expression i)
 	{
-		SymRet sr = new SymRet(subSig, Thread.currentThread().getId(), i);		
-		symRet = sr;
-//		Mylog.e("PRE_A3T_RETPUSH", "Pushing for subsig " +symRet.subSignatureId);
+		Frame f = frame();
+		f.ret = i;
+		f.retSubsig = subSig;
+		f.hasRet = i != null;
 	}
 	
 	public static Expression retpop(int subSig)
 	{
-//		Mylog.e("PRE_A3T_RETPUSH", "Popping for subsig " + subSig);
-		SymRet sr = symRet;
-		if(sr != null){
-			long ti = sr.threadId;
-			if(ti == Thread.currentThread().getId()) {
-				int ss = sr.subSignatureId;
-				if (ss < 0 || ss == subSig) {
-					//ss is negative for @Symbolic annotated methods 
-					//and model invoker methods
-//					Mylog.e("PRE_A3T_RETPUSH", "Pop returns " + sr.symRet);
-					return sr.symRet;
-				}
+		Frame f = frame();
+		if (f.hasRet) {
+			f.hasRet = false;
+			int ss = f.retSubsig;
+			if (ss < 0 || ss == subSig) {
+				//ss is negative for @Symbolic annotated methods 
+				//and model invoker methods
+				return f.ret;
 			}
-		}		
+		}
 		return null;
 	}
 
-	public static int newEvent()
+
+	// events are dispatched by the main thread; the lock only orders the
+	// increment, readers see eventId through the volatile
+	public static synchronized int newEvent()
 	{
-		eventId++;
-		return eventId;
+		return ++eventId;
 	}
 	
 	public static int eventId()
@@ -581,15 +1120,26 @@ public class Util
 	 */
 	public static void assume(Expression e, int branchId, boolean b) 
 	{
+		frame().branch = branchId;
+
+		//coverage counts only while the app is monitored
+		if(!readConfTxt())
+			return;
+		Coverage.branch(branchId, b);
+
 		if (e == null) {
-			Mylog.e("PRE_A3T_BRANCH", "Assume called with null symbolic expression on branch id " + branchId + " and conditional value " + b);
+			if (Verbosity.DEBUG_ON)
+				Mylog.e("PRE_A3T_BRANCH", "Assume called with null symbolic expression on branch id " + branchId + " and conditional value " + b);
 			return;
 		}
 
-		Mylog.e("PRE_A3T_BRANCH", e.toYicesString() + "  " + branchId + "  " + b);
-
-		if(!readConfTxt())
+		if (e instanceof BooleanConstant) {
+			//folded by the Simplifier; nothing to branch on
 			return;
+		}
+
+		if (Verbosity.DEBUG_ON)
+			Mylog.e("PRE_A3T_BRANCH", e.toYicesString() + "  " + branchId + "  " + b);
 
 		if (started == false) {
 			started = true;  // let testing begin
@@ -600,8 +1150,7 @@ public class Util
 				Expression.pc.assumeTru(e);
 			else
 				Expression.pc.assumeFls(e);
-			String s = (b ? "T" : "F") + branchId;
-			Mylog.e("A3T_BRANCH", s);
+			Mylog.branch(branchId, b);
 		}
 		return;
 	}
@@ -617,12 +1166,12 @@ public class Util
 
 	public static void read(int fldId) {
 		if (started)
-			Mylog.e("A3T_READ", String.valueOf(fldId));
+			Mylog.read(fldId);
 	}
 
 	public static void write(int fldId) {
 		if (eventId > 0 && started)
-			Mylog.e("A3T_WRITE", String.valueOf(fldId));
+			Mylog.write(fldId);
 	}
 
 	////only one of the following write and the one 
@@ -633,22 +1182,24 @@ public class Util
 	//}
 
 	public static void rw(int evId, int fldId) {
-		Mylog.e("A3T_PRE_RW", (evId-1) + " " + fldId);
+		if (Verbosity.DEBUG_ON)
+			Mylog.e("A3T_PRE_RW", (evId-1) + " " + fldId);
 		if(evId > 0 && evId != eventId && started){
-			Mylog.e("A3T_RW", (evId-1) + " " + fldId);
+			Mylog.rw(evId-1, fldId);
 		}
 	}
 
 	public static void ww(int evId, int fldId) {
-		Mylog.e("A3T_PRE_WW", (evId-1) + " " + fldId);
+		if (Verbosity.DEBUG_ON)
+			Mylog.e("A3T_PRE_WW", (evId-1) + " " + fldId);
 		if(evId > 0 && evId != eventId && started){
-			Mylog.e("A3T_WW", (evId-1) + " " + fldId);
+			Mylog.ww(evId-1, fldId);
 		}
 	}
 
 	public static void readArray(Object obj, int index) {
 		if(eventId > 0 && started)
-			Mylog.e("A3T_AREAD", System.identityHashCode(obj) + " " + index);
+			Mylog.aread(System.identityHashCode(obj), index);
 	}
 	
 	public static void targetHit(Object obj) {
@@ -657,31 +1208,42 @@ public class Util
 
 	public static void writeArray(Object obj, int index) {
 		if(eventId > 0 && started)
-			Mylog.e("A3T_AWRITE", System.identityHashCode(obj) + " " + index);
+			Mylog.awrite(System.identityHashCode(obj), index);
 	}
 
 	public static void only_write(int fldId) {
  		// fldId == -1 => array element write
  	 	if (started && eventId == numEvents)
- 			Mylog.e("A3T_WRITE", String.valueOf(fldId));
+ 			Mylog.write(fldId);
  	}
 	
 	private static boolean readConfTxt() {
-		Mylog.e("PRE_A3T_in_readconf", "starting");
 		if(readConfTxt)
 			return monitor;
-		readConfTxt = true;
+		synchronized (Util.class) {
+			if(!readConfTxt)
+				readSettings();
+		}
+		return monitor;
+	}
+
+	private static void readSettings() {
+		if (Verbosity.DEBUG_ON)
+			Mylog.e("PRE_A3T_in_readconf", "starting");
 		if(settingsFile.exists()) {
-			Mylog.e("PRE_A3T_in_readconf"," exists");
+			if (Verbosity.DEBUG_ON)
+				Mylog.e("PRE_A3T_in_readconf"," exists");
 
-			android.util.Slog.e("A3T", "FOUND FILE: " + settingsFile + " pid = " + android.os.Process.myPid());
+			if (Verbosity.INFO_ON)
+				android.util.Slog.e("A3T", "FOUND FILE: " + settingsFile + " pid = " + android.os.Process.myPid());
 			try {
 				BufferedReader reader = new BufferedReader(new FileReader(settingsFile));
 				String s;
 				while ((s = reader.readLine()) != null) {
 					String[] a = s.split("=");
 					if (a.length != 2) {
-						Mylog.e("A3T", "Malformed line in settings.txt; ignoring: " + s);
+						if (Verbosity.INFO_ON)
+							Mylog.e("A3T", "Malformed line in settings.txt; ignoring: " + s);
 						continue;
 					}
 					if (a[0].equals("numevents")) {
@@ -697,10 +1259,12 @@ public class Util
 		} else {
 			
 			//this is a process such as keyboard that we dont want to trace
-			android.util.Slog.e("A3T", "FOUND not FILE: " + settingsFile + " pid = " + android.os.Process.myPid());
+			if (Verbosity.INFO_ON)
+				android.util.Slog.e("A3T", "FOUND not FILE: " + settingsFile + " pid = " + android.os.Process.myPid());
 			monitor = false;
-		}		
-		return monitor;
+		}
+		//published last, so that the unlocked check above sees monitor
+		readConfTxt = true;
 	}
 
 	public static void e(String tag, String msg)
@@ -709,6 +1273,12 @@ public class Util
 			Mylog.e(tag, msg);
 	}
 
+	public static void iter(int eventId)
+	{
+		if(readConfTxt())
+			Mylog.iter(eventId);
+	}
+
 	// Methods to create symbolic integers, arrays    
 	public static Expression symbolic_int(int seed, String name)
 	{
@@ -784,128 +1354,17 @@ public class Util
 	
 	/**
 	 * Returns the value which must be enforced for the given variable, according to the current solution.
-	 * 
+	 * id is assigned to the variable by the instrumentor.
 	 */
-	public static int getSolution_int(Object local) {
-		System.out.println("request for new solution for "+local);
-		readLatestSolution();
-		if (solutionMap.containsKey(local.toString())) {
-			System.out.println(local + " -> " + Integer.parseInt(solutionMap.get(local.toString())));
-			return Integer.parseInt(solutionMap.get(local.toString()));
-		} else {
-			System.err.println("Hm. Solution for " + local + " required but not available. This is the current solutionMap: ");
-			for (String key: solutionMap.keySet()) {
-				System.out.println("   " + key + " : " + solutionMap.get(key));
-			}
-			return 123;	
-		}
+	public static int getSolution_int(int id, String name) {
+		return Solution.getInt(id, name);
 	}
 
-	public static long getSolution_long(Object local) {
-		System.out.println("request for new solution for "+local);
-		readLatestSolution();
-		if (solutionMap.containsKey(local.toString())) {
-			System.out.println(local + " -> " + Long.parseLong(solutionMap.get(local.toString())));
-			return Long.parseLong(solutionMap.get(local.toString()));
-		} else {
-			System.err.println("Hm. Solution for " + local + " required but not available. This is the current solutionMap: ");
-			for (String key: solutionMap.keySet()) {
-				System.out.println("   " + key + " : " + solutionMap.get(key));
-			}
-			return 123;	
-		}
+	public static long getSolution_long(int id, String name) {
+		return Solution.getLong(id, name);
 	}
 
-	
-	public static java.lang.String getSolution_string(Object local) {
-		System.out.println("request for new solution for "+local);
-		readLatestSolution();
-		if (solutionMap.containsKey(local.toString())) {
-			System.out.println(local + " -> " + solutionMap.get(local.toString()));
-			return solutionMap.get(local.toString());
-		} else {
-			System.err.println("Hm. Solution for " + local + " required but not available. This is the current solutionMap: ");
-			for (String key: solutionMap.keySet()) {
-				System.out.println("   " + key + " : " + solutionMap.get(key));
-			}
-			return "";	
-		}
-	}
-	
-	/**
-	 * Check if /sdcard/solution.txt has been modified since last time and reload solutions.
-	 *
-	 * The solution file looks like this:
-	 * sat
-	 *  (model 
-  	 *  (define-fun $L$0 () Int
-     *	  34)
-  	 * 	  (define-fun $I$0 () Int
-     *	   34)
-	 *	 )
-
-	 */
-	private static synchronized void readLatestSolution() {
-		File solutionFile = new File("/sdcard/solution.txt");		
-		if (solutionFile.exists() && solutionFile.canRead()) {
-			if (latestSolution < solutionFile.lastModified()) {
-				latestSolution  = solutionFile.lastModified();
-				solutionMap.clear();
-				try {
-					BufferedReader br = new BufferedReader(new FileReader(solutionFile));
-					
-					String line = "";
-					
-//					* v-ok
-//					************************
-//					>> SAT
-//					------------------------
-//					$Xsym_android_os_Build__java_lang_String_BOARD : string -> "q"
-//					$I$0 : int -> -18
-//					$I$1 : int -> 0
-//					$L$sym_java_lang_System_currentTimeMillis__J : int -> -18
-//					************************
-//					
-					while ((line = br.readLine())!=null) {
-						System.out.println("SOLUTION: " + line);
-						if (line.startsWith("*") || line.startsWith("-"))
-							continue;
-						else if (line.startsWith(">>")) {
-							if (!line.equals(">> SAT")) {
-								System.err.println("Not SAT: ("+solutionFile.getName()+")" + line);
-								br.close();
-								return;
-							}				
-						} else if (line.contains("->")) {
-							Pattern pat = Pattern.compile("([^\\s]*?)\\s+:\\s+(.*?)->\\s+(.*)");
-							Matcher mat = pat.matcher(line);
-							if (!mat.matches() || mat.groupCount()!=3) {
-								br.close();
-								throw new Error("Unexpected line format: " + line);
-							}
-							String varname = mat.group(1);
-							String vartype = mat.group(2);
-							//TODO handle array and float types
-							String varvalue = mat.group(3);
-							System.out.println("Varvalue is " + varvalue);
-							if ("\"null@0\"".equals(varvalue)) {
-								varvalue = null;
-								System.out.println("There is a null string in solution map");
-							}
-							solutionMap.put(varname, varvalue);
-						}
-					}
-					br.close();
-					return;
-				} catch (IOException ioe) {
-					ioe.printStackTrace();
-				}
-			} else {
-				System.out.println("Solution file not modified. No update required.");
-			}
-		} else {
-			System.err.println("Cannot read from solution file " + solutionFile.getAbsolutePath());
-		}
+	public static java.lang.String getSolution_string(int id, String name) {
+		return Solution.getString(id, name);
 	}
 }
-
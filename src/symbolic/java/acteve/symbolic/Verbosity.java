@@ -0,0 +1,64 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+/**
+ * Verbosity of the runtime's own diagnostics (PRE_ and A3T_DEBUG lines).
+ * Records the explorer consumes are always written.
+ *
+ * The level is chosen when the app is instrumented: the instrumentor
+ * rewrites the constant returned by {@link #baked()} according to
+ * runtime.verbosity, so debug messages are neither built nor rendered
+ * in normal runs.
+ */
+public final class Verbosity
+{
+	public static final int QUIET = 0;
+	public static final int INFO = 1;
+	public static final int DEBUG = 2;
+
+	public static final int LEVEL = baked();
+
+	public static final boolean INFO_ON = LEVEL >= INFO;
+	public static final boolean DEBUG_ON = LEVEL >= DEBUG;
+
+	//a method rather than a constant so that javac does not inline the
+	//level into the other runtime classes
+	private static int baked()
+	{
+		return INFO;
+	}
+
+	private Verbosity()
+	{
+	}
+}
@@ -30,10 +30,20 @@
 */
 package acteve.symbolic.array;
 
+import acteve.symbolic.integer.Concretizer;
 import acteve.symbolic.integer.Expression;
 
 public abstract class Array extends Expression
 {
+	/*
+	  Concrete arrays longer than this are not tracked symbolically:
+	  reads give no symbolic value, with a symbolic index pinned to its
+	  concrete value, and writes are dropped. Rewritten by
+	  the instrumentor from array.concretize.size.
+	 */
+	static final int CONCRETIZE_SIZE = concretizeSize();
+
+	//null if the array is concretized
 	protected ArrayInternal array;
 
 	protected Array(ArrayInternal a)
@@ -48,17 +58,28 @@ public abstract class Array extends Expression
 	
 	public Expression _aset(Expression index, Expression value)
 	{
-		this.array = this.array.set(index, value);
+		if (this.array != null)
+			this.array = this.array.set(index, value);
 		return this;
 	}
 	
-	public Expression _aget(Expression index)
+	/*
+	  A read of a concretized array has no symbolic value, and its 
+	  symbolic index is pinned to the concrete one.
+	 */
+	public Expression _aget(Expression index, int concreteIndex)
 	{
+		if (this.array == null) {
+			Concretizer.pin(index, concreteIndex);
+			return null;
+		}
 		return this.array.get(index);
 	}
 
 	public Expression _alen()
 	{
+		if (this.array == null)
+			return null;
 		return array._alen();
 	}
 	
@@ -76,4 +97,9 @@ public abstract class Array extends Expression
 	{
 		throw new RuntimeException();
 	}
+
+	private static int concretizeSize()
+	{
+		return 1024;
+	}
 }
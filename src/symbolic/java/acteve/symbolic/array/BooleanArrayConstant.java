@@ -34,6 +34,8 @@ import acteve.symbolic.integer.Expression;
 
 public class BooleanArrayConstant extends Array
 {
+	private static final BooleanArrayConstant CONCRETE = new BooleanArrayConstant(null);
+
 	private BooleanArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -41,6 +43,8 @@ public class BooleanArrayConstant extends Array
 
 	public static BooleanArrayConstant get(boolean[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		boolean[] copy = new boolean[count];
 		System.arraycopy(elems, 0, copy, 0, count);
@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class ByteArrayConstant extends Array
 {
+	private static final ByteArrayConstant CONCRETE = new ByteArrayConstant(null);
+
 	private ByteArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class ByteArrayConstant extends Array
 
 	public static ByteArrayConstant get(byte[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		byte[] copy = new byte[count];
 		System.arraycopy(elems, 0, copy, 0, count);
@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class CharArrayConstant extends Array
 {
+	private static final CharArrayConstant CONCRETE = new CharArrayConstant(null);
+
 	private CharArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class CharArrayConstant extends Array
 
 	public static CharArrayConstant get(char[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		char[] copy = new char[count];
 		System.arraycopy(elems, 0, copy, 0, count);
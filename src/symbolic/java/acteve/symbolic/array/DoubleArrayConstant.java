@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class DoubleArrayConstant extends Array
 {
+	private static final DoubleArrayConstant CONCRETE = new DoubleArrayConstant(null);
+
 	private DoubleArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class DoubleArrayConstant extends Array
 
 	public static DoubleArrayConstant get(double[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		double[] copy = new double[count];
 		System.arraycopy(elems, 0, copy, 0, count);
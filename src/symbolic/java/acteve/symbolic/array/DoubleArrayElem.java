@@ -31,10 +31,13 @@
 package acteve.symbolic.array;
 
 import acteve.symbolic.integer.DoubleExpression;
+import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
+import acteve.symbolic.integer.HashConsed;
 import acteve.symbolic.integer.IntegerExpression;
 import acteve.symbolic.integer.operation.Operations;
 
-public class DoubleArrayElem extends DoubleExpression
+public class DoubleArrayElem extends DoubleExpression implements HashConsed
 {
 	private ArrayInternal array;
 	private IntegerExpression index;
@@ -45,6 +48,22 @@ public class DoubleArrayElem extends DoubleExpression
 		this.index = index;
 	}
 
+	/**
+	 * Returns the canonical read of array at index, see ExpressionTable.
+	 */
+	static Expression make(ArrayInternal array, IntegerExpression index)
+	{
+		Expression e = ExpressionTable.v.lookup(DoubleArrayElem.class, array, index, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new DoubleArrayElem(array, index), DoubleArrayElem.class, array, index, null);
+		return e;
+	}
+
+	public boolean matches(Object op, Object a, Object i, Object unused)
+	{
+		return op == DoubleArrayElem.class && array == a && ExpressionTable.same(index, i);
+	}
+
 	public String toYicesString()
 	{
 		return super.toYicesString(Operations.v.array_get(array.exprString(), index.exprString()));
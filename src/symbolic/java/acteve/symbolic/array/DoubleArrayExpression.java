@@ -41,14 +41,14 @@ public abstract class DoubleArrayExpression extends Array
 		super(array);
 	}
 	
-	public Expression _aget(Expression index)
+	public Expression _aget(Expression index, int concreteIndex)
 	{
-		return new DoubleArrayElem(this.array, (IntegerExpression) index);
+		return this.array.get(index);
 	}
 
 	public Expression _aset(Expression index, Expression value)
 	{
-		this.array = new UpdatedDoubleArrayInternal(this.array, (IntegerExpression) index, (DoubleExpression) value);
+		this.array = UpdatedDoubleArrayInternal.make(this.array, (IntegerExpression) index, (DoubleExpression) value);
 		return this;
 	}
 }
@@ -48,11 +48,11 @@ class DoubleArrayInternal extends ArrayInternal
 
 	public Expression get(Expression index)
 	{
-		return new DoubleArrayElem(this, (IntegerExpression) index);
+		return DoubleArrayElem.make(this, (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedDoubleArrayInternal(this, (IntegerExpression) index, (DoubleExpression) value);
+		return UpdatedDoubleArrayInternal.make(this, (IntegerExpression) index, (DoubleExpression) value);
 	}
 }
@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class FloatArrayConstant extends Array
 {
+	private static final FloatArrayConstant CONCRETE = new FloatArrayConstant(null);
+
 	private FloatArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class FloatArrayConstant extends Array
 
 	public static FloatArrayConstant get(float[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		float[] copy = new float[count];
 		System.arraycopy(elems, 0, copy, 0, count);
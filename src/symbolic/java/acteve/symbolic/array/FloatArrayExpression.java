@@ -43,12 +43,12 @@ public abstract class FloatArrayExpression extends Array
 	
 	//public Expression _aget(Expression index)
 	//{
-	//	return new FloatArrayElem(this.array, (IntegerExpression) index);
+	//	return FloatArrayElem.make(this.array, (IntegerExpression) index);
 	//}
 
 	public Expression _aset(Expression index, Expression value)
 	{
-		this.array = new UpdatedFloatArrayInternal(this.array, (IntegerExpression) index, (FloatExpression) value);
+		this.array = UpdatedFloatArrayInternal.make(this.array, (IntegerExpression) index, (FloatExpression) value);
 		return this;
 	}
 }
@@ -62,15 +62,15 @@ class FloatArrayInternal extends ArrayInternal
 				int ind = ((IntegerConstant) index).seed();
 				for(int i = 0; i < symIndices.length; i++){
 					if(symIndices[i] == ind)
-						return new FloatArrayElem(this, (IntegerExpression) index);
+						return FloatArrayElem.make(this, (IntegerExpression) index);
 				} 
 			}
 		}
-		return new FloatArrayElem(this, (IntegerExpression) index);
+		return FloatArrayElem.make(this, (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedFloatArrayInternal(this, (IntegerExpression) index, (FloatExpression) value);
+		return UpdatedFloatArrayInternal.make(this, (IntegerExpression) index, (FloatExpression) value);
 	}
 }
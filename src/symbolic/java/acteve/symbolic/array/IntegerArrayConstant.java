@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class IntegerArrayConstant extends Array
 {
+	private static final IntegerArrayConstant CONCRETE = new IntegerArrayConstant(null);
+
 	private IntegerArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class IntegerArrayConstant extends Array
 
 	public static IntegerArrayConstant get(int[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		int[] copy = new int[count];
 		System.arraycopy(elems, 0, copy, 0, count);
@@ -30,10 +30,13 @@
 */
 package acteve.symbolic.array;
 
+import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
+import acteve.symbolic.integer.HashConsed;
 import acteve.symbolic.integer.IntegerExpression;
 import acteve.symbolic.integer.operation.Operations;
 
-public class IntegerArrayElem extends IntegerExpression
+public class IntegerArrayElem extends IntegerExpression implements HashConsed
 {
 	private ArrayInternal array;
 	private IntegerExpression index;
@@ -44,6 +47,22 @@ public class IntegerArrayElem extends IntegerExpression
 		this.index = index;
 	}
 
+	/**
+	 * Returns the canonical read of array at index, see ExpressionTable.
+	 */
+	static Expression make(ArrayInternal array, IntegerExpression index)
+	{
+		Expression e = ExpressionTable.v.lookup(IntegerArrayElem.class, array, index, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new IntegerArrayElem(array, index), IntegerArrayElem.class, array, index, null);
+		return e;
+	}
+
+	public boolean matches(Object op, Object a, Object i, Object unused)
+	{
+		return op == IntegerArrayElem.class && array == a && ExpressionTable.same(index, i);
+	}
+
 	public String toYicesString()
 	{
 		return super.toYicesString(Operations.v.array_get(array.exprString(), index.exprString()));
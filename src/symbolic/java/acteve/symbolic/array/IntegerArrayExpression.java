@@ -42,12 +42,12 @@ public abstract class IntegerArrayExpression extends Array
 	
 	//public Expression _aget(Expression index)
 	//{
-	//	return new IntegerArrayElem(this.array, (IntegerExpression) index);
+	//	return IntegerArrayElem.make(this.array, (IntegerExpression) index);
 	//}
 
 	//public Expression _aset(Expression index, Expression value)
 	//{
-	//	this.array = new UpdatedIntegerArrayInternal(this.array, (IntegerExpression) index, (IntegerExpression) value);
+	//	this.array = UpdatedIntegerArrayInternal.make(this.array, (IntegerExpression) index, (IntegerExpression) value);
 	//	return this;
 	//}
 }
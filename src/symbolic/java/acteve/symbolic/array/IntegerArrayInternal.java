@@ -47,11 +47,11 @@ class IntegerArrayInternal extends ArrayInternal
 
 	public Expression get(Expression index)
 	{
-		return new IntegerArrayElem(this, (IntegerExpression) index);
+		return IntegerArrayElem.make(this, (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedIntegerArrayInternal(this, (IntegerExpression) index, (IntegerExpression) value);
+		return UpdatedIntegerArrayInternal.make(this, (IntegerExpression) index, (IntegerExpression) value);
 	}
 }
@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class LongArrayConstant extends Array
 {
+	private static final LongArrayConstant CONCRETE = new LongArrayConstant(null);
+
 	private LongArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class LongArrayConstant extends Array
 
 	public static LongArrayConstant get(long[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		long[] copy = new long[count];
 		System.arraycopy(elems, 0, copy, 0, count);
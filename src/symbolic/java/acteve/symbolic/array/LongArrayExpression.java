@@ -41,14 +41,14 @@ public abstract class LongArrayExpression extends Array
 		super(array);
 	}
 	
-	public Expression _aget(Expression index)
+	public Expression _aget(Expression index, int concreteIndex)
 	{
-		return new LongArrayElem(this.array, (IntegerExpression) index);
+		return this.array.get(index);
 	}
 
 	public Expression _aset(Expression index, Expression value)
 	{
-		this.array = new UpdatedLongArrayInternal(this.array, (IntegerExpression) index, (LongExpression) value);
+		this.array = UpdatedLongArrayInternal.make(this.array, (IntegerExpression) index, (LongExpression) value);
 		return this;
 	}
 }
@@ -49,11 +49,11 @@ class LongArrayInternal extends ArrayInternal
 
 	public Expression get(Expression index)
 	{
-		return new LongArrayElem(this, (IntegerExpression) index);
+		return LongArrayElem.make(this, (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedLongArrayInternal(this, (IntegerExpression) index, (LongExpression) value);
+		return UpdatedLongArrayInternal.make(this, (IntegerExpression) index, (LongExpression) value);
 	}
 }
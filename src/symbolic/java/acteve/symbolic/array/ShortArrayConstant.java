@@ -32,6 +32,8 @@ package acteve.symbolic.array;
 
 public class ShortArrayConstant extends Array
 {
+	private static final ShortArrayConstant CONCRETE = new ShortArrayConstant(null);
+
 	private ShortArrayConstant(ArrayInternal array)
 	{
 		super(array);
@@ -39,6 +41,8 @@ public class ShortArrayConstant extends Array
 
 	public static ShortArrayConstant get(short[] elems)
 	{
+		if (elems.length > CONCRETIZE_SIZE)
+			return CONCRETE;
 		int count = elems.length;
 		short[] copy = new short[count];
 		System.arraycopy(elems, 0, copy, 0, count);
@@ -30,11 +30,14 @@
 */
 package acteve.symbolic.array;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.integer.Expression;
 
 public class SymbolicDoubleArray extends Array
 {
-	private static int count = 0;
+	//names are made by all threads of the app
+	private static final AtomicInteger count = new AtomicInteger();
 
 	public SymbolicDoubleArray(String name)
 	{
@@ -43,7 +46,7 @@ public class SymbolicDoubleArray extends Array
 	
 	static String makeName()
 	{
-		return "$!D$"+count++;
+		return "$!D$"+count.getAndIncrement();
 	}
 }
 	
@@ -30,12 +30,15 @@
 */
 package acteve.symbolic.array;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.integer.Expression;
 import acteve.symbolic.integer.IntegerExpression;
 
 public class SymbolicFloatArray extends Array
 {
-	private static int count = 0;
+	//names are made by all threads of the app
+	private static final AtomicInteger count = new AtomicInteger();
 
 	public SymbolicFloatArray(String name)
 	{
@@ -49,7 +52,7 @@ public class SymbolicFloatArray extends Array
 	
 	static String makeName()
 	{
-		return "$!F$"+count++;
+		return "$!F$"+count.getAndIncrement();
 	}
 }
 	
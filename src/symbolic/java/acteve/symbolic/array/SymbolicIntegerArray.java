@@ -30,12 +30,15 @@
 */
 package acteve.symbolic.array;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.integer.Types;
 import acteve.symbolic.integer.Expression;
 
 public class SymbolicIntegerArray extends Array
 {
-	private static int count = 0;
+	//names are made by all threads of the app
+	private static final AtomicInteger count = new AtomicInteger();
 
 	public SymbolicIntegerArray(int type, String name)
 	{
@@ -60,12 +63,12 @@ public class SymbolicIntegerArray extends Array
 	
 	static String makeName()
 	{
-		return "$!I$"+count++;
+		return "$!I$"+count.getAndIncrement();
 	}
 	
 	static String makeName(String typePrefix)
 	{
-		return typePrefix+count++;
+		return typePrefix+count.getAndIncrement();
 	}
 }
 	
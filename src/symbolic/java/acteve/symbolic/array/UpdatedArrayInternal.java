@@ -30,27 +30,122 @@
 */
 package acteve.symbolic.array;
 
-import acteve.symbolic.integer.FloatExpression;
+import acteve.symbolic.integer.IntegerConstant;
 import acteve.symbolic.integer.IntegerExpression;
 import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
+import acteve.symbolic.integer.HashConsed;
 import acteve.symbolic.integer.operation.Operations;
 
-abstract class UpdatedArrayInternal extends ArrayInternal
+/*
+  A store into oldArray. Stores at concrete indices are compacted:
+  the node keeps all concrete writes since the last store at a symbolic
+  index (or the last rendered array) in a small sorted map, so a later
+  write to the same index replaces the earlier one, reads of written
+  indices return the value, and reads of other concrete indices skip
+  the writes altogether. The store chain is only emitted when the array
+  is rendered, with one store per distinct index.
+ */
+abstract class UpdatedArrayInternal extends ArrayInternal implements HashConsed
 {
+	//writes compacted into one node; beyond this a new node is started
+	private static final int MAX_WRITES = 64;
+
 	ArrayInternal oldArray;
 	IntegerExpression index;
 	Expression value;
 
+	//for concrete index: the array the writes apply to, and the writes
+	//sorted by index; null otherwise
+	private final ArrayInternal base;
+	private final int[] keys;
+	private final Expression[] vals;
+
 	public UpdatedArrayInternal(ArrayInternal oldArray, IntegerExpression index, Expression value)
 	{
 		this.oldArray = oldArray;
 		this.index = index;
 		this.value = value;
+
+		if(!(index instanceof IntegerConstant)){
+			base = null;
+			keys = null;
+			vals = null;
+			return;
+		}
+		int k = ((IntegerConstant) index).seed();
+		UpdatedArrayInternal old = oldArray instanceof UpdatedArrayInternal ? (UpdatedArrayInternal) oldArray : null;
+		//a rendered array has a name; building on it is cheaper than 
+		//repeating its writes
+		if(old == null || old.keys == null || old.exprString != null || old.keys.length >= MAX_WRITES){
+			base = oldArray;
+			keys = new int[]{k};
+			vals = new Expression[]{value};
+			return;
+		}
+		base = old.base;
+		int pos = java.util.Arrays.binarySearch(old.keys, k);
+		if(pos >= 0){
+			keys = old.keys;
+			vals = old.vals.clone();
+			vals[pos] = value;
+		} else {
+			pos = -pos - 1;
+			int n = old.keys.length;
+			keys = new int[n + 1];
+			vals = new Expression[n + 1];
+			System.arraycopy(old.keys, 0, keys, 0, pos);
+			System.arraycopy(old.vals, 0, vals, 0, pos);
+			keys[pos] = k;
+			vals[pos] = value;
+			System.arraycopy(old.keys, pos, keys, pos + 1, n - pos);
+			System.arraycopy(old.vals, pos, vals, pos + 1, n - pos);
+		}
+	}
+
+	public boolean matches(Object op, Object a, Object i, Object v)
+	{
+		return op == getClass() && oldArray == a 
+			&& ExpressionTable.same(index, i) && ExpressionTable.same(value, v);
+	}
+
+	/*
+	  The value last written at index if index is concrete and among
+	  the compacted writes, else null.
+	 */
+	Expression written(Expression index)
+	{
+		if(keys == null || !(index instanceof IntegerConstant))
+			return null;
+		int pos = java.util.Arrays.binarySearch(keys, ((IntegerConstant) index).seed());
+		return pos >= 0 ? vals[pos] : null;
+	}
+
+	/*
+	  The array a read at index has to select from: reads at concrete
+	  indices that were not written go past the compacted writes.
+	 */
+	ArrayInternal source(Expression index)
+	{
+		ArrayInternal a = this;
+		while(a instanceof UpdatedArrayInternal){
+			UpdatedArrayInternal u = (UpdatedArrayInternal) a;
+			if(u.keys == null || !(index instanceof IntegerConstant)
+			   || u.written(index) != null)
+				break;
+			a = u.base;
+		}
+		return a;
 	}
 
 	public String toYicesString()
 	{
-		return Operations.v.array_set(oldArray.exprString(), index.exprString(), value.exprString());
+		if(keys == null)
+			return Operations.v.array_set(oldArray.exprString(), index.exprString(), value.exprString());
+		String str = base.exprString();
+		for(int i = 0; i < keys.length; i++)
+			str = Operations.v.array_set(str, Operations.v.intConstant(keys[i]), vals[i].exprString());
+		return str;
 	}	
 
 }
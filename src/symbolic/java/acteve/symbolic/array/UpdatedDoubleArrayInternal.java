@@ -31,6 +31,7 @@
 package acteve.symbolic.array;
 
 import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
 import acteve.symbolic.integer.DoubleExpression;
 import acteve.symbolic.integer.IntegerExpression;
 
@@ -41,6 +42,18 @@ public class UpdatedDoubleArrayInternal extends UpdatedArrayInternal
 		super(oldArray, index, value);
 	}
 	
+	/**
+	 * Returns the canonical store of value at index into oldArray, 
+	 * see ExpressionTable.
+	 */
+	static ArrayInternal make(ArrayInternal oldArray, IntegerExpression index, Expression value)
+	{
+		Expression e = ExpressionTable.v.lookup(UpdatedDoubleArrayInternal.class, oldArray, index, value);
+		if(e == null)
+			e = ExpressionTable.v.add(new UpdatedDoubleArrayInternal(oldArray, index, value), UpdatedDoubleArrayInternal.class, oldArray, index, value);
+		return (ArrayInternal) e;
+	}
+
 	public String toYicesString()
 	{
 		String str = super.toYicesString();
@@ -51,11 +64,14 @@ public class UpdatedDoubleArrayInternal extends UpdatedArrayInternal
 		
 	public Expression get(Expression index)
 	{
-		return new DoubleArrayElem(this, (IntegerExpression) index);
+		Expression v = written(index);
+		if(v != null)
+			return v;
+		return DoubleArrayElem.make(source(index), (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedDoubleArrayInternal(this, (IntegerExpression) index, (DoubleExpression) value);
+		return UpdatedDoubleArrayInternal.make(this, (IntegerExpression) index, (DoubleExpression) value);
 	}
 }
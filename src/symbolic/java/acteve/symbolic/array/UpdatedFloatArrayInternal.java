@@ -31,6 +31,7 @@
 package acteve.symbolic.array;
 
 import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
 import acteve.symbolic.integer.FloatExpression;
 import acteve.symbolic.integer.IntegerExpression;
 
@@ -41,6 +42,18 @@ public class UpdatedFloatArrayInternal extends UpdatedArrayInternal
 		super(oldArray, index, value);
 	}
 	
+	/**
+	 * Returns the canonical store of value at index into oldArray, 
+	 * see ExpressionTable.
+	 */
+	static ArrayInternal make(ArrayInternal oldArray, IntegerExpression index, Expression value)
+	{
+		Expression e = ExpressionTable.v.lookup(UpdatedFloatArrayInternal.class, oldArray, index, value);
+		if(e == null)
+			e = ExpressionTable.v.add(new UpdatedFloatArrayInternal(oldArray, index, value), UpdatedFloatArrayInternal.class, oldArray, index, value);
+		return (ArrayInternal) e;
+	}
+
 	public String toYicesString()
 	{
 		String str = super.toYicesString();
@@ -51,11 +64,14 @@ public class UpdatedFloatArrayInternal extends UpdatedArrayInternal
 	
 	public Expression get(Expression index)
 	{
-		return new FloatArrayElem(this, (IntegerExpression) index);
+		Expression v = written(index);
+		if(v != null)
+			return v;
+		return FloatArrayElem.make(source(index), (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedFloatArrayInternal(this, (IntegerExpression) index, (FloatExpression) value);
+		return UpdatedFloatArrayInternal.make(this, (IntegerExpression) index, (FloatExpression) value);
 	}
 }
@@ -31,6 +31,7 @@
 package acteve.symbolic.array;
 
 import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
 import acteve.symbolic.integer.IntegerExpression;
 
 public class UpdatedIntegerArrayInternal extends UpdatedArrayInternal
@@ -40,6 +41,18 @@ public class UpdatedIntegerArrayInternal extends UpdatedArrayInternal
 		super(oldArray, index, value);
 	}
 	
+	/**
+	 * Returns the canonical store of value at index into oldArray, 
+	 * see ExpressionTable.
+	 */
+	static ArrayInternal make(ArrayInternal oldArray, IntegerExpression index, Expression value)
+	{
+		Expression e = ExpressionTable.v.lookup(UpdatedIntegerArrayInternal.class, oldArray, index, value);
+		if(e == null)
+			e = ExpressionTable.v.add(new UpdatedIntegerArrayInternal(oldArray, index, value), UpdatedIntegerArrayInternal.class, oldArray, index, value);
+		return (ArrayInternal) e;
+	}
+
 	public String toYicesString()
 	{
 		String str = super.toYicesString();
@@ -50,11 +63,14 @@ public class UpdatedIntegerArrayInternal extends UpdatedArrayInternal
 	
 	public Expression get(Expression index)
 	{
-		return new IntegerArrayElem(this, (IntegerExpression) index);
+		Expression v = written(index);
+		if(v != null)
+			return v;
+		return IntegerArrayElem.make(source(index), (IntegerExpression) index);
 	}
 	
 	public ArrayInternal set(Expression index, Expression value)
 	{
-		return new UpdatedIntegerArrayInternal(this, (IntegerExpression) index, (IntegerExpression) value);
+		return UpdatedIntegerArrayInternal.make(this, (IntegerExpression) index, (IntegerExpression) value);
 	}
 }
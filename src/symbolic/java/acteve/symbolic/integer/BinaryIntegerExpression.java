@@ -32,7 +32,7 @@
 package acteve.symbolic.integer;
 
 
-public class BinaryIntegerExpression extends IntegerExpression
+public class BinaryIntegerExpression extends IntegerExpression implements HashConsed
 {
     Expression left;
     BinaryOperator   op;
@@ -43,6 +43,23 @@ public class BinaryIntegerExpression extends IntegerExpression
 		this.left = l;
 		this.op = o;
 		this.right = r;
+		grow(l, r);
+    }
+    
+    /**
+     * Returns the canonical node for (o l r), see ExpressionTable.
+     */
+    public static Expression make(BinaryOperator o, Expression l, Expression r)
+    {
+		Expression e = ExpressionTable.v.lookup(o, l, r, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new BinaryIntegerExpression(o, l, r), o, l, r, null);
+		return e;
+    }
+
+    public boolean matches(Object o, Object l, Object r, Object unused)
+    {
+		return op == o && ExpressionTable.same(left, l) && ExpressionTable.same(right, r);
     }
     
     public String toString () 
@@ -31,7 +31,7 @@
 
 package acteve.symbolic.integer;
 
-public class BinaryLongExpression extends LongExpression
+public class BinaryLongExpression extends LongExpression implements HashConsed
 {
     Expression left;
     BinaryOperator   op;
@@ -42,6 +42,23 @@ public class BinaryLongExpression extends LongExpression
 		this.left = l;
 		this.op = o;
 		this.right = r;
+		grow(l, r);
+    }
+    
+    /**
+     * Returns the canonical node for (o l r), see ExpressionTable.
+     */
+    public static Expression make(BinaryOperator o, Expression l, Expression r)
+    {
+		Expression e = ExpressionTable.v.lookup(o, l, r, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new BinaryLongExpression(o, l, r), o, l, r, null);
+		return e;
+    }
+
+    public boolean matches(Object o, Object l, Object r, Object unused)
+    {
+		return op == o && ExpressionTable.same(left, l) && ExpressionTable.same(right, r);
     }
     
     public String toString () 
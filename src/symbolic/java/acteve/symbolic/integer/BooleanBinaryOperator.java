@@ -39,10 +39,13 @@ public class BooleanBinaryOperator extends BinaryOperator
 	
     public Expression apply(Expression left, Expression right)
     {
+		Expression e = Simplifier.bool(this, left, right);
+		if(e != null)
+			return e;
 		if(left instanceof Constant && right instanceof Constant){
 			System.out.println("Going wrong! " + this + " called with two constants: " + left + " & " + right);
 			assert false;
 		}
-		return new BinaryBooleanExpression(this, left, right);
+		return BinaryBooleanExpression.make(this, left, right);
     }
 }
@@ -0,0 +1,156 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic.integer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import acteve.symbolic.Mylog;
+import acteve.symbolic.Util;
+
+/**
+ * Bounds the symbolic expressions built by the instrumented code. The
+ * operands of every symbolic operation are passed through bound() with
+ * their concrete value; an operand whose tree has more nodes than
+ * MAX_SIZE or is deeper than MAX_DEPTH is replaced by that value, so 
+ * loops that keep folding into one accumulator do not flood the path 
+ * condition and the solver.
+ *
+ * A subtree that was already rendered has a $I$ (...) name that the 
+ * path condition may refer to; its replacement is recorded as a det 
+ * constraint, (= name value). A subtree that was never rendered does 
+ * not occur in the path condition and is dropped without a constraint.
+ * The number of replacements per branch id, that of the last 
+ * conditional the thread reached, is logged as A3T_CONCRETIZED lines 
+ * when the app exits.
+ *
+ * Both limits are rewritten by the instrumentor from concretize.max.size 
+ * and concretize.max.depth; 0 disables a limit.
+ */
+public final class Concretizer
+{
+	static final int MAX_SIZE = maxSize();
+	static final int MAX_DEPTH = maxDepth();
+
+	//branch id -> number of replacements, filled on the rare slow path
+	private static final Map<Integer,int[]> counts = new HashMap<Integer,int[]>();
+
+	private Concretizer()
+	{
+	}
+
+	public static Expression bound(Expression e, int concrete)
+	{
+		if(e == null || !exceeds(e) || !(e instanceof IntegerExpression))
+			return e;
+		IntegerConstant c = IntegerConstant.get(concrete);
+		concretize(e, c);
+		return c;
+	}
+
+	public static Expression bound(Expression e, long concrete)
+	{
+		if(e == null || !exceeds(e) || !(e instanceof LongExpression))
+			return e;
+		LongConstant c = LongConstant.get(concrete);
+		concretize(e, c);
+		return c;
+	}
+
+	public static Expression bound(Expression e, float concrete)
+	{
+		if(e == null || !exceeds(e) || !(e instanceof FloatExpression))
+			return e;
+		FloatConstant c = FloatConstant.get(concrete);
+		concretize(e, c);
+		return c;
+	}
+
+	public static Expression bound(Expression e, double concrete)
+	{
+		if(e == null || !exceeds(e) || !(e instanceof DoubleExpression))
+			return e;
+		DoubleConstant c = DoubleConstant.get(concrete);
+		concretize(e, c);
+		return c;
+	}
+
+	/**
+	 * Pins e, used as its concrete value where it has no symbolic 
+	 * meaning (the index of a read of a concretized array).
+	 */
+	public static void pin(Expression e, int concrete)
+	{
+		if(e != null && e.exprString != null)
+			concretize(e, IntegerConstant.get(concrete));
+	}
+
+	private static boolean exceeds(Expression e)
+	{
+		return (MAX_SIZE > 0 && e.size > MAX_SIZE) || (MAX_DEPTH > 0 && e.depth > MAX_DEPTH);
+	}
+
+	private static void concretize(Expression e, Expression c)
+	{
+		if(e.exprString != null)
+			Expression.pc.printConstraint("(= " + e.exprString + " " + c.toYicesString() + ")");
+		Integer branch = Integer.valueOf(Util.lastBranch());
+		synchronized(counts){
+			int[] n = counts.get(branch);
+			if(n == null)
+				counts.put(branch, n = new int[1]);
+			n[0]++;
+		}
+	}
+
+	/**
+	 * Logs the replacements per branch id, called when the app exits.
+	 */
+	public static void report()
+	{
+		synchronized(counts){
+			for(Map.Entry<Integer,int[]> e : counts.entrySet())
+				Mylog.e("A3T_CONCRETIZED", e.getKey() + " " + e.getValue()[0]);
+		}
+	}
+
+	//methods rather than constants so that javac does not inline them
+	private static int maxSize()
+	{
+		return 512;
+	}
+
+	private static int maxDepth()
+	{
+		return 64;
+	}
+}
@@ -43,6 +43,6 @@ public class DoubleBinaryOperator extends BinaryOperator
 		DoubleExpression right = (DoubleExpression) rightOp;
 		if(left instanceof Constant && right instanceof Constant)
 			assert false;
-		return new BinaryDoubleExpression(this, left, right);
+		return BinaryDoubleExpression.make(this, left, right);
     }
 }
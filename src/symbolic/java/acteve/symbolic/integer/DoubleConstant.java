@@ -58,5 +58,18 @@ public final class DoubleConstant extends DoubleExpression implements Constant
     {
 	return seed;
     }
+
+    //constants are compared by value when hash-consing, see ExpressionTable
+    public boolean equals(Object o)
+    {
+	return o instanceof DoubleConstant 
+	    && Double.doubleToLongBits(((DoubleConstant) o).seed) == Double.doubleToLongBits(seed);
+    }
+
+    public int hashCode()
+    {
+	long bits = Double.doubleToLongBits(seed);
+	return (int) (bits ^ (bits >>> 32));
+    }
 }
 
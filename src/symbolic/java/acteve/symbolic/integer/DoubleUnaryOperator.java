@@ -41,6 +41,6 @@ public class DoubleUnaryOperator extends UnaryOperator
     {
 		if(e instanceof Constant)
 			assert false;
-	    return new UnaryDoubleExpression(this, e);
+	    return UnaryDoubleExpression.make(this, e);
     }
 }
@@ -38,6 +38,11 @@ public abstract class Expression
     public static final PathCondition pc = new PathCondition();
     
     protected String exprString;
+
+    //node count and depth of the tree below this node, saturated at
+    //Integer.MAX_VALUE; leaves are 1/1. See Concretizer.
+    int size = 1;
+    int depth = 1;
     
     public abstract String toYicesString();
 
@@ -48,4 +53,31 @@ public abstract class Expression
 	    exprString = toYicesString();
 	return exprString;
     }
+
+    public int size()
+    {
+	return size;
+    }
+
+    public int depth()
+    {
+	return depth;
+    }
+
+    //called by the constructors of the operator nodes
+    final void grow(Expression l, Expression r)
+    {
+	long s = 1;
+	int d = 0;
+	if(l != null){
+	    s += l.size;
+	    d = l.depth;
+	}
+	if(r != null){
+	    s += r.size;
+	    d = Math.max(d, r.depth);
+	}
+	size = (int) Math.min(s, Integer.MAX_VALUE);
+	depth = d + 1;
+    }
 }
@@ -0,0 +1,232 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic.integer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Hash-consing table for expression nodes. Structurally equal nodes 
+ * are shared, so that a composite subexpression gets one $I$ name and 
+ * one definition in the path condition no matter how often it is 
+ * rebuilt. Operands are compared by identity, constants by value 
+ * (see same()). Entries are weak: a node that is no longer reachable 
+ * from the program is dropped, and simply rebuilt if needed again.
+ *
+ * The table is split into segments, each with its own buckets and
+ * lock, picked by the high bits of the hash; threads building
+ * unrelated expressions rarely wait for each other. Entries of 
+ * collected nodes are unlinked by add(), not by lookup().
+ *
+ * Typical use, without allocating on a hit:
+ *   Expression e = ExpressionTable.v.lookup(op, l, r, null);
+ *   if(e == null)
+ *       e = ExpressionTable.v.add(new Node(op, l, r), op, l, r, null);
+ */
+public final class ExpressionTable
+{
+	public static final ExpressionTable v = new ExpressionTable();
+
+	private static final int SEGMENTS = 16;
+
+	private static final class Entry extends WeakReference<Expression>
+	{
+		final int hash;
+		Entry next;
+
+		Entry(Expression e, int hash, Entry next, ReferenceQueue<Expression> queue)
+		{
+			super(e, queue);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	//guarded by itself
+	private static final class Segment
+	{
+		Entry[] buckets = new Entry[64];
+		int size;
+		int hits;
+	}
+
+	private final ReferenceQueue<Expression> queue = new ReferenceQueue<Expression>();
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	private ExpressionTable()
+	{
+		for(int i = 0; i < SEGMENTS; i++)
+			segments[i] = new Segment();
+	}
+
+	public Expression lookup(Object op, Object a, Object b, Object c)
+	{
+		int h = hash(op, a, b, c);
+		Segment s = segmentFor(h);
+		synchronized(s){
+			return lookup(s, h, op, a, b, c);
+		}
+	}
+
+	/**
+	 * Adds e, built from the given parts, unless an equal node got in
+	 * first. Returns the canonical node.
+	 */
+	public Expression add(Expression e, Object op, Object a, Object b, Object c)
+	{
+		expunge();
+		int h = hash(op, a, b, c);
+		Segment s = segmentFor(h);
+		synchronized(s){
+			Expression old = lookup(s, h, op, a, b, c);
+			if(old != null)
+				return old;
+			Entry[] buckets = s.buckets;
+			int i = h & (buckets.length-1);
+			buckets[i] = new Entry(e, h, buckets[i], queue);
+			if(++s.size > buckets.length - (buckets.length >> 2))
+				resize(s);
+			return e;
+		}
+	}
+
+	public int size()
+	{
+		expunge();
+		int size = 0;
+		for(Segment s : segments){
+			synchronized(s){
+				size += s.size;
+			}
+		}
+		return size;
+	}
+
+	public int hits()
+	{
+		int hits = 0;
+		for(Segment s : segments){
+			synchronized(s){
+				hits += s.hits;
+			}
+		}
+		return hits;
+	}
+
+	private Segment segmentFor(int h)
+	{
+		return segments[(h >>> 24) & (SEGMENTS-1)];
+	}
+
+	private static Expression lookup(Segment s, int h, Object op, Object a, Object b, Object c)
+	{
+		Entry[] buckets = s.buckets;
+		for(Entry en = buckets[h & (buckets.length-1)]; en != null; en = en.next){
+			if(en.hash != h)
+				continue;
+			Expression e = en.get();
+			if(e != null && ((HashConsed) e).matches(op, a, b, c)){
+				s.hits++;
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/** Identity for nodes, value equality for constants. */
+	public static boolean same(Object x, Object y)
+	{
+		return x == y || (isConstant(x) && x.equals(y));
+	}
+
+	private static boolean isConstant(Object x)
+	{
+		return x instanceof Constant || x instanceof acteve.symbolic.Constant;
+	}
+
+	private static int hash(Object op, Object a, Object b, Object c)
+	{
+		int h = System.identityHashCode(op);
+		h = 31*h + hash(a);
+		h = 31*h + hash(b);
+		h = 31*h + hash(c);
+		return h ^ (h >>> 16);
+	}
+
+	private static int hash(Object x)
+	{
+		if(x == null)
+			return 0;
+		return isConstant(x) ? x.hashCode() : System.identityHashCode(x);
+	}
+
+	private void expunge()
+	{
+		Object ref;
+		while((ref = queue.poll()) != null){
+			Entry dead = (Entry) ref;
+			Segment s = segmentFor(dead.hash);
+			synchronized(s){
+				Entry[] buckets = s.buckets;
+				int i = dead.hash & (buckets.length-1);
+				Entry prev = null;
+				for(Entry en = buckets[i]; en != null; prev = en, en = en.next){
+					if(en == dead){
+						if(prev == null)
+							buckets[i] = en.next;
+						else
+							prev.next = en.next;
+						s.size--;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private static void resize(Segment s)
+	{
+		Entry[] old = s.buckets;
+		Entry[] buckets = new Entry[old.length << 1];
+		for(Entry head : old){
+			Entry en = head;
+			while(en != null){
+				Entry next = en.next;
+				int i = en.hash & (buckets.length-1);
+				en.next = buckets[i];
+				buckets[i] = en;
+				en = next;
+			}
+		}
+		s.buckets = buckets;
+	}
+}
@@ -43,6 +43,6 @@ public class FloatBinaryOperator extends BinaryOperator
 		FloatExpression right = (FloatExpression) rightOp;
 		if(left instanceof Constant && right instanceof Constant)
 			assert false;
-		return new BinaryFloatExpression(this, left, right);
+		return BinaryFloatExpression.make(this, left, right);
     }
 }
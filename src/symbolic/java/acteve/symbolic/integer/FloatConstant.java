@@ -58,5 +58,17 @@ public final class FloatConstant extends FloatExpression implements Constant
     {
 	return seed;
     }
+
+    //constants are compared by value when hash-consing, see ExpressionTable
+    public boolean equals(Object o)
+    {
+	return o instanceof FloatConstant 
+	    && Float.floatToIntBits(((FloatConstant) o).seed) == Float.floatToIntBits(seed);
+    }
+
+    public int hashCode()
+    {
+	return Float.floatToIntBits(seed);
+    }
 }
 
@@ -41,6 +41,6 @@ public class FloatUnaryOperator extends UnaryOperator
     {
 		if(e instanceof Constant)
 			assert false;
-		return new UnaryFloatExpression(this, e);
+		return UnaryFloatExpression.make(this, e);
     }
 }
@@ -40,10 +40,10 @@ public class IntegerBinaryOperator extends BinaryOperator
     
     public Expression apply(Expression leftOp, Expression rightOp)
     {
-		IntegerExpression left = (IntegerExpression) leftOp;
-		IntegerExpression right = (IntegerExpression) rightOp;
-		if(left instanceof Constant && right instanceof Constant)
-			assert false;
-		return new BinaryIntegerExpression(this, left, right);
+		//operands are longs for lcmp
+		Expression e = Simplifier.integer(this, leftOp, rightOp);
+		if(e != null)
+			return e;
+		return BinaryIntegerExpression.make(this, leftOp, rightOp);
     }
 }
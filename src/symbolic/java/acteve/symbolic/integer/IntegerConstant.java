@@ -61,6 +61,17 @@ public class IntegerConstant extends IntegerExpression implements Constant
 		return seed;
     }
 
+	//constants are compared by value when hash-consing, see ExpressionTable
+	public boolean equals(Object o)
+	{
+		return o instanceof IntegerConstant && ((IntegerConstant) o).seed == seed;
+	}
+
+	public int hashCode()
+	{
+		return seed;
+	}
+
 	public Expression _eq(Expression e)
 	{
 		if(e instanceof BooleanExpression)
@@ -40,8 +40,9 @@ public class IntegerUnaryOperator extends UnaryOperator
     
     public Expression apply(Expression e)
     {
-		if(e instanceof Constant)
-			assert false;
-		return new UnaryIntegerExpression(this, e);
+		Expression s = Simplifier.unary(this, e);
+		if(s != null)
+			return s;
+		return UnaryIntegerExpression.make(this, e);
     }
 }
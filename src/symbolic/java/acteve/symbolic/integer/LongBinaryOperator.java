@@ -41,8 +41,9 @@ public class LongBinaryOperator extends BinaryOperator
     public Expression apply(Expression leftOp, Expression rightOp)
     {
 		LongExpression left = (LongExpression) leftOp;
-		if(left instanceof Constant && rightOp instanceof Constant)
-			assert false;
-		return new BinaryLongExpression(this, left, rightOp);
+		Expression e = Simplifier.lng(this, left, rightOp);
+		if(e != null)
+			return e;
+		return BinaryLongExpression.make(this, left, rightOp);
     }
 }
@@ -60,6 +60,17 @@ public final class LongConstant extends LongExpression implements Constant
     {
 	return seed;
     }
+
+    //constants are compared by value when hash-consing, see ExpressionTable
+    public boolean equals(Object o)
+    {
+	return o instanceof LongConstant && ((LongConstant) o).seed == seed;
+    }
+
+    public int hashCode()
+    {
+	return (int) (seed ^ (seed >>> 32));
+    }
     
     private static LRUCacheLong cache = new LRUCacheLong();
 
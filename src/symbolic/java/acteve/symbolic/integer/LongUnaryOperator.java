@@ -40,8 +40,9 @@ public class LongUnaryOperator extends UnaryOperator
 
     public Expression apply(Expression e)
     {
-		if(e instanceof Constant)
-			assert false;
-		return new UnaryLongExpression(this, e);
+		Expression s = Simplifier.unary(this, e);
+		if(s != null)
+			return s;
+		return UnaryLongExpression.make(this, e);
     }
 }
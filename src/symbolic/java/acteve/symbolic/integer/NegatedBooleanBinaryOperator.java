@@ -40,6 +40,6 @@ public class NegatedBooleanBinaryOperator extends BooleanBinaryOperator
 	
     public Expression apply(Expression left, Expression right)
     {
-		return new NegatedBooleanExpression(super.apply(left, right));
+		return BooleanExpression.NEGATION.apply(super.apply(left, right));
     }
 }
@@ -33,13 +33,30 @@ package acteve.symbolic.integer;
 
 import acteve.symbolic.integer.operation.Operations;
 
-public class NegatedBooleanExpression extends BooleanExpression
+public class NegatedBooleanExpression extends BooleanExpression implements HashConsed
 {
 	public Expression e;
 
 	public NegatedBooleanExpression(Expression e)
 	{
 		this.e = e;
+		grow(e, null);
+	}
+
+	/**
+	 * Returns the canonical negation of e, see ExpressionTable.
+	 */
+	public static Expression make(Expression e)
+	{
+		Expression n = ExpressionTable.v.lookup(NegatedBooleanExpression.class, e, null, null);
+		if(n == null)
+			n = ExpressionTable.v.add(new NegatedBooleanExpression(e), NegatedBooleanExpression.class, e, null, null);
+		return n;
+	}
+
+	public boolean matches(Object op, Object a, Object unused1, Object unused2)
+	{
+		return op == NegatedBooleanExpression.class && ExpressionTable.same(e, a);
 	}
 
 	public String toYicesString()
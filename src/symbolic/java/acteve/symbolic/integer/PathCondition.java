@@ -32,6 +32,7 @@ package acteve.symbolic.integer;
 
 //import android.util.Slog;
 import acteve.symbolic.Mylog;
+import acteve.symbolic.Verbosity;
 
 public class PathCondition
 {
@@ -45,7 +46,8 @@ public class PathCondition
 	
     public void assumeDet(Expression e)
     {
-		new Exception().printStackTrace();
+		if(Verbosity.DEBUG_ON)
+			new Exception().printStackTrace();
     	printConstraint(e, true, true);
     }
 
@@ -61,7 +63,8 @@ public class PathCondition
 
     private void printConstraint(Expression e, boolean flag, boolean det)
     {
-		Mylog.e("A3T_DEBUG", "e = " + e + " flag = " + flag + " det = " + det);
+		if(Verbosity.DEBUG_ON)
+			Mylog.e("A3T_DEBUG", "e = " + e + " flag = " + flag + " det = " + det);
 
 		//printST();
 		if(!flag){
@@ -73,15 +76,13 @@ public class PathCondition
 			//str = "BNOT("+str+")";
 			//str = "(not " + str + ")";
 		}
-		String str = e.toYicesString();
-		if(det)
-			str = "*"+str;
-		Mylog.e("A3T_PC", str);
+		//the only rendering of the constraint; it goes straight to the trace
+		Mylog.pc(e.toYicesString(), det);
     }
 
 	public void printConstraint(String constraint)
 	{
-		Mylog.e("A3T_PC", "*"+constraint);
+		Mylog.pc(constraint, true);
 	}
 
 	/*
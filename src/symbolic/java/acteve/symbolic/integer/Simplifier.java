@@ -0,0 +1,329 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic.integer;
+
+/**
+ * Rewrites applied by the operators before they build a node, so that
+ * trivial terms never get a node, a $I$ definition or a solver clause:
+ *
+ *   - folding of int/long arithmetic and comparisons on constants,
+ *   - identities: x+0, x-0, x*1, x*0, x div 1, ~~x,
+ *   - linear terms: (x+c1)+c2, (x-c1)-c2, c+x normalized to x+c or x-c,
+ *   - comparisons: constant moved to the right, (x+c1) < c2 to 
+ *     x < c2-c1, (lcmp a b) < 0 to a < b,
+ *   - negation pushed into int comparisons: not(x < c) to x >= c,
+ *   - conjunctions with true/false.
+ *
+ * The path condition is in integer arithmetic, so a rewrite that needs
+ * a new constant is only done if the constant is exact, i.e. does not 
+ * overflow; div and rem are only folded for non-negative operands 
+ * since the solver's div/rem round differently from Java's.
+ * Bitwise operations, shifts and floating point are left alone.
+ *
+ * Each method returns null if no rewrite applies.
+ */
+public final class Simplifier
+{
+	private Simplifier()
+	{
+	}
+
+	public static Expression integer(BinaryOperator op, Expression l, Expression r)
+	{
+		if(op == LongExpression.LCMP){
+			if(l instanceof LongConstant && r instanceof LongConstant){
+				long a = ((LongConstant) l).seed, b = ((LongConstant) r).seed;
+				return IntegerConstant.get(a < b ? -1 : (a == b ? 0 : 1));
+			}
+			return null;
+		}
+		if(l instanceof IntegerConstant && r instanceof IntegerConstant){
+			Long v = fold(op, ((IntegerConstant) l).seed, ((IntegerConstant) r).seed, 
+						  IntegerExpression.IADD, IntegerExpression.ISUB, IntegerExpression.IMUL,
+						  IntegerExpression.IDIV, IntegerExpression.IREM);
+			if(v != null && v.longValue() == (int) v.longValue())
+				return IntegerConstant.get((int) v.longValue());
+			return null;
+		}
+		if(op == IntegerExpression.IADD || op == IntegerExpression.ISUB){
+			long c;
+			Expression x;
+			if(r instanceof IntegerConstant){
+				x = l;
+				c = ((IntegerConstant) r).seed;
+				if(op == IntegerExpression.ISUB)
+					c = -c;
+			} else if(l instanceof IntegerConstant && op == IntegerExpression.IADD){
+				x = r;
+				c = ((IntegerConstant) l).seed;
+			} else
+				return null;
+			//x is (y + c') or (y - c')
+			if(x instanceof BinaryIntegerExpression){
+				BinaryIntegerExpression b = (BinaryIntegerExpression) x;
+				if(b.right instanceof IntegerConstant){
+					if(b.op == IntegerExpression.IADD){
+						x = b.left;
+						c += ((IntegerConstant) b.right).seed;
+					} else if(b.op == IntegerExpression.ISUB){
+						x = b.left;
+						c -= ((IntegerConstant) b.right).seed;
+					}
+				}
+			}
+			return linearInt(x, c, op, l, r);
+		}
+		if(op == IntegerExpression.IMUL){
+			if(isInt(r, 1)) return l;
+			if(isInt(l, 1)) return r;
+			if(isInt(r, 0) || isInt(l, 0)) return IntegerConstant.get(0);
+			return null;
+		}
+		if(op == IntegerExpression.IDIV){
+			if(isInt(r, 1)) return l;
+			return null;
+		}
+		return null;
+	}
+
+	/*
+	  x + c in canonical form: x alone if c = 0, x - |c| if c < 0.
+	  Returns null if that is the node (op l r) that was asked for.
+	*/
+	private static Expression linearInt(Expression x, long c, BinaryOperator op, Expression l, Expression r)
+	{
+		if(c == 0)
+			return x;
+		if(c != (int) c || -c != (int) -c)
+			return null;
+		BinaryOperator newOp = c > 0 ? IntegerExpression.IADD : IntegerExpression.ISUB;
+		IntegerConstant k = IntegerConstant.get((int) (c > 0 ? c : -c));
+		if(newOp == op && x == l && k.equals(r))
+			return null;
+		return BinaryIntegerExpression.make(newOp, x, k);
+	}
+
+	public static Expression lng(BinaryOperator op, Expression l, Expression r)
+	{
+		if(l instanceof LongConstant && r instanceof LongConstant){
+			long a = ((LongConstant) l).seed, b = ((LongConstant) r).seed;
+			if(op == LongExpression.LADD){
+				long s = a + b;
+				if(((a ^ s) & (b ^ s)) < 0) return null;
+				return LongConstant.get(s);
+			}
+			if(op == LongExpression.LSUB){
+				long s = a - b;
+				if(((a ^ b) & (a ^ s)) < 0) return null;
+				return LongConstant.get(s);
+			}
+			if(op == LongExpression.LMUL){
+				long p = a * b;
+				if(a != 0 && (p / a != b || (a == -1 && b == Long.MIN_VALUE))) return null;
+				return LongConstant.get(p);
+			}
+			if(a >= 0 && b > 0){
+				if(op == LongExpression.LDIV) return LongConstant.get(a / b);
+				if(op == LongExpression.LREM) return LongConstant.get(a % b);
+			}
+			return null;
+		}
+		if(op == LongExpression.LADD){
+			if(isLong(r, 0)) return l;
+			if(isLong(l, 0)) return r;
+		} else if(op == LongExpression.LSUB){
+			if(isLong(r, 0)) return l;
+		} else if(op == LongExpression.LMUL){
+			if(isLong(r, 1)) return l;
+			if(isLong(l, 1)) return r;
+			if(isLong(r, 0) || isLong(l, 0)) return LongConstant.get(0L);
+		} else if(op == LongExpression.LDIV){
+			if(isLong(r, 1)) return l;
+		}
+		return null;
+	}
+
+	public static Expression unary(UnaryOperator op, Expression e)
+	{
+		if(op == IntegerExpression.INEG){
+			if(e instanceof IntegerConstant){
+				int v = ((IntegerConstant) e).seed;
+				return v == Integer.MIN_VALUE ? null : IntegerConstant.get(-v);
+			}
+			if(e instanceof UnaryIntegerExpression && ((UnaryIntegerExpression) e).op == IntegerExpression.INEG)
+				return ((UnaryIntegerExpression) e).operand;
+		} else if(op == LongExpression.LNEG){
+			if(e instanceof LongConstant){
+				long v = ((LongConstant) e).seed;
+				return v == Long.MIN_VALUE ? null : LongConstant.get(-v);
+			}
+			if(e instanceof UnaryLongExpression && ((UnaryLongExpression) e).op == LongExpression.LNEG)
+				return ((UnaryLongExpression) e).operand;
+		} else if(op == IntegerExpression.I2L){
+			if(e instanceof IntegerConstant)
+				return LongConstant.get(((IntegerConstant) e).seed);
+		}
+		return null;
+	}
+
+	/**
+	 * Comparisons and conjunctions. op may be a NegatedBooleanBinaryOperator
+	 * (!=), whose apply negates the result afterwards.
+	 */
+	public static Expression bool(BinaryOperator op, Expression l, Expression r)
+	{
+		if(op == BooleanExpression.CONJUNCT){
+			if(l instanceof BooleanConstant)
+				return ((BooleanConstant) l).seed ? r : l;
+			if(r instanceof BooleanConstant)
+				return ((BooleanConstant) r).seed ? l : r;
+			return null;
+		}
+		if(!isIntComparison(op))
+			return null;
+		if(isNumber(l) && isNumber(r))
+			return BooleanConstant.get(compare(op, value(l), value(r)));
+		if(isNumber(l) && !isNumber(r)){
+			BinaryOperator m = mirror(op);
+			Expression s = bool(m, r, l);
+			return s != null ? s : BinaryBooleanExpression.make(m, r, l);
+		}
+		//(lcmp a b) op 0  ->  a op b
+		if(l instanceof BinaryIntegerExpression && isInt(r, 0)){
+			BinaryIntegerExpression b = (BinaryIntegerExpression) l;
+			if(b.op == LongExpression.LCMP)
+				return BinaryBooleanExpression.make(op, b.left, b.right);
+		}
+		//(x + c1) op c2  ->  x op (c2 - c1)
+		if(l instanceof BinaryIntegerExpression && r instanceof IntegerConstant){
+			BinaryIntegerExpression b = (BinaryIntegerExpression) l;
+			if(b.right instanceof IntegerConstant){
+				long c1 = ((IntegerConstant) b.right).seed;
+				if(b.op == IntegerExpression.ISUB)
+					c1 = -c1;
+				else if(b.op != IntegerExpression.IADD)
+					return null;
+				long c = ((IntegerConstant) r).seed - c1;
+				if(c == (int) c)
+					return BinaryBooleanExpression.make(op, b.left, IntegerConstant.get((int) c));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Negation pushed into int comparisons and constants. Double
+	 * negation is undone by NEGATION itself.
+	 */
+	public static Expression negate(Expression e)
+	{
+		if(e instanceof BooleanConstant)
+			return BooleanConstant.get(!((BooleanConstant) e).seed);
+		if(e instanceof BinaryBooleanExpression){
+			BinaryBooleanExpression b = (BinaryBooleanExpression) e;
+			BinaryOperator neg = complement(b.op);
+			if(neg != null)
+				return BinaryBooleanExpression.make(neg, b.left, b.right);
+		}
+		return null;
+	}
+
+	private static boolean isIntComparison(BinaryOperator op)
+	{
+		return op == IntegerExpression.ICMPEQ || op == IntegerExpression.ICMPNE
+			|| op == IntegerExpression.ICMPLT || op == IntegerExpression.ICMPLE
+			|| op == IntegerExpression.ICMPGT || op == IntegerExpression.ICMPGE;
+	}
+
+	//a op b == b mirror(op) a
+	private static BinaryOperator mirror(BinaryOperator op)
+	{
+		if(op == IntegerExpression.ICMPLT) return IntegerExpression.ICMPGT;
+		if(op == IntegerExpression.ICMPGT) return IntegerExpression.ICMPLT;
+		if(op == IntegerExpression.ICMPLE) return IntegerExpression.ICMPGE;
+		if(op == IntegerExpression.ICMPGE) return IntegerExpression.ICMPLE;
+		return op;
+	}
+
+	//not (a op b) == a complement(op) b
+	private static BinaryOperator complement(BinaryOperator op)
+	{
+		if(op == IntegerExpression.ICMPLT) return IntegerExpression.ICMPGE;
+		if(op == IntegerExpression.ICMPGE) return IntegerExpression.ICMPLT;
+		if(op == IntegerExpression.ICMPGT) return IntegerExpression.ICMPLE;
+		if(op == IntegerExpression.ICMPLE) return IntegerExpression.ICMPGT;
+		return null;
+	}
+
+	private static boolean compare(BinaryOperator op, long a, long b)
+	{
+		//the != operator builds (= a b) and negates it afterwards
+		if(op == IntegerExpression.ICMPEQ || op == IntegerExpression.ICMPNE) return a == b;
+		if(op == IntegerExpression.ICMPLT) return a < b;
+		if(op == IntegerExpression.ICMPLE) return a <= b;
+		if(op == IntegerExpression.ICMPGT) return a > b;
+		return a >= b;
+	}
+
+	private static Long fold(BinaryOperator op, long a, long b, BinaryOperator add, BinaryOperator sub,
+							 BinaryOperator mul, BinaryOperator div, BinaryOperator rem)
+	{
+		if(op == add) return a + b;
+		if(op == sub) return a - b;
+		if(op == mul) return a * b;
+		if(a >= 0 && b > 0){
+			if(op == div) return a / b;
+			if(op == rem) return a % b;
+		}
+		return null;
+	}
+
+	private static boolean isNumber(Expression e)
+	{
+		return e instanceof IntegerConstant || e instanceof LongConstant;
+	}
+
+	private static long value(Expression e)
+	{
+		return e instanceof IntegerConstant ? ((IntegerConstant) e).seed : ((LongConstant) e).seed;
+	}
+
+	private static boolean isInt(Expression e, int v)
+	{
+		return e instanceof IntegerConstant && ((IntegerConstant) e).seed == v;
+	}
+
+	private static boolean isLong(Expression e, long v)
+	{
+		return e instanceof LongConstant && ((LongConstant) e).seed == v;
+	}
+}
@@ -31,15 +31,18 @@
 
 package acteve.symbolic.integer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SymbolicDouble extends DoubleExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
     private String name;
 
     public SymbolicDouble(String name, double seed)
     {
 		this.seed = seed;
-		this.name = name == null ? ("$D$"+count++) : ("$D$"+name);
+		this.name = name == null ? ("$D$"+count.getAndIncrement()) : ("$D$"+name);
     }
     
     public SymbolicDouble(double seed)
@@ -49,7 +52,7 @@ public class SymbolicDouble extends DoubleExpression
     
 	static String makeName()
     {
-		return "$D$"+count++;
+		return "$D$"+count.getAndIncrement();
     }
 
     public String toString() 
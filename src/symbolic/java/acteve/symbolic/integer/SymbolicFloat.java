@@ -31,15 +31,18 @@
 
 package acteve.symbolic.integer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SymbolicFloat extends FloatExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
     private String name;
 
     public SymbolicFloat(String name, float seed)
     {
 		this.seed = seed;
-		this.name = name == null ? ("$F$"+count++) : ("$F$"+name);
+		this.name = name == null ? ("$F$"+count.getAndIncrement()) : ("$F$"+name);
     }
     
     public SymbolicFloat(float seed)
@@ -49,7 +52,7 @@ public class SymbolicFloat extends FloatExpression
 
 	static String makeName()
     {
-		return "$F$"+count++;
+		return "$F$"+count.getAndIncrement();
     }
 
     public String toString() 
@@ -31,11 +31,14 @@
 
 package acteve.symbolic.integer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.SException;
 
 public class SymbolicInteger extends IntegerExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
 
     //public SymbolicInteger()
     //{
@@ -78,15 +81,16 @@ public class SymbolicInteger extends IntegerExpression
     private String makeName(String type, String name)
     {
 		if(name == null)
-			return type+count++;
+			return type+count.getAndIncrement();
 		else
 			return type+name;
     }
 
     static String makeName()
     {
-    	System.out.println("SymbolicInteger: making a new name: $I$"+(count+1));
-		return "$I$" + count++;
+		String name = "$I$" + count.getAndIncrement();
+    	System.out.println("SymbolicInteger: making a new name: "+name);
+		return name;
     }
 	
     public String toString() 
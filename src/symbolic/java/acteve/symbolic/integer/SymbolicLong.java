@@ -31,15 +31,18 @@
 
 package acteve.symbolic.integer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SymbolicLong extends LongExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
     private String name;
 
     public SymbolicLong(String name, long seed)
     {
 		this.seed = seed;
-		this.name = name == null ? ("$L$"+count++) : ("$L$"+name);
+		this.name = name == null ? ("$L$"+count.getAndIncrement()) : ("$L$"+name);
     }
     
     public SymbolicLong(long seed)
@@ -49,7 +52,7 @@ public class SymbolicLong extends LongExpression
 
 	static String makeName()
     {
-		return "$L$"+count++;
+		return "$L$"+count.getAndIncrement();
     }
 
     public String toString() 
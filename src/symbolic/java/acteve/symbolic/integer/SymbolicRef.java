@@ -31,17 +31,20 @@
 
 package acteve.symbolic.integer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.integer.operation.Operations;
 
 public class SymbolicRef extends RefExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
     private String name;
 
 	public SymbolicRef(String name, Object seed)
 	{
 		super(seed);
-		this.name = name == null ? ("$R$"+count++) : ("$R$"+name);
+		this.name = name == null ? ("$R$"+count.getAndIncrement()) : ("$R$"+name);
 	}
 	
 	public SymbolicRef(Object seed)
@@ -30,7 +30,7 @@
 */
 package acteve.symbolic.integer;
 
-public class UnaryDoubleExpression extends DoubleExpression 
+public class UnaryDoubleExpression extends DoubleExpression implements HashConsed
 {
     Expression operand;
     UnaryOperator   op;
@@ -39,6 +39,23 @@ public class UnaryDoubleExpression extends DoubleExpression
     {
 		this.operand = operand;
 		this.op = o;
+		grow(operand, null);
+    }
+    
+    /**
+     * Returns the canonical node for (o operand), see ExpressionTable.
+     */
+    public static Expression make(UnaryOperator o, Expression operand)
+    {
+		Expression e = ExpressionTable.v.lookup(o, operand, null, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new UnaryDoubleExpression(o, operand), o, operand, null, null);
+		return e;
+    }
+
+    public boolean matches(Object o, Object a, Object unused1, Object unused2)
+    {
+		return op == o && ExpressionTable.same(operand, a);
     }
     
     public String toString () 
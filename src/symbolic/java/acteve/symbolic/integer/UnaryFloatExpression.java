@@ -31,7 +31,7 @@
 
 package acteve.symbolic.integer;
 
-public class UnaryFloatExpression extends FloatExpression 
+public class UnaryFloatExpression extends FloatExpression implements HashConsed
 {
     Expression operand;
     UnaryOperator   op;
@@ -40,6 +40,23 @@ public class UnaryFloatExpression extends FloatExpression
     {
 		this.operand = operand;
 		this.op = o;
+		grow(operand, null);
+    }
+    
+    /**
+     * Returns the canonical node for (o operand), see ExpressionTable.
+     */
+    public static Expression make(UnaryOperator o, Expression operand)
+    {
+		Expression e = ExpressionTable.v.lookup(o, operand, null, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new UnaryFloatExpression(o, operand), o, operand, null, null);
+		return e;
+    }
+
+    public boolean matches(Object o, Object a, Object unused1, Object unused2)
+    {
+		return op == o && ExpressionTable.same(operand, a);
     }
     
     public String toString () 
@@ -43,7 +43,9 @@ public class NEGATION extends UnaryOperator
 	{
 		if(operand instanceof NegatedBooleanExpression)
 			return ((NegatedBooleanExpression) operand).e;
-		else
-			return new NegatedBooleanExpression(operand);
+		Expression e = Simplifier.negate(operand);
+		if(e != null)
+			return e;
+		return NegatedBooleanExpression.make(operand);
 	}
 }
@@ -2,8 +2,10 @@ package acteve.symbolic.string;
 
 import acteve.symbolic.integer.BinaryOperator;
 import acteve.symbolic.integer.Expression;
+import acteve.symbolic.integer.ExpressionTable;
+import acteve.symbolic.integer.HashConsed;
 
-public class BinaryStringExpression extends StringExpression implements String
+public class BinaryStringExpression extends StringExpression implements String, HashConsed
 {
     Expression left;
     BinaryOperator   op;
@@ -16,6 +18,22 @@ public class BinaryStringExpression extends StringExpression implements String
 		this.right = r;
     }
     
+    /**
+     * Returns the canonical node for (o l r), see ExpressionTable.
+     */
+    public static Expression make(BinaryOperator o, Expression l, Expression r)
+    {
+		Expression e = ExpressionTable.v.lookup(o, l, r, null);
+		if(e == null)
+			e = ExpressionTable.v.add(new BinaryStringExpression(o, l, r), o, l, r, null);
+		return e;
+    }
+
+    public boolean matches(Object o, Object l, Object r, Object unused)
+    {
+		return op == o && ExpressionTable.same(left, l) && ExpressionTable.same(right, r);
+    }
+    
     public java.lang.String toString () 
     {
 		return "(" + left.toString() + " " + op.toString() + right.toString() + ")"; // + "[" + seed + "]";
@@ -33,7 +33,6 @@ package acteve.symbolic.string;
 
 import acteve.symbolic.Constant;
 import acteve.symbolic.integer.BinaryBooleanExpression;
-import acteve.symbolic.integer.BooleanBinaryOperator;
 import acteve.symbolic.integer.Expression;
 import acteve.symbolic.integer.operation.Operations;
 
@@ -71,6 +70,17 @@ public class StringConstant extends StringExpression implements Constant
     {
 		return seed;
     }
+
+	//constants are compared by value when hash-consing, see ExpressionTable
+	public boolean equals(Object o)
+	{
+		return o instanceof StringConstant && java.lang.String.valueOf(seed).equals(java.lang.String.valueOf(((StringConstant) o).seed));
+	}
+
+	public int hashCode()
+	{
+		return java.lang.String.valueOf(seed).hashCode();
+	}
 //
 //	public Expression _eq(Expression e)
 //	{
@@ -90,6 +100,6 @@ public class StringConstant extends StringExpression implements Constant
 	@Override
 	public Expression _contains(Expression e) {
 		System.out.println("CONTAINSCONTAINS. StringConstant._contains called with expression " + e.getClass().getName() + " , " + e.exprString() + " , " + e.toYicesString());
-		return new BinaryBooleanExpression(new BooleanBinaryOperator("Contains"), this, e);
+		return BinaryBooleanExpression.make(CONTAINS, this, e);
 	}
 }
@@ -10,6 +10,13 @@ import acteve.symbolic.integer.PathCondition;
 public abstract class StringExpression extends Expression implements String, Equality
 {
     public static final PathCondition pc = new PathCondition();
+
+	//shared so that string nodes can be hash-consed by operator identity
+	static final BooleanBinaryOperator EQ = new BooleanBinaryOperator("=");
+	static final BooleanBinaryOperator CONTAINS = new BooleanBinaryOperator("Contains");
+	static final BooleanBinaryOperator STARTS_WITH = new BooleanBinaryOperator("StartsWith");
+	static final BooleanBinaryOperator ENDS_WITH = new BooleanBinaryOperator("EndsWith");
+	static final BooleanBinaryOperator CONCAT = new BooleanBinaryOperator("Concat");
     
     protected java.lang.String exprString;
     
@@ -36,27 +43,27 @@ public abstract class StringExpression extends Expression implements String, Equ
 		if (e.toYicesString().equals("null@0")) {
 			e = StringConstant.get(e.toYicesString());
 		}
-		return new BinaryBooleanExpression(new BooleanBinaryOperator("="), this, e);
+		return BinaryBooleanExpression.make(EQ, this, e);
     }
     
 	@Override
 	public Expression _contains(Expression e) {
 		//Negated because x = a.contains(b) && (x==0) -> not contained 
-		return BooleanExpression.NEGATION.apply(new BinaryBooleanExpression(new BooleanBinaryOperator("Contains"), this, e));
+		return BooleanExpression.NEGATION.apply(BinaryBooleanExpression.make(CONTAINS, this, e));
 	}
 
 	@Override
 	public Expression _startswith(Expression e) {
-		return BooleanExpression.NEGATION.apply(new BinaryBooleanExpression(new BooleanBinaryOperator("StartsWith"), this, e));
+		return BooleanExpression.NEGATION.apply(BinaryBooleanExpression.make(STARTS_WITH, this, e));
 	}
 
 	@Override
 	public Expression _endswith(Expression e) {
-		return BooleanExpression.NEGATION.apply(new BinaryBooleanExpression(new BooleanBinaryOperator("EndsWith"), this, e));
+		return BooleanExpression.NEGATION.apply(BinaryBooleanExpression.make(ENDS_WITH, this, e));
 	}
 	
 	@Override
 	public Expression _concat(Expression e) {
-		return new BinaryStringExpression(new BooleanBinaryOperator("Concat"), this, e);
+		return BinaryStringExpression.make(CONCAT, this, e);
 	}
 }
@@ -1,11 +1,14 @@
 package acteve.symbolic.string;
 
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import acteve.symbolic.integer.Expression;
 
 public class SymbolicString extends StringExpression
 {
-    private static int count = 0;
+    //names are made by all threads of the app
+    private static final AtomicInteger count = new AtomicInteger();
 
     public SymbolicString(java.lang.String name) {
     	this.seed = "Seeed";
@@ -14,7 +17,7 @@ public class SymbolicString extends StringExpression
 
     static java.lang.String makeName()
     {
-		return "$S$" + count++;
+		return "$S$" + count.getAndIncrement();
     }
 	
     public java.lang.String toString() 
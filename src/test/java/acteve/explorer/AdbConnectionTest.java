@@ -0,0 +1,338 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.tools.ant.BuildException;
+
+/**
+ * Runs AdbConnection against a fake adb server on a local socket that
+ * speaks the host and sync protocols: host:transport, shell:, forward,
+ * and the sync SEND, RECV and QUIT requests.
+ *
+ * Run with: java -ea acteve.explorer.AdbConnectionTest
+ */
+public class AdbConnectionTest
+{
+	private static final String SERIAL = "emulator-5554";
+
+	/*
+	  Serves every connection on a thread of its own. Files pushed are
+	  kept in memory and can be pulled back.
+	 */
+	static final class FakeAdbServer implements Runnable
+	{
+		final ServerSocket server;
+		final Map<String,byte[]> files = new HashMap<String,byte[]>();
+		final List<String> requests = new ArrayList<String>();
+		int syncSessions;
+		int quits;
+
+		FakeAdbServer() throws IOException
+		{
+			server = new ServerSocket(0);
+			Thread t = new Thread(this, "FakeAdbServer");
+			t.setDaemon(true);
+			t.start();
+		}
+
+		int port()
+		{
+			return server.getLocalPort();
+		}
+
+		public void run()
+		{
+			while(true){
+				final Socket s;
+				try{
+					s = server.accept();
+				}catch(IOException e){
+					return;
+				}
+				Thread t = new Thread(new Runnable() {
+						public void run()
+						{
+							try{
+								serve(s);
+							}catch(IOException e){
+								//the client went away
+							}finally{
+								try{
+									s.close();
+								}catch(IOException e){
+									//ignore
+								}
+							}
+						}
+					});
+				t.setDaemon(true);
+				t.start();
+			}
+		}
+
+		private void serve(Socket s) throws IOException
+		{
+			DataInputStream in = new DataInputStream(s.getInputStream());
+			OutputStream out = s.getOutputStream();
+			String req = request(in);
+			if(req.startsWith("host-serial:")){
+				okay(out);
+				return;
+			}
+			if(!req.equals("host:transport:" + SERIAL)){
+				fail(out, "device '" + req.substring(req.lastIndexOf(':') + 1) + "' not found");
+				return;
+			}
+			okay(out);
+			req = request(in);
+			if(req.startsWith("shell:")){
+				okay(out);
+				out.write(("ran " + req.substring(6) + "\n").getBytes("UTF-8"));
+				out.flush();
+			} else if(req.equals("sync:")){
+				okay(out);
+				synchronized(this){
+					syncSessions++;
+				}
+				sync(in, out);
+			} else
+				fail(out, "unknown service " + req);
+		}
+
+		private void sync(DataInputStream in, OutputStream out) throws IOException
+		{
+			while(true){
+				String id = id(in);
+				int len = le32(in);
+				if(id.equals("QUIT")){
+					synchronized(this){
+						quits++;
+					}
+					return;
+				}
+				String arg = string(in, len);
+				if(id.equals("SEND")){
+					String path = arg.substring(0, arg.lastIndexOf(','));
+					ByteArrayOutputStream data = new ByteArrayOutputStream();
+					while(true){
+						String d = id(in);
+						int n = le32(in);
+						if(d.equals("DONE"))
+							break;
+						if(!d.equals("DATA") || n > 64*1024)
+							throw new AssertionError("bad sync packet " + d + " " + n);
+						byte[] b = new byte[n];
+						in.readFully(b);
+						data.write(b);
+					}
+					synchronized(this){
+						files.put(path, data.toByteArray());
+					}
+					header(out, "OKAY", 0);
+				} else if(id.equals("RECV")){
+					byte[] data;
+					synchronized(this){
+						data = files.get(arg);
+					}
+					if(data == null){
+						byte[] msg = "No such file or directory".getBytes("UTF-8");
+						header(out, "FAIL", msg.length);
+						out.write(msg);
+					} else {
+						for(int i = 0; i < data.length; i += 64*1024){
+							int n = Math.min(64*1024, data.length - i);
+							header(out, "DATA", n);
+							out.write(data, i, n);
+						}
+						header(out, "DONE", 0);
+					}
+				} else
+					throw new AssertionError("unknown sync request " + id);
+				out.flush();
+			}
+		}
+
+		private String request(DataInputStream in) throws IOException
+		{
+			int len = Integer.parseInt(string(in, 4), 16);
+			String req = string(in, len);
+			synchronized(this){
+				requests.add(req);
+			}
+			return req;
+		}
+
+		private static void okay(OutputStream out) throws IOException
+		{
+			out.write("OKAY".getBytes("US-ASCII"));
+			out.flush();
+		}
+
+		private static void fail(OutputStream out, String msg) throws IOException
+		{
+			byte[] bytes = msg.getBytes("UTF-8");
+			out.write(("FAIL" + String.format("%04x", bytes.length)).getBytes("US-ASCII"));
+			out.write(bytes);
+			out.flush();
+		}
+
+		private static void header(OutputStream out, String id, int value) throws IOException
+		{
+			out.write(id.getBytes("US-ASCII"));
+			out.write(new byte[] {(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)});
+		}
+
+		private static String id(DataInputStream in) throws IOException
+		{
+			return string(in, 4);
+		}
+
+		private static int le32(DataInputStream in) throws IOException
+		{
+			byte[] b = new byte[4];
+			in.readFully(b);
+			return (b[0] & 0xFF) | (b[1] & 0xFF) << 8 | (b[2] & 0xFF) << 16 | (b[3] & 0xFF) << 24;
+		}
+
+		private static String string(DataInputStream in, int len) throws IOException
+		{
+			byte[] b = new byte[len];
+			in.readFully(b);
+			return new String(b, "UTF-8");
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		FakeAdbServer server = new FakeAdbServer();
+		AdbConnection conn = new AdbConnection("127.0.0.1", server.port(), SERIAL);
+		File dir = File.createTempFile("adbtest", "");
+		dir.delete();
+		dir.mkdirs();
+
+		//shell: the command reaches the device as written
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		conn.shell("am start -e text 'a  b'", out);
+		check(out.toString("UTF-8").equals("ran am start -e text 'a  b'\n"), "shell output: " + out);
+		check(server.requests.contains("host:transport:" + SERIAL), "no transport request");
+
+		//push and pull over one sync session, with several DATA packets
+		byte[] data = new byte[150*1024 + 17];
+		new Random(7).nextBytes(data);
+		File local = new File(dir, "data.bin");
+		write(local, data);
+		conn.push(local, "/sdcard/data.bin");
+		check(Arrays.equals(server.files.get("/sdcard/data.bin"), data), "pushed bytes differ");
+		File pulled = new File(dir, "pulled.bin");
+		conn.pull("/sdcard/data.bin", pulled);
+		check(Arrays.equals(read(pulled), data), "pulled bytes differ");
+
+		//a FAIL leaves the session usable and no partial file behind
+		File missing = new File(dir, "missing.bin");
+		try{
+			conn.pull("/sdcard/missing.bin", missing);
+			check(false, "pull of a missing file succeeded");
+		}catch(BuildException e){
+			check(e.getMessage().contains("No such file"), "FAIL message lost: " + e.getMessage());
+		}
+		check(!missing.exists() && !new File(missing.getPath() + ".part").exists(), "partial pull left behind");
+		conn.push(local, "/sdcard/again.bin");
+		check(server.syncSessions == 1, "sync sessions: " + server.syncSessions);
+
+		//an unknown device fails in host:transport
+		AdbConnection other = new AdbConnection("127.0.0.1", server.port(), "emulator-9999");
+		try{
+			other.shell("ls", null);
+			check(false, "shell on an unknown device succeeded");
+		}catch(BuildException e){
+			check(e.getCause().getMessage().contains("not found"), "transport FAIL lost: " + e.getCause());
+		}
+
+		conn.forward(15554, "a3t_trace");
+		check(server.requests.contains("host-serial:" + SERIAL + ":forward:tcp:15554;localabstract:a3t_trace"),
+			  "forward request: " + server.requests);
+
+		conn.close();
+		for(int i = 0; i < 100 && server.quits == 0; i++)
+			Thread.sleep(10);
+		check(server.quits == 1, "no QUIT on close");
+
+		for(File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+		System.out.println("AdbConnectionTest: ok");
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if(!ok)
+			throw new AssertionError(msg);
+	}
+
+	private static void write(File f, byte[] data) throws IOException
+	{
+		FileOutputStream out = new FileOutputStream(f);
+		try{
+			out.write(data);
+		}finally{
+			out.close();
+		}
+	}
+
+	private static byte[] read(File f) throws IOException
+	{
+		byte[] data = new byte[(int) f.length()];
+		DataInputStream in = new DataInputStream(new FileInputStream(f));
+		try{
+			in.readFully(data);
+		}finally{
+			in.close();
+		}
+		return data;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.File;
+
+import acteve.symbolic.BinaryLogWriter;
+
+/**
+ * Writes a binary trace from four threads, well over one frame of 
+ * each, and checks that BinaryTrace merges the records of the threads
+ * back into the order they were made in, with the right thread and 
+ * the strings of every frame resolved.
+ *
+ * Run with: java -ea acteve.explorer.BinaryTraceTest
+ */
+public class BinaryTraceTest
+{
+	private static final int THREADS = 4;
+	private static final int RECORDS = 80000;
+
+	public static void main(String[] args) throws Exception
+	{
+		File file = File.createTempFile("binarytrace", ".bin");
+		final int[] owner = BinaryLogWriter.write(file, THREADS, RECORDS);
+		check(BinaryTrace.isBinary(file), "not a binary trace");
+		check(file.length() > THREADS * 2 * 16 * 1024, "too few frames: " + file.length());
+
+		final int[] state = new int[3];
+		final int K = 0, THREAD = 1, SWITCHES = 2;
+		state[K] = -1;
+		BinaryTrace.read(file, new BinaryTrace.Visitor() {
+				public void thread(int thread)
+				{
+					state[THREAD] = thread;
+					state[SWITCHES]++;
+				}
+
+				public void iter(int eventId)
+				{
+					check(eventId == state[K] + 1, "record " + eventId + " after " + state[K]);
+					check(owner[eventId] == state[THREAD], "thread of record " + eventId + ": " + state[THREAD]);
+					state[K] = eventId;
+				}
+
+				public void pc(String constraint)
+				{
+					check(state[K] % 2 == 0 && constraint.equals(BinaryLogWriter.pc(state[K])),
+						  "pc after record " + state[K] + ": " + constraint);
+				}
+
+				public void branch(boolean taken, int branchId)
+				{
+					check(state[K] % 3 == 0 && branchId == BinaryLogWriter.branch(state[K])
+						  && taken == (state[K] % 5 == 0), "branch after record " + state[K] + ": " + branchId);
+				}
+
+				public void read(int fldId) { unexpected(); }
+				public void write(int fldId) { unexpected(); }
+				public void rw(int evId, int fldId) { unexpected(); }
+				public void ww(int evId, int fldId) { unexpected(); }
+				public void aread(int objId, int index) { unexpected(); }
+				public void awrite(int objId, int index) { unexpected(); }
+				public void text(String line) { unexpected(); }
+			});
+		check(state[K] == RECORDS - 1, "records read: " + (state[K] + 1));
+		check(state[SWITCHES] > THREADS, "threads never interleaved");
+
+		file.delete();
+		System.out.println("BinaryTraceTest: ok (" + state[SWITCHES] + " thread switches)");
+	}
+
+	private static void unexpected()
+	{
+		throw new AssertionError("unexpected record");
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if(!ok)
+			throw new AssertionError(msg);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks that the bucketed, parallel Indep.independentPairs finds the 
+ * same pairs as checking every pair of tests, on random traces with
+ * few enough branch choices that many pairs are independent.
+ *
+ * Run with: java -ea acteve.explorer.IndepTest
+ */
+public class IndepTest
+{
+	public static void main(String[] args)
+	{
+		Random random = new Random(7);
+		int independent = 0;
+		for (int round = 0; round < 300; round++) {
+			int numEvents = 2 + random.nextInt(5);
+			int numTests = 10 + random.nextInt(40);
+			List<Indep.Test> tests = new ArrayList<Indep.Test>();
+			for (int id = 0; id < numTests; id++)
+				tests.add(randomTest(random, id, numEvents));
+
+			Set<String> expected = new HashSet<String>();
+			for (int i = 0; i < numTests; i++)
+				for (int j = i + 1; j < numTests; j++)
+					if (Indep.check(tests.get(i), tests.get(j), numEvents))
+						expected.add(i + "," + j);
+
+			Collection<int[]> pairs = Indep.independentPairs(tests, numEvents);
+			Set<String> found = new HashSet<String>();
+			for (int[] pair : pairs)
+				found.add(pair[0] + "," + pair[1]);
+			check(found.size() == pairs.size(), "duplicate pairs in round " + round);
+			check(found.equals(expected), "round " + round + ": " + found + " instead of " + expected);
+			independent += expected.size();
+		}
+		check(independent > 0, "no independent pairs");
+		System.out.println("IndepTest: ok (" + independent + " independent pairs)");
+	}
+
+	/*
+	  Up to two branches per event, out of few possible ones, and now 
+	  and then an event reading a field written by an earlier event.
+	 */
+	private static Indep.Test randomTest(Random random, int id, int numEvents)
+	{
+		List<String> lines = new ArrayList<String>();
+		List<Set<RWRecord>> rwSet = new ArrayList<Set<RWRecord>>();
+		for (int e = 0; e < numEvents; e++) {
+			lines.add("");
+			int branches = random.nextInt(3);
+			for (int b = 0; b < branches; b++)
+				lines.add((random.nextBoolean() ? "T" : "F") + (branches * 10 + b));
+			Set<RWRecord> rws = new HashSet<RWRecord>();
+			if (e > 0 && random.nextInt(3) == 0)
+				rws.add(new RWRecord(random.nextInt(e), 5));
+			rwSet.add(rws);
+		}
+		Trace trace = Trace.of(lines);
+		PathInfo pinfo = new PathInfo(numEvents, trace.size(), new HashSet<Integer>(), rwSet, false);
+		return new Indep.Test(id, pinfo, trace);
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if (!ok)
+			throw new AssertionError(msg);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Round trips PathInfo through the binary pathinfo.N format, reads a
+ * file in the older properties format and checks that a corrupted
+ * file is refused.
+ *
+ * Run with: java -ea acteve.explorer.PathInfoTest
+ */
+public class PathInfoTest
+{
+	public static void main(String[] args) throws Exception
+	{
+		File dir = File.createTempFile("pathinfotest", "");
+		dir.delete();
+		dir.mkdirs();
+
+		Set<Integer> writeSet = new HashSet<Integer>(Arrays.asList(-1, 500, 3, 70000));
+		List<Set<RWRecord>> rwSet = new ArrayList<Set<RWRecord>>();
+		rwSet.add(new HashSet<RWRecord>());
+		rwSet.add(new HashSet<RWRecord>(Arrays.asList(new RWRecord(0, -1), new RWRecord(0, 12345), new RWRecord(0, 7))));
+		Set<RWRecord> many = new HashSet<RWRecord>();
+		for(int i = 0; i < 5000; i++)
+			many.add(new RWRecord(i % 3, i * 997));
+		rwSet.add(many);
+		PathInfo info = new PathInfo(3, 123456, writeSet, rwSet, true);
+		info.dump(new File(dir, PathInfo.fileName(7)));
+		check(new File(dir, PathInfo.fileName(7)).length() > 4096, "file too small to grow the read buffer");
+
+		//the reader reuses its buffer; read a small file after the big one
+		PathInfo.Reader reader = new PathInfo.Reader(dir);
+		PathInfo small = new PathInfo(1, 2, new HashSet<Integer>(Arrays.asList(9)),
+									  rwSet.subList(0, 1), false);
+		small.dump(new File(dir, PathInfo.fileName(8)));
+		for(int round = 0; round < 2; round++){
+			PathInfo read = reader.read(7);
+			check(read.numEvents == 3, "numEvents " + read.numEvents);
+			check(read.traceLength == 123456, "traceLength " + read.traceLength);
+			check(read.endsWithPanelClick, "endsWithPanelClick lost");
+			check(Arrays.equals(read.writeSet, new int[]{-1, 3, 500, 70000}), "writeSet " + Arrays.toString(read.writeSet));
+			for(int e = 0; e < 3; e++)
+				check(Arrays.equals(read.rwSet[e], packed(rwSet.get(e))), "rwSet of event " + e);
+
+			read = reader.read(8);
+			check(read.numEvents == 1 && read.traceLength == 2 && !read.endsWithPanelClick, "small file fields");
+			check(Arrays.equals(read.writeSet, new int[]{9}), "small writeSet " + Arrays.toString(read.writeSet));
+			check(read.rwSet[0].length == 0, "small rwSet");
+		}
+		long rw = reader.read(7).rwSet[1][2];
+		check(PathInfo.eventId(rw) == 0 && PathInfo.fieldId(rw) == -1, "unpacked " + rw);
+
+		//files written before the binary format
+		File old = new File(dir, PathInfo.fileName(9));
+		PrintWriter writer = new PrintWriter(old);
+		writer.println("numevents=2\ntracelength=5\nendswithpanelclick=false\nwriteset=4 -1 \nrwset=,0;3 0;-1 ,");
+		writer.close();
+		PathInfo props = PathInfo.load(old);
+		check(props.numEvents == 2 && props.traceLength == 5 && !props.endsWithPanelClick, "properties fields");
+		check(Arrays.equals(props.writeSet, new int[]{-1, 4}), "properties writeSet " + Arrays.toString(props.writeSet));
+		check(props.rwSet[0].length == 0, "properties rwSet of event 0");
+		check(Arrays.equals(props.rwSet[1], new long[]{PathInfo.rwRecord(0, 3), PathInfo.rwRecord(0, -1)}),
+			  "properties rwSet of event 1 " + Arrays.toString(props.rwSet[1]));
+
+		//a flipped byte fails the CRC
+		RandomAccessFile raf = new RandomAccessFile(new File(dir, PathInfo.fileName(7)), "rw");
+		raf.seek(9);
+		raf.write(raf.read() ^ 0x55);
+		raf.close();
+		try{
+			reader.read(7);
+			check(false, "corrupt file was read");
+		}catch(Error e){
+			check(e.getMessage().startsWith("corrupt "), "message: " + e.getMessage());
+		}
+
+		for(File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+		System.out.println("PathInfoTest: ok");
+	}
+
+	private static long[] packed(Set<RWRecord> records)
+	{
+		long[] rws = new long[records.size()];
+		int i = 0;
+		for(RWRecord r : records)
+			rws[i++] = PathInfo.rwRecord(r.id, r.fldId);
+		Arrays.sort(rws);
+		return rws;
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if(!ok)
+			throw new AssertionError(msg);
+	}
+}
@@ -0,0 +1,146 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the same paths in a FilePathStore and a TreePathStore and
+ * checks that both give the same prefixes, path constraints, traces
+ * and declarations, and that the files TreePathStore exports are the
+ * ones FilePathStore writes. Paths 1 and 2 leave their seed, path 0, 
+ * at different depths; path 3 has a node bigger than one read.
+ *
+ * Run with: java -ea acteve.explorer.PathStoreTest
+ * in a directory whose config.properties sets results.dir.
+ */
+public class PathStoreTest
+{
+	public static void main(String[] args) throws Exception
+	{
+		Config.g();
+		String[] p0 = {"|", "*(= $I$1 (+ $I$x 1))", "(< $I$1 3)", "BT1", "(> $I$y 0)", "BF2",
+					   "|", "(= $I$z 4)", "BT3", "*(= $I$w 0)"};
+		String[] p1 = {"|", "*(= $I$1 (+ $I$x 1))", "(< $I$1 3)", "BT1", "(not (> $I$y 0))", "BT2",
+					   "|", "(= $I$q 1)", "BF7"};
+		StringBuilder big = new StringBuilder("(= $I$big ");
+		for (int i = 0; i < 3000; i++)
+			big.append("(+ 1 ");
+		big.append("0");
+		for (int i = 0; i < 3000; i++)
+			big.append(")");
+		big.append(")");
+		List<String> p3 = new ArrayList<String>(Arrays.asList(p0).subList(0, 5));
+		for (int i = 0; i < 200; i++) {
+			p3.add("(< $I$v" + i + " " + i + ")");
+			if (i == 100)
+				p3.add(big.toString());
+			p3.add("BT" + (10 + i));
+		}
+		String[][] paths = {p0, p1, p0, p3.toArray(new String[0])};
+		int[] depths = {3, 3, 3, 200};
+
+		FilePathStore files = new FilePathStore();
+		TreePathStore tree = TreePathStore.open();
+		for (int id = 0; id < paths.length; id++) {
+			record(files, id, id == 0 ? -1 : 0, paths[id]);
+			record(tree, id, id == 0 ? -1 : 0, paths[id]);
+		}
+		check(!tree.contains(paths.length), "path " + paths.length + " was not recorded");
+
+		for (int id = 0; id < paths.length; id++) {
+			for (int d = 1; d <= depths[id]; d++) {
+				List<String> x = new ArrayList<String>();
+				List<String> y = new ArrayList<String>();
+				String bx = files.prefix(id, d, x);
+				String by = tree.prefix(id, d, y);
+				check(bx.equals(by) && x.equals(y), "prefix of " + id + " at " + d + ": " + y + by);
+			}
+			check(files.pc(id).equals(tree.pc(id)), "pc of " + id + ": " + tree.pc(id));
+			check(uncommented(files.trace(id)).equals(tree.trace(id)), "trace of " + id + ": " + tree.trace(id));
+			check(files.decls(id).equals(tree.decls(id)), "decls of " + id + ": " + tree.decls(id));
+		}
+
+		//export over FilePathStore's files and read them back through it
+		List<List<String>> expected = new ArrayList<List<String>>();
+		for (int id = 0; id < paths.length; id++) {
+			expected.add(files.pc(id));
+			expected.add(uncommented(files.trace(id)));
+			expected.add(files.decls(id));
+		}
+		tree.close();
+		TreePathStore.main(new String[]{Config.g().outDir});
+		List<List<String>> exported = new ArrayList<List<String>>();
+		for (int id = 0; id < paths.length; id++) {
+			exported.add(files.pc(id));
+			exported.add(files.trace(id));
+			exported.add(files.decls(id));
+		}
+		check(expected.equals(exported), "exported files differ");
+
+		System.out.println("PathStoreTest: ok");
+	}
+
+	private static void record(PathStore store, int id, int seedId, String[] path) throws Exception
+	{
+		PathStore.Writer writer = store.writer(id, seedId);
+		for (String r : path) {
+			if (r.equals("|"))
+				writer.iter();
+			else if (r.startsWith("B"))
+				writer.branch(r.substring(1), "note");
+			else
+				writer.pc(r);
+		}
+		writer.finish();
+	}
+
+	/*
+	  FilePathStore writes the comment of a branch after it.
+	 */
+	private static List<String> uncommented(List<String> trace)
+	{
+		List<String> lines = new ArrayList<String>();
+		for (String line : trace)
+			lines.add(line.replaceAll("  //.*", ""));
+		return lines;
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if (!ok)
+			throw new AssertionError(msg);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that SeedCache gives the store's pc, trace and declarations
+ * of a seed, keeps them while they fit, and drops a seed with its
+ * last child or when the cache is full.
+ *
+ * Run with: java -ea acteve.explorer.SeedCacheTest
+ * in a directory whose config.properties sets results.dir.
+ */
+public class SeedCacheTest
+{
+	public static void main(String[] args) throws Exception
+	{
+		Config.g();
+		PathStore store = new FilePathStore();
+		for (int id = 0; id < 3; id++) {
+			PathStore.Writer writer = store.writer(id, -1);
+			writer.iter();
+			writer.pc("*(= $I$1 (+ $I$x " + id + "))");
+			writer.pc("(< $I$1 3)");
+			writer.branch("T1", "note");
+			writer.pc("(> $I$y 0)");
+			writer.branch("F2", "note");
+			writer.finish();
+		}
+
+		SeedCache cache = new SeedCache(store, 100000);
+		for (int id = 0; id < 3; id++) {
+			check(cache.pc(id).equals(store.pc(id)), "pc of " + id);
+			check(cache.decls(id).equals(store.decls(id)), "decls of " + id);
+			check(cache.branches(id).equals(Trace.of(store.trace(id))), "trace of " + id);
+			List<String> x = new ArrayList<String>();
+			List<String> y = new ArrayList<String>();
+			check(cache.prefix(id, 2, x).equals(store.prefix(id, 2, y)) && x.equals(y), "prefix of " + id);
+		}
+		check(cache.pc(0) == cache.pc(0) && cache.branches(0) == cache.branches(0)
+			  && cache.decls(0) == cache.decls(0), "parts not kept");
+
+		//the trace built while processing a path is kept as is
+		Trace built = Trace.of(store.trace(2));
+		SeedCache fresh = new SeedCache(store, 100000);
+		fresh.put(2, built);
+		check(fresh.branches(2) == built, "put trace not kept");
+
+		//a seed goes with its last child
+		cache.expect(0);
+		cache.expect(0);
+		List<String> pc = cache.pc(0);
+		cache.release(0);
+		check(cache.pc(0) == pc, "seed dropped before its last child");
+		cache.release(0);
+		check(cache.pc(0) != pc && cache.pc(0).equals(pc), "seed kept after its last child");
+
+		//a cache too small for one seed reads through
+		SeedCache tiny = new SeedCache(store, 10);
+		check(tiny.pc(1) != tiny.pc(1) && tiny.pc(1).equals(store.pc(1)), "tiny cache kept a seed");
+
+		//a disabled cache reads through
+		SeedCache off = new SeedCache(store, 0);
+		check(off.branches(1) != off.branches(1) && off.branches(1).equals(cache.branches(1)), "disabled cache");
+
+		System.out.println("SeedCacheTest: ok");
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if (!ok)
+			throw new AssertionError(msg);
+	}
+}
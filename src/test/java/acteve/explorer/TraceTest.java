@@ -0,0 +1,87 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.explorer;
+
+import java.util.Arrays;
+
+/**
+ * Checks the int encoding of branch ids and the event comparisons of
+ * Trace, on traces read from PathStore.trace lines.
+ *
+ * Run with: java -ea acteve.explorer.TraceTest
+ */
+public class TraceTest
+{
+	public static void main(String[] args)
+	{
+		check(Trace.decode(Trace.encode("T42")).equals("T42"), "T42");
+		check(Trace.decode(Trace.encode("F0")).equals("F0"), "F0");
+		check(Trace.decode(Trace.encode("T2147483647")).equals("T2147483647"), "largest id");
+		check(Trace.encode("F7  // comment") == Trace.branch(false, 7), "comment not ignored");
+		check(Trace.flip(Trace.encode("T9")) == Trace.encode("F9"), "flip");
+
+		Trace t1 = Trace.of(Arrays.asList("", "T1  // x", "F2", "", "", "T3"));
+		Trace t2 = Trace.of(Arrays.asList("", "T3", "", "T1", "F2", ""));
+		Trace t3 = Trace.of(Arrays.asList("", "T1", "F2  // y", "", "", "T3"));
+		check(t1.numEvents() == 3 && t1.size() == 3, "sizes " + t1.numEvents() + " " + t1.size());
+		check(Trace.decode(t1.branch(1)).equals("F2"), "branch 1: " + Trace.decode(t1.branch(1)));
+		check(Arrays.equals(t1.branches(2), new int[]{Trace.encode("T1"), Trace.encode("F2")}), "first branches");
+		check(t1.branches(0).length == 0, "no branches");
+
+		//events 0, 1, 2 of t1 are those 1, 2, 0 of t2
+		check(t1.sameEvent(0, t2, 1) && t1.sameEvent(1, t2, 2) && t1.sameEvent(2, t2, 0), "same events");
+		check(!t1.sameEvent(0, t2, 0) && !t1.sameEvent(1, t2, 0), "different events");
+		check(t1.eventHash(1) == t2.eventHash(2), "hashes of empty events");
+
+		//comments are not part of the trace
+		check(t1.equals(t3) && t1.hashCode() == t3.hashCode(), "equal traces");
+		check(!t1.equals(t2), "traces with the same events in another order");
+
+		Trace.Builder builder = new Trace.Builder();
+		for (int e = 0; e < 100; e++) {
+			builder.iter();
+			for (int b = 0; b < e % 4; b++)
+				builder.branch(Trace.branch(b % 2 == 0, b));
+		}
+		Trace built = builder.build();
+		check(built.numEvents() == 100 && built.size() == 150, "built " + built.numEvents() + " " + built.size());
+		check(built.sameEvent(5, built, 9) && !built.sameEvent(5, built, 6), "built events");
+
+		System.out.println("TraceTest: ok");
+	}
+
+	private static void check(boolean ok, String msg)
+	{
+		if (!ok)
+			throw new AssertionError(msg);
+	}
+}
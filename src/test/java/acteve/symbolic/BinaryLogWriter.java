@@ -0,0 +1,118 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes a binary trace the way Mylog does, with one BinaryLog per 
+ * thread and a LogRing writing the frames, for the tests of 
+ * acteve.explorer.BinaryTrace.
+ *
+ * Record k is an ITER record of event k, made by thread owner[k]; 
+ * if k is even, it is followed by the PC record pc(k) and, if k is a
+ * multiple of 3, by the BRANCH record branch(k).
+ */
+public class BinaryLogWriter
+{
+	public static String pc(int k)
+	{
+		return "(< $I$v" + (k % 700) + " 0)";
+	}
+
+	public static int branch(int k)
+	{
+		return k % 1000;
+	}
+
+	/**
+	 * Writes records 0 to records-1 from the given number of threads
+	 * into file and returns the thread of each record.
+	 */
+	public static int[] write(File file, final int threads, final int records) throws Exception
+	{
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(BinaryLog.header());
+		LogRing ring = new LogRing(64) {
+				protected void write(Object record) throws IOException
+				{
+					out.write((byte[]) record);
+				}
+
+				protected void flush() throws IOException
+				{
+					out.flush();
+				}
+			};
+
+		//the lock makes the order of the records that of k
+		final Object lock = new Object();
+		final int[] next = new int[1];
+		final int[] owner = new int[records];
+		final BinaryLog[] logs = new BinaryLog[threads];
+		Thread[] workers = new Thread[threads];
+		for(int t = 0; t < threads; t++){
+			final int thread = t;
+			logs[t] = new BinaryLog(ring, t);
+			workers[t] = new Thread() {
+					public void run()
+					{
+						while(true){
+							synchronized(lock){
+								int k = next[0]++;
+								if(k >= records)
+									return;
+								owner[k] = thread;
+								logs[thread].record(BinaryLog.ITER, k);
+								if(k % 2 == 0)
+									logs[thread].pc(pc(k));
+								if(k % 3 == 0)
+									logs[thread].branch(branch(k), k % 5 == 0);
+							}
+							//let the other threads interleave
+							Thread.yield();
+						}
+					}
+				};
+			workers[t].start();
+		}
+		for(Thread w : workers)
+			w.join();
+		for(BinaryLog log : logs)
+			log.close();
+		ring.close();
+		out.close();
+		return owner;
+	}
+}
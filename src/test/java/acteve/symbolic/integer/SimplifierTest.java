@@ -0,0 +1,335 @@
+/*
+  Copyright (c) 2011,2012, 
+   Saswat Anand (saswat@gatech.edu)
+   Mayur Naik  (naik@cc.gatech.edu)
+  All rights reserved.
+  
+  Redistribution and use in source and binary forms, with or without
+  modification, are permitted provided that the following conditions are met: 
+  
+  1. Redistributions of source code must retain the above copyright notice, this
+  list of conditions and the following disclaimer. 
+  2. Redistributions in binary form must reproduce the above copyright notice,
+  this list of conditions and the following disclaimer in the documentation
+  and/or other materials provided with the distribution. 
+  
+  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+  ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+  
+  The views and conclusions contained in the software and documentation are those
+  of the authors and should not be interpreted as representing official policies, 
+  either expressed or implied, of the FreeBSD Project.
+*/
+
+package acteve.symbolic.integer;
+
+import java.math.BigInteger;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Differential test of Simplifier: random expression trees are built
+ * once as plain terms and once through the operators, which simplify,
+ * and both are evaluated for random inputs in the integer semantics 
+ * of the path condition. Any difference is a rewrite that changes 
+ * meaning.
+ *
+ * Run with: java -ea acteve.symbolic.integer.SimplifierTest [trees]
+ */
+public class SimplifierTest
+{
+	private static final int VARS = 3;
+	private static final int INPUTS = 20;
+	private static final int[] INTS = {0, 1, -1, 2, 5, -7, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1};
+	private static final long[] LONGS = {0L, 1L, -1L, 3L, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40};
+
+	private static final BinaryOperator[] ARITH = {
+		IntegerExpression.IADD, IntegerExpression.ISUB, IntegerExpression.IMUL,
+		IntegerExpression.IDIV, IntegerExpression.IREM
+	};
+	private static final BinaryOperator[] LARITH = {
+		LongExpression.LADD, LongExpression.LSUB, LongExpression.LMUL,
+		LongExpression.LDIV, LongExpression.LREM
+	};
+	private static final BinaryOperator[] CMP = {
+		IntegerExpression.ICMPEQ, IntegerExpression.ICMPNE, IntegerExpression.ICMPLT,
+		IntegerExpression.ICMPLE, IntegerExpression.ICMPGT, IntegerExpression.ICMPGE
+	};
+
+	/*
+	  A term as built by the program, before any rewrite. A leaf is 
+	  either a constant (value) or variable var.
+	 */
+	private static final class Term
+	{
+		final Object op;
+		final Term l, r;
+		final BigInteger value;
+		final int var;
+
+		Term(Object op, Term l, Term r)
+		{
+			this.op = op;
+			this.l = l;
+			this.r = r;
+			this.value = null;
+			this.var = -1;
+		}
+
+		Term(Object op, BigInteger value, int var)
+		{
+			this.op = op;
+			this.l = null;
+			this.r = null;
+			this.value = value;
+			this.var = var;
+		}
+	}
+
+	//kinds of leaves
+	private static final Object INT = "int", LONG = "long", BOOL = "bool";
+	private static final Object INT_VAR = "int var", LONG_VAR = "long var";
+
+	private final Random random;
+	private final Expression[] intVars = new Expression[VARS];
+	private final Expression[] longVars = new Expression[VARS];
+	private final BigInteger[] intValues = new BigInteger[VARS];
+	private final BigInteger[] longValues = new BigInteger[VARS];
+
+	SimplifierTest(long seed)
+	{
+		random = new Random(seed);
+		for(int i = 0; i < VARS; i++){
+			intVars[i] = new SymbolicInteger(Types.INT, "t" + i, 0);
+			longVars[i] = new SymbolicLong("t" + i, 0L);
+		}
+	}
+
+	public static void main(String[] args)
+	{
+		int trees = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		SimplifierTest test = new SimplifierTest(42);
+		int checked = 0;
+		for(int i = 0; i < trees; i++)
+			checked += test.check(test.bool(4));
+		for(int i = 0; i < trees; i++)
+			checked += test.check(test.integer(4));
+		System.out.println("SimplifierTest: " + checked + " evaluations agree");
+	}
+
+	/*
+	  Compares the term with its simplified expression for random 
+	  inputs; returns the number of inputs compared.
+	 */
+	private int check(Term t)
+	{
+		Expression e = build(t);
+		int compared = 0;
+		for(int i = 0; i < INPUTS; i++){
+			for(int v = 0; v < VARS; v++){
+				intValues[v] = BigInteger.valueOf(INTS[random.nextInt(INTS.length)] + (random.nextBoolean() ? 0 : random.nextInt(9) - 4));
+				longValues[v] = BigInteger.valueOf(random.nextBoolean() ? LONGS[random.nextInt(LONGS.length)] : random.nextInt(21) - 10);
+			}
+			BigInteger expected, actual;
+			try{
+				expected = eval(t);
+			}catch(ArithmeticException x){
+				//division by zero in the term
+				continue;
+			}
+			actual = eval(e);
+			if(!expected.equals(actual))
+				throw new AssertionError("rewrite changed the value: " + show(t) + " = " + expected + 
+										 " but " + e.toYicesString() + " = " + actual + " for ints " + 
+										 java.util.Arrays.toString(intValues) + ", longs " + 
+										 java.util.Arrays.toString(longValues));
+			compared++;
+		}
+		return compared;
+	}
+
+	private Term integer(int depth)
+	{
+		int k = depth == 0 ? random.nextInt(2) : random.nextInt(6);
+		switch(k){
+		case 0: return new Term(INT, BigInteger.valueOf(INTS[random.nextInt(INTS.length)]), -1);
+		case 1: return new Term(INT_VAR, null, random.nextInt(VARS));
+		case 2: return new Term(IntegerExpression.INEG, integer(depth-1), null);
+		case 3: return new Term(LongExpression.LCMP, lng(depth-1), lng(depth-1));
+		default:
+			//identities and folding need constant operands often
+			Term l = integer(depth-1);
+			Term r = random.nextInt(3) == 0 ? new Term(INT, BigInteger.valueOf(random.nextInt(3)), -1) : integer(depth-1);
+			return random.nextBoolean() ? new Term(ARITH[random.nextInt(ARITH.length)], l, r) 
+				: new Term(ARITH[random.nextInt(ARITH.length)], r, l);
+		}
+	}
+
+	private Term lng(int depth)
+	{
+		int k = depth == 0 ? random.nextInt(2) : random.nextInt(5);
+		switch(k){
+		case 0: return new Term(LONG, BigInteger.valueOf(LONGS[random.nextInt(LONGS.length)]), -1);
+		case 1: return new Term(LONG_VAR, null, random.nextInt(VARS));
+		case 2: return new Term(LongExpression.LNEG, lng(depth-1), null);
+		case 3: return new Term(IntegerExpression.I2L, integer(depth-1), null);
+		default:
+			Term l = lng(depth-1);
+			Term r = random.nextInt(3) == 0 ? new Term(LONG, BigInteger.valueOf(random.nextInt(3)), -1) : lng(depth-1);
+			return new Term(LARITH[random.nextInt(LARITH.length)], l, r);
+		}
+	}
+
+	private Term bool(int depth)
+	{
+		int k = depth == 0 ? random.nextInt(2) : random.nextInt(5);
+		switch(k){
+		case 0: return new Term(BOOL, BigInteger.valueOf(random.nextInt(2)), -1);
+		case 1: 
+			//(lcmp a b) op 0
+			return new Term(CMP[random.nextInt(CMP.length)], 
+							new Term(LongExpression.LCMP, lng(depth), lng(depth)), 
+							new Term(INT, BigInteger.ZERO, -1));
+		case 2: return new Term(BooleanExpression.NEGATION, bool(depth-1), null);
+		case 3: return new Term(BooleanExpression.CONJUNCT, bool(depth-1), bool(depth-1));
+		default: return new Term(CMP[random.nextInt(CMP.length)], integer(depth-1), integer(depth-1));
+		}
+	}
+
+	/*
+	  The term built through the operators, as the instrumented code 
+	  does.
+	 */
+	private Expression build(Term t)
+	{
+		if(t.op == INT)
+			return IntegerConstant.get(t.value.intValue());
+		if(t.op == LONG)
+			return LongConstant.get(t.value.longValue());
+		if(t.op == BOOL)
+			return BooleanConstant.get(t.value.signum() != 0);
+		if(t.op == INT_VAR)
+			return intVars[t.var];
+		if(t.op == LONG_VAR)
+			return longVars[t.var];
+		if(t.op instanceof UnaryOperator)
+			return ((UnaryOperator) t.op).apply(build(t.l));
+		return ((BinaryOperator) t.op).apply(build(t.l), build(t.r));
+	}
+
+	private BigInteger eval(Term t)
+	{
+		if(t.op == INT || t.op == LONG || t.op == BOOL)
+			return t.value;
+		if(t.op == INT_VAR)
+			return intValues[t.var];
+		if(t.op == LONG_VAR)
+			return longValues[t.var];
+		if(t.r == null)
+			return unary(t.op, eval(t.l));
+		return binary(t.op, eval(t.l), eval(t.r));
+	}
+
+	private BigInteger eval(Expression e)
+	{
+		if(e instanceof IntegerConstant)
+			return BigInteger.valueOf(((IntegerConstant) e).seed);
+		if(e instanceof LongConstant)
+			return BigInteger.valueOf(((LongConstant) e).seed);
+		if(e instanceof BooleanConstant)
+			return ((BooleanConstant) e).seed ? BigInteger.ONE : BigInteger.ZERO;
+		for(int v = 0; v < VARS; v++){
+			if(e == intVars[v])
+				return intValues[v];
+			if(e == longVars[v])
+				return longValues[v];
+		}
+		if(e instanceof BinaryIntegerExpression){
+			BinaryIntegerExpression b = (BinaryIntegerExpression) e;
+			return binary(b.op, eval(b.left), eval(b.right));
+		}
+		if(e instanceof BinaryLongExpression){
+			BinaryLongExpression b = (BinaryLongExpression) e;
+			return binary(b.op, eval(b.left), eval(b.right));
+		}
+		if(e instanceof BinaryBooleanExpression){
+			BinaryBooleanExpression b = (BinaryBooleanExpression) e;
+			//a != node is (= a b) under the negation applied by its operator
+			BinaryOperator op = b.op == IntegerExpression.ICMPNE ? IntegerExpression.ICMPEQ : b.op;
+			return binary(op, eval(b.left), eval(b.right));
+		}
+		if(e instanceof UnaryIntegerExpression){
+			UnaryIntegerExpression u = (UnaryIntegerExpression) e;
+			return unary(u.op, eval(u.operand));
+		}
+		if(e instanceof UnaryLongExpression){
+			UnaryLongExpression u = (UnaryLongExpression) e;
+			return unary(u.op, eval(u.operand));
+		}
+		if(e instanceof NegatedBooleanExpression)
+			return BigInteger.ONE.subtract(eval(((NegatedBooleanExpression) e).e));
+		throw new AssertionError("cannot evaluate " + e.getClass() + " " + e.toYicesString());
+	}
+
+	private static BigInteger unary(Object op, BigInteger a)
+	{
+		if(op == IntegerExpression.INEG || op == LongExpression.LNEG)
+			return a.negate();
+		if(op == IntegerExpression.I2L)
+			return a;
+		if(op == BooleanExpression.NEGATION)
+			return BigInteger.ONE.subtract(a);
+		throw new AssertionError("unexpected " + op);
+	}
+
+	/*
+	  Unbounded integers, as in the path condition.
+	 */
+	private static BigInteger binary(Object op, BigInteger a, BigInteger b)
+	{
+		if(op == IntegerExpression.IADD || op == LongExpression.LADD)
+			return a.add(b);
+		if(op == IntegerExpression.ISUB || op == LongExpression.LSUB)
+			return a.subtract(b);
+		if(op == IntegerExpression.IMUL || op == LongExpression.LMUL)
+			return a.multiply(b);
+		if(op == IntegerExpression.IDIV || op == LongExpression.LDIV)
+			return a.divide(b);
+		if(op == IntegerExpression.IREM || op == LongExpression.LREM)
+			return a.remainder(b);
+		if(op == LongExpression.LCMP)
+			return BigInteger.valueOf(a.compareTo(b));
+		if(op == BooleanExpression.CONJUNCT)
+			return a.signum() != 0 && b.signum() != 0 ? BigInteger.ONE : BigInteger.ZERO;
+		int c = a.compareTo(b);
+		boolean result;
+		if(op == IntegerExpression.ICMPEQ) result = c == 0;
+		else if(op == IntegerExpression.ICMPNE) result = c != 0;
+		else if(op == IntegerExpression.ICMPLT) result = c < 0;
+		else if(op == IntegerExpression.ICMPLE) result = c <= 0;
+		else if(op == IntegerExpression.ICMPGT) result = c > 0;
+		else if(op == IntegerExpression.ICMPGE) result = c >= 0;
+		else throw new AssertionError("unexpected " + op);
+		return result ? BigInteger.ONE : BigInteger.ZERO;
+	}
+
+	private static String show(Term t)
+	{
+		if(t.op == INT_VAR || t.op == LONG_VAR)
+			return "t" + t.var;
+		if(t.l == null)
+			return String.valueOf(t.value);
+		if(t.r == null)
+			return "(" + t.op + " " + show(t.l) + ")";
+		return "(" + t.op + " " + show(t.l) + " " + show(t.r) + ")";
+	}
+}